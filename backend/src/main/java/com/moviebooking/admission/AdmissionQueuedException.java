@@ -0,0 +1,19 @@
+package com.moviebooking.admission;
+
+import com.moviebooking.dto.QueueStatus;
+
+/**
+ * Thrown when a booker has to wait in the showtime's queue; carries the
+ * ticket the client should poll.
+ */
+public class AdmissionQueuedException extends RuntimeException {
+
+    private final QueueStatus status;
+
+    public AdmissionQueuedException(QueueStatus status) {
+        super("Showtime is busy, you are in the queue");
+        this.status = status;
+    }
+
+    public QueueStatus getStatus() { return status; }
+}
@@ -0,0 +1,252 @@
+package com.moviebooking.admission;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.moviebooking.dto.QueueStatus;
+import com.moviebooking.repository.ShowtimeRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Virtual waiting room in front of booking creation. Each showtime admits
+ * at most {@code max-concurrent} bookers at once; when that is exhausted or
+ * people are already waiting, new bookers get a queue token and a ticker
+ * lets them in at {@code rate-per-second}, oldest first.
+ *
+ * Rooms are only opened for showtimes that exist and are dropped once
+ * nobody has used them for {@code idle-timeout-seconds}.
+ */
+@Service
+public class AdmissionService {
+
+    private static final long TICK_MILLIS = 200;
+
+    @Value("${booking.admission.max-concurrent:50}")
+    private int maxConcurrent;
+
+    @Value("${booking.admission.rate-per-second:20}")
+    private double ratePerSecond;
+
+    @Value("${booking.admission.admit-ttl-seconds:120}")
+    private long admitTtlSeconds;
+
+    @Value("${booking.admission.idle-timeout-seconds:60}")
+    private long idleTimeoutSeconds;
+
+    @Value("${booking.admission.max-queue-depth:100000}")
+    private int maxQueueDepth;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    private final Map<Long, WaitingRoom> rooms = new ConcurrentHashMap<>();
+    private final Map<String, AdmissionTicket> tickets = new ConcurrentHashMap<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter admittedCounter;
+    private final Counter rejectedCounter;
+
+    public AdmissionService(MeterRegistry meterRegistry) {
+        Gauge.builder("booking.queue.depth", queueDepth, AtomicInteger::get)
+                .description("Bookers waiting in showtime queues")
+                .register(meterRegistry);
+        Gauge.builder("booking.queue.active", rooms, r -> r.values().stream().mapToInt(room -> room.occupied.get()).sum())
+                .description("Bookers admitted into the booking path")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("booking.queue.wait")
+                .description("Time from joining a showtime queue to admission")
+                .register(meterRegistry);
+        this.admittedCounter = meterRegistry.counter("booking.queue.admitted");
+        this.rejectedCounter = meterRegistry.counter("booking.queue.rejected");
+    }
+
+    /**
+     * Lets a booker into the booking path for a showtime. Returns an
+     * admission that must be closed when the booking attempt ends, or
+     * throws {@link AdmissionQueuedException} with the ticket to wait on.
+     */
+    public Admission enter(Long showtimeId, String token) {
+        WaitingRoom room = room(showtimeId);
+        long now = System.currentTimeMillis();
+
+        if (token != null) {
+            AdmissionTicket ticket = tickets.get(token);
+            if (ticket != null && ticket.showtimeId.equals(showtimeId)) {
+                if (ticket.state == AdmissionTicket.State.ADMITTED && tickets.remove(token, ticket)) {
+                    if (now <= ticket.admittedUntil) {
+                        // the slot was reserved when the ticket was admitted
+                        return new Admission(room);
+                    }
+                    room.occupied.decrementAndGet();
+                } else if (ticket.state == AdmissionTicket.State.WAITING) {
+                    ticket.lastSeen = now;
+                    throw new AdmissionQueuedException(toStatus(room, ticket));
+                }
+            }
+        }
+
+        if (room.depth.get() == 0 && room.tryOccupy(maxConcurrent)) {
+            return new Admission(room);
+        }
+        throw new AdmissionQueuedException(join(showtimeId));
+    }
+
+    /**
+     * Lets a booker in only when nobody is queued for the showtime and a
+     * slot is free, for callers that cannot wait on a ticket. Returns null
+     * otherwise, without joining the queue.
+     */
+    public Admission tryEnter(Long showtimeId) {
+        WaitingRoom room = room(showtimeId);
+        if (room.depth.get() == 0 && room.tryOccupy(maxConcurrent)) {
+            return new Admission(room);
+        }
+        return null;
+    }
+
+    public QueueStatus join(Long showtimeId) {
+        if (queueDepth.get() >= maxQueueDepth) {
+            rejectedCounter.increment();
+            throw new WaitingRoomFullException();
+        }
+        WaitingRoom room = room(showtimeId);
+        AdmissionTicket ticket = new AdmissionTicket(UUID.randomUUID().toString(), showtimeId,
+                room.nextSequence.incrementAndGet(), System.currentTimeMillis());
+        tickets.put(ticket.token, ticket);
+        room.waiting.add(ticket);
+        room.depth.incrementAndGet();
+        queueDepth.incrementAndGet();
+        return toStatus(room, ticket);
+    }
+
+    public QueueStatus status(Long showtimeId, String token) {
+        AdmissionTicket ticket = tickets.get(token);
+        WaitingRoom room = rooms.get(showtimeId);
+        if (ticket == null || room == null || !ticket.showtimeId.equals(showtimeId)) {
+            return new QueueStatus(token, showtimeId, "EXPIRED", 0, 0);
+        }
+        ticket.lastSeen = System.currentTimeMillis();
+        return toStatus(room, ticket);
+    }
+
+    int getRoomCount() {
+        return rooms.size();
+    }
+
+    // Admission ticker: frees unused reservations, admits waiters within rate and concurrency, drops idle rooms
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void admit() {
+        long now = System.currentTimeMillis();
+        long idleCutoff = now - TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        for (Map.Entry<Long, WaitingRoom> entry : rooms.entrySet()) {
+            WaitingRoom room = entry.getValue();
+            if (room.retireIfIdle(idleCutoff)) {
+                rooms.remove(entry.getKey(), room);
+                continue;
+            }
+            AdmissionTicket reserved;
+            while ((reserved = room.admitted.peek()) != null
+                    && (!tickets.containsKey(reserved.token) || reserved.admittedUntil < now)) {
+                room.admitted.poll();
+                if (tickets.remove(reserved.token, reserved)) {
+                    room.occupied.decrementAndGet();
+                }
+            }
+
+            if (room.depth.get() == 0) {
+                room.budget = 0;
+                continue;
+            }
+            room.budget = Math.min(room.budget + ratePerSecond * TICK_MILLIS / 1000.0, Math.max(ratePerSecond, 1));
+            while (room.budget >= 1 && room.tryOccupy(maxConcurrent)) {
+                AdmissionTicket ticket = nextLiveTicket(room, idleCutoff);
+                if (ticket == null) {
+                    room.occupied.decrementAndGet();
+                    break;
+                }
+                ticket.admittedUntil = now + TimeUnit.SECONDS.toMillis(admitTtlSeconds);
+                ticket.state = AdmissionTicket.State.ADMITTED;
+                room.admitted.add(ticket);
+                room.admittedSequence.set(ticket.sequence);
+                room.budget -= 1;
+                admittedCounter.increment();
+                waitTimer.record(now - ticket.enqueuedAt, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Skips tickets whose holder stopped polling
+    private AdmissionTicket nextLiveTicket(WaitingRoom room, long idleCutoff) {
+        AdmissionTicket ticket;
+        while ((ticket = room.waiting.poll()) != null) {
+            room.depth.decrementAndGet();
+            queueDepth.decrementAndGet();
+            if (ticket.lastSeen >= idleCutoff) {
+                return ticket;
+            }
+            tickets.remove(ticket.token, ticket);
+            room.admittedSequence.set(ticket.sequence);
+        }
+        return null;
+    }
+
+    // A retired room is already on its way out of the map, the caller gets a fresh one
+    private WaitingRoom room(Long showtimeId) {
+        while (true) {
+            WaitingRoom room = rooms.get(showtimeId);
+            if (room == null) {
+                if (!showtimeRepository.existsById(showtimeId)) {
+                    throw new IllegalArgumentException("Showtime not found");
+                }
+                room = rooms.computeIfAbsent(showtimeId, id -> new WaitingRoom());
+            }
+            if (room.touch(System.currentTimeMillis())) {
+                return room;
+            }
+            rooms.remove(showtimeId, room);
+        }
+    }
+
+    private QueueStatus toStatus(WaitingRoom room, AdmissionTicket ticket) {
+        if (ticket.state == AdmissionTicket.State.ADMITTED) {
+            return new QueueStatus(ticket.token, ticket.showtimeId, "ADMITTED", 0, 0);
+        }
+        long position = Math.max(1, ticket.sequence - room.admittedSequence.get());
+        long eta = (long) Math.ceil(position / Math.max(ratePerSecond, 0.001));
+        return new QueueStatus(ticket.token, ticket.showtimeId, "WAITING", position, eta);
+    }
+
+    /**
+     * A booker's slot in the booking path, released on close.
+     */
+    public static final class Admission implements AutoCloseable {
+
+        private final WaitingRoom room;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Admission(WaitingRoom room) {
+            this.room = room;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                room.occupied.decrementAndGet();
+            }
+        }
+    }
+}
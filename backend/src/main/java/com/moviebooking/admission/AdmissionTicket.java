@@ -0,0 +1,27 @@
+package com.moviebooking.admission;
+
+/**
+ * A place in a showtime's waiting room. Tickets are ordered by
+ * {@code sequence}; once admitted the holder has until
+ * {@code admittedUntil} to start booking.
+ */
+final class AdmissionTicket {
+
+    enum State { WAITING, ADMITTED }
+
+    final String token;
+    final Long showtimeId;
+    final long sequence;
+    final long enqueuedAt;
+    volatile long lastSeen;
+    volatile State state = State.WAITING;
+    volatile long admittedUntil;
+
+    AdmissionTicket(String token, Long showtimeId, long sequence, long now) {
+        this.token = token;
+        this.showtimeId = showtimeId;
+        this.sequence = sequence;
+        this.enqueuedAt = now;
+        this.lastSeen = now;
+    }
+}
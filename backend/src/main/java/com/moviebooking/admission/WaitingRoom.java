@@ -0,0 +1,54 @@
+package com.moviebooking.admission;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue state of one showtime. {@code occupied} counts bookers inside the
+ * booking path plus admitted tickets that have not shown up yet, and never
+ * exceeds the configured concurrency limit.
+ */
+final class WaitingRoom {
+
+    final ConcurrentLinkedQueue<AdmissionTicket> waiting = new ConcurrentLinkedQueue<>();
+    final ConcurrentLinkedQueue<AdmissionTicket> admitted = new ConcurrentLinkedQueue<>();
+    final AtomicInteger depth = new AtomicInteger();
+    final AtomicInteger occupied = new AtomicInteger();
+    final AtomicLong nextSequence = new AtomicLong();
+    final AtomicLong admittedSequence = new AtomicLong();
+
+    // admission credit carried between ticks, only touched by the admission ticker
+    double budget;
+
+    private long lastUsed;
+    private boolean retired;
+
+    // Marks the room as in use, false once the ticker has retired it
+    synchronized boolean touch(long now) {
+        if (retired) return false;
+        lastUsed = now;
+        return true;
+    }
+
+    /**
+     * Retires a room nobody has waited in, booked through or touched since
+     * the cutoff. A caller that fetched it just before keeps its reference
+     * for far less than the idle timeout, so nothing live is lost.
+     */
+    synchronized boolean retireIfIdle(long idleCutoff) {
+        if (!retired && depth.get() == 0 && occupied.get() == 0 && admitted.isEmpty() && lastUsed < idleCutoff) {
+            retired = true;
+        }
+        return retired;
+    }
+
+    boolean tryOccupy(int limit) {
+        int current;
+        do {
+            current = occupied.get();
+            if (current >= limit) return false;
+        } while (!occupied.compareAndSet(current, current + 1));
+        return true;
+    }
+}
@@ -0,0 +1,12 @@
+package com.moviebooking.admission;
+
+/**
+ * Thrown when no one else can join a waiting room right now; the same
+ * request may succeed a little later.
+ */
+public class WaitingRoomFullException extends RuntimeException {
+
+    public WaitingRoomFullException() {
+        super("Waiting room is full, please try again later");
+    }
+}
@@ -0,0 +1,173 @@
+package com.moviebooking.cache;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded read-through cache for catalog reads. Entries live for a fixed
+ * TTL and the oldest go first once the cache is full. A miss is loaded
+ * once: callers asking for the same key while it loads wait for that load
+ * instead of running their own query, and a failed load is not kept.
+ *
+ * Reports {@code catalog.cache.gets} (hit/miss), {@code catalog.cache.evictions}
+ * and {@code catalog.cache.size}, tagged with the cache name.
+ */
+public class CatalogCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry<K, V>> order = new ConcurrentLinkedQueue<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expired;
+    private final Counter evicted;
+    private final Counter invalidated;
+
+    public CatalogCache(String name, int maxEntries, long ttlSeconds, MeterRegistry meterRegistry) {
+        this(name, maxEntries, ttlSeconds, meterRegistry, System::nanoTime);
+    }
+
+    CatalogCache(String name, int maxEntries, long ttlSeconds, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.clock = clock;
+        this.hits = counter(meterRegistry, "catalog.cache.gets", name, "result", "hit");
+        this.misses = counter(meterRegistry, "catalog.cache.gets", name, "result", "miss");
+        this.expired = counter(meterRegistry, "catalog.cache.evictions", name, "cause", "expired");
+        this.evicted = counter(meterRegistry, "catalog.cache.evictions", name, "cause", "size");
+        this.invalidated = counter(meterRegistry, "catalog.cache.evictions", name, "cause", "invalidated");
+        Gauge.builder("catalog.cache.size", entries, Map::size)
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        while (true) {
+            long now = clock.getAsLong();
+            Entry<K, V> entry = entries.get(key);
+            if (entry != null && entry.isExpired(now)) {
+                if (entries.remove(key, entry)) {
+                    expired.increment();
+                }
+                continue;
+            }
+            if (entry == null) {
+                Entry<K, V> created = new Entry<>(key, now + ttlNanos);
+                if (entries.putIfAbsent(key, created) != null) {
+                    continue;
+                }
+                misses.increment();
+                order.add(created);
+                evictOverflow();
+                return load(created, loader);
+            }
+            hits.increment();
+            try {
+                return entry.value.join();
+            } catch (CompletionException e) {
+                // the load this caller waited on failed, the next caller loads again
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+    }
+
+    /**
+     * Drops every entry, loads already running still answer the callers
+     * waiting on them. The insertion order is left alone: an entry added
+     * meanwhile must stay in it to be evicted, and the removed ones are
+     * skipped once they reach its head.
+     */
+    public void invalidateAll() {
+        for (Entry<K, V> entry : entries.values()) {
+            if (entries.remove(entry.key, entry)) {
+                invalidated.increment();
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry != null) {
+            invalidated.increment();
+        }
+    }
+
+    // Drops the entries whose key matches, e.g. every search that may list a changed movie
+    public void invalidateIf(Predicate<K> matching) {
+        for (Entry<K, V> entry : entries.values()) {
+            if (matching.test(entry.key) && entries.remove(entry.key, entry)) {
+                invalidated.increment();
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private V load(Entry<K, V> entry, Function<K, V> loader) {
+        V value;
+        try {
+            value = loader.apply(entry.key);
+        } catch (RuntimeException e) {
+            entries.remove(entry.key, entry);
+            entry.value.completeExceptionally(e);
+            throw e;
+        }
+        entry.value.complete(value);
+        return value;
+    }
+
+    // Insertion order is also expiry order, so expired and replaced entries collect at the head
+    private void evictOverflow() {
+        Entry<K, V> oldest;
+        while ((oldest = order.peek()) != null) {
+            if (entries.get(oldest.key) != oldest) {
+                order.remove(oldest);
+            } else if (entries.size() > maxEntries) {
+                order.remove(oldest);
+                if (entries.remove(oldest.key, oldest)) {
+                    evicted.increment();
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String meter, String cache, String tag, String value) {
+        return Counter.builder(meter).tag("cache", cache).tag(tag, value).register(registry);
+    }
+
+    private static final class Entry<K, V> {
+
+        private final K key;
+        private final long expiresAt;
+        private final CompletableFuture<V> value = new CompletableFuture<>();
+
+        private Entry(K key, long expiresAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+}
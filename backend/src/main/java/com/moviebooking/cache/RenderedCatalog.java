@@ -0,0 +1,112 @@
+package com.moviebooking.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Catalog responses serialized once and served as bytes until the catalog
+ * changes or the entry expires. This is the only cache in front of the
+ * catalog queries. A schedule change drops every response that can show
+ * the movie. Responses also list each showtime's seats left; bookings move
+ * those constantly, so seat changes are collected and the listing and the
+ * movie's page dropped once per tick, while searches keep their counts
+ * until they expire. The seat map and its stream have the live numbers.
+ * ETags carry the catalog version and a hash of the rendered
+ * bytes, so a client's copy stays valid exactly as long as the bytes it
+ * would get are the same.
+ */
+@Component
+public class RenderedCatalog {
+
+    private final ObjectMapper objectMapper;
+    private final CatalogCache<String, RenderedResponse> responses;
+    private final AtomicLong version = new AtomicLong(1);
+    private final Set<Long> seatsChanged = ConcurrentHashMap.newKeySet();
+
+    public RenderedCatalog(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           @Value("${catalog.cache.max-entries:1000}") int maxEntries,
+                           @Value("${catalog.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.responses = new CatalogCache<>("catalog-responses", maxEntries, ttlSeconds, meterRegistry);
+    }
+
+    /**
+     * Rendered response for a key, calling {@code source} only when there
+     * is no current rendering. An empty Optional renders as not found.
+     */
+    public RenderedResponse get(String key, Supplier<?> source) {
+        return responses.get(key, k -> {
+            long renderedVersion = version.get();
+            Object value = source.get();
+            if (value instanceof Optional<?> optional) {
+                if (optional.isEmpty()) {
+                    return RenderedResponse.NOT_FOUND;
+                }
+                value = optional.get();
+            }
+            return render(renderedVersion, value);
+        });
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        responses.invalidateAll();
+    }
+
+    // The listing, the movie's own page and every search; callers run it once their change has committed
+    public void movieChanged(Long movieId) {
+        responses.invalidate("movies");
+        responses.invalidate("movie:" + movieId);
+        responses.invalidateIf(key -> key.startsWith("search:"));
+    }
+
+    // Seat counts of the movie moved, its responses are dropped on the next tick
+    public void seatsChanged(Long movieId) {
+        seatsChanged.add(movieId);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.cache.seat-refresh-ms:1000}")
+    public void refreshSeatCounts() {
+        if (seatsChanged.isEmpty()) {
+            return;
+        }
+        responses.invalidate("movies");
+        for (Long movieId : seatsChanged) {
+            // removed first, a change arriving meanwhile waits for the next tick
+            seatsChanged.remove(movieId);
+            responses.invalidate("movie:" + movieId);
+        }
+    }
+
+    private RenderedResponse render(long renderedVersion, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+                out.write(json);
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String tag = renderedVersion + "-" + HexFormat.of().formatHex(digest, 0, 8);
+            return new RenderedResponse(json, gzipped.toByteArray(), "\"" + tag + "\"", "\"" + tag + "-gz\"");
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot render catalog response", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.moviebooking.cache;
+
+/**
+ * A catalog response rendered ahead of time: UTF-8 JSON, the same bytes
+ * gzipped, and a strong ETag for each. A null body means not found.
+ */
+public record RenderedResponse(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+
+    static final RenderedResponse NOT_FOUND = new RenderedResponse(null, null, null, null);
+
+    public boolean isEmpty() {
+        return json == null;
+    }
+}
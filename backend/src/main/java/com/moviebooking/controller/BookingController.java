@@ -4,7 +4,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -12,11 +16,20 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.moviebooking.admission.AdmissionQueuedException;
+import com.moviebooking.admission.AdmissionService;
+import com.moviebooking.admission.WaitingRoomFullException;
 import com.moviebooking.dto.BookingRequest;
+import com.moviebooking.dto.BookingView;
+import com.moviebooking.dto.ViewMapper;
 import com.moviebooking.entity.Booking;
+import com.moviebooking.idempotency.IdempotencyService;
+import com.moviebooking.inventory.SeatUnavailableException;
+import com.moviebooking.inventory.ShardBusyException;
 import com.moviebooking.service.BookingService;
 
 import jakarta.validation.Valid;
@@ -26,22 +39,49 @@ import jakarta.validation.Valid;
 @CrossOrigin(origins = "*")
 public class BookingController {
     
+    private static final Logger log = LoggerFactory.getLogger(BookingController.class);
+    
     @Autowired
     private BookingService bookingService;
     
+    @Autowired
+    private AdmissionService admissionService;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @PostMapping
-    public ResponseEntity<?> createBooking(@Valid @RequestBody BookingRequest request) {
-        try {
-            Booking booking = bookingService.createBooking(request);
-            return ResponseEntity.ok(booking);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<?> createBooking(@Valid @RequestBody BookingRequest request,
+                                           @RequestHeader(value = "X-Queue-Token", required = false) String queueToken,
+                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        // A retried request with the same key gets the first response back instead of a second booking
+        return idempotencyService.execute("booking", request.getGuestEmail(), idempotencyKey, request, () -> {
+            try (AdmissionService.Admission admission = admissionService.enter(request.getShowtimeId(), queueToken)) {
+                Booking booking = bookingService.createBooking(request);
+                return ResponseEntity.ok(ViewMapper.booking(booking));
+            } catch (AdmissionQueuedException e) {
+                // Hot showtime, client polls the queue and retries with the token once admitted
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getStatus().getEtaSeconds())))
+                        .body(e.getStatus());
+            } catch (ShardBusyException | WaitingRoomFullException e) {
+                // nothing was booked, the same request can be sent again
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(Map.of("error", e.getMessage()));
+            } catch (SeatUnavailableException | IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            } catch (RuntimeException e) {
+                // not the request's fault, a 5xx lets the client retry under the same key
+                log.error("Booking for showtime {} failed", request.getShowtimeId(), e);
+                return ResponseEntity.internalServerError().body(Map.of("error", "Booking failed, please try again"));
+            }
+        });
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<?> getBookingById(@PathVariable Long id) {
-        Optional<Booking> booking = bookingService.getBookingById(id);
+        Optional<BookingView> booking = bookingService.getBookingById(id);
         if (booking.isPresent()) {
             return ResponseEntity.ok(booking.get());
         }
@@ -52,9 +92,9 @@ public class BookingController {
     public ResponseEntity<?> getMyBookings(Authentication authentication) {
         try {
             String email = authentication.getName();
-            List<Booking> bookings = bookingService.getUserBookings(email);
+            List<BookingView> bookings = bookingService.getUserBookings(email);
             return ResponseEntity.ok(bookings);
-        } catch (RuntimeException e) {
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
@@ -62,9 +102,9 @@ public class BookingController {
     @GetMapping("/guest/{email}")
     public ResponseEntity<?> getGuestBookings(@PathVariable String email) {
         try {
-            List<Booking> bookings = bookingService.getGuestBookings(email);
+            List<BookingView> bookings = bookingService.getGuestBookings(email);
             return ResponseEntity.ok(bookings);
-        } catch (RuntimeException e) {
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
@@ -1,20 +1,29 @@
 package com.moviebooking.controller;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.moviebooking.cache.RenderedCatalog;
+import com.moviebooking.cache.RenderedResponse;
+import com.moviebooking.dto.MovieSuggestion;
 import com.moviebooking.entity.Movie;
+import com.moviebooking.search.MovieSuggester;
 import com.moviebooking.service.MovieService;
 
 @RestController
@@ -26,27 +35,84 @@ public class MovieController {
     @Autowired
     private MovieService movieService;
     
+    @Autowired
+    private RenderedCatalog renderedCatalog;
+    
+    @Autowired
+    private MovieSuggester movieSuggester;
+    
     @GetMapping
-    public ResponseEntity<List<Movie>> getAllMovies() {
-        return ResponseEntity.ok(movieService.getAllMovies());
+    public ResponseEntity<byte[]> getAllMovies(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return respond(renderedCatalog.get("movies", movieService::getAllMovies), ifNoneMatch, acceptEncoding);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<?> getMovieById(@PathVariable Long id) {
-        Optional<Movie> movie = movieService.getMovieById(id);
-        if (movie.isPresent()) {
-            return ResponseEntity.ok(movie.get());
-        }
-        return ResponseEntity.notFound().build();
+    public ResponseEntity<byte[]> getMovieById(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return respond(renderedCatalog.get("movie:" + id, () -> movieService.getMovieById(id)), ifNoneMatch, acceptEncoding);
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Movie>> searchMovies(@RequestParam String title) {
-        return ResponseEntity.ok(movieService.searchMovies(title));
+    public ResponseEntity<byte[]> searchMovies(@RequestParam String title,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String key = "search:" + title.toLowerCase(Locale.ROOT);
+        return respond(renderedCatalog.get(key, () -> movieService.searchMovies(title)), ifNoneMatch, acceptEncoding);
+    }
+    
+    // Search box autocomplete, answered from memory
+    @GetMapping("/suggest")
+    public ResponseEntity<List<MovieSuggestion>> suggest(@RequestParam String q,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(movieSuggester.suggest(q, limit));
     }
     
     @PostMapping
     public ResponseEntity<Movie> createMovie(@RequestBody Movie movie) {
         return ResponseEntity.ok(movieService.saveMovie(movie));
     }
+    
+    // Serves pre-rendered bytes, gzipped if the client takes it, or 304 when its copy is current
+    private ResponseEntity<byte[]> respond(RenderedResponse rendered, String ifNoneMatch, String acceptEncoding) {
+        if (rendered.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip")
+                && rendered.gzip().length < rendered.json().length;
+        String etag = gzip ? rendered.gzipEtag() : rendered.etag();
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? rendered.gzip() : rendered.json());
+    }
+    
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -1,6 +1,9 @@
 package com.moviebooking.controller;
 
+import java.io.IOException;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -10,8 +13,11 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.moviebooking.dto.NLPRequest;
 import com.moviebooking.dto.NLPResponse;
+import com.moviebooking.service.NLPBatchService;
 import com.moviebooking.service.NLPService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @RestController
@@ -21,10 +27,21 @@ public class NLPController {
     
     @Autowired
     private NLPService nlpService;
+
+    @Autowired
+    private NLPBatchService nlpBatchService;
     
     @PostMapping("/parse")
     public ResponseEntity<NLPResponse> parseIntent(@Valid @RequestBody NLPRequest request) {
         NLPResponse response = nlpService.parseIntent(request);
         return ResponseEntity.ok(response);
     }
+
+    // Replays a transcript: one request per line in, one response per line out, streamed in input order
+    @PostMapping(value = "/parse/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void parseBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        nlpBatchService.parse(request.getInputStream(), response.getOutputStream());
+    }
 }
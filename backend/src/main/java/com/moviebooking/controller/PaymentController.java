@@ -2,15 +2,19 @@ package com.moviebooking.controller;
 
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.moviebooking.dto.PaymentRequest;
+import com.moviebooking.idempotency.IdempotencyService;
 import com.moviebooking.service.PaymentService;
 
 import jakarta.validation.Valid;
@@ -20,17 +24,29 @@ import jakarta.validation.Valid;
 @CrossOrigin(origins = "*")
 public class PaymentController {
     
+    private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
+    
     @Autowired
     private PaymentService paymentService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @PostMapping("/mock")
-    public ResponseEntity<?> initiateMockPayment(@Valid @RequestBody PaymentRequest request) {
-        try {
-            Map<String, Object> response = paymentService.initiatePayment(request);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<?> initiateMockPayment(@Valid @RequestBody PaymentRequest request,
+                                                 @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("payment", idempotencyKey, request, () -> {
+            try {
+                Map<String, Object> response = paymentService.initiatePayment(request);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            } catch (RuntimeException e) {
+                // not the request's fault, a 5xx lets the client retry under the same key
+                log.error("Payment for booking {} failed", request.getBookingId(), e);
+                return ResponseEntity.internalServerError().body(Map.of("error", "Payment failed, please try again"));
+            }
+        });
     }
     
     @PostMapping("/mock/confirm")
@@ -45,7 +61,7 @@ public class PaymentController {
             
             Map<String, Object> response = paymentService.confirmOTPPayment(otpToken, otp);
             return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
@@ -0,0 +1,177 @@
+package com.moviebooking.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.moviebooking.poster.PosterStore;
+import com.moviebooking.poster.PosterVariants;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping("/posters")
+@CrossOrigin(origins = "*")
+public class PosterController {
+    
+    // Tomcat sends the file itself with sendfile once these are set and no body is written
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    
+    private static final String IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().cachePublic().getHeaderValue();
+    
+    @Autowired
+    private PosterStore posterStore;
+    
+    @Autowired(required = false)
+    private PosterVariants posterVariants;
+    
+    // Hashed names are cached for a year, plain names are revalidated with the ETag
+    @GetMapping("/{name:.+}")
+    public void getPoster(@PathVariable String name, @RequestParam(required = false) Integer w,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<PosterStore.Poster> found = posterStore.find(name);
+        if (found.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        PosterStore.Poster poster = found.get();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, posterStore.isFingerprinted(name) ? IMMUTABLE : REVALIDATE);
+        
+        Optional<PosterVariants.Variant> variant = Optional.empty();
+        if (posterVariants != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            PosterVariants.Format format = acceptsJpeg(request, poster)
+                    ? PosterVariants.Format.JPEG : PosterVariants.Format.PNG;
+            // until the variants are rendered the original is served
+            variant = posterVariants.find(poster, w, format);
+        }
+        if (variant.isPresent()) {
+            PosterVariants.Variant chosen = variant.get();
+            send(request, response, chosen.path(), chosen.length(), chosen.etag(), poster.lastModified(),
+                    chosen.mediaType().toString());
+        } else {
+            send(request, response, poster.path(), poster.length(), poster.etag(), poster.lastModified(),
+                    poster.mediaType().toString());
+        }
+    }
+    
+    private void send(HttpServletRequest request, HttpServletResponse response, Path path, long length, String etag,
+                      long lastModified, String mediaType) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // a stale If-Range gets the whole poster, several ranges are answered with the whole poster too
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            Matcher matcher = RANGE.matcher(range.trim());
+            if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                if (matcher.group(1).isEmpty()) {
+                    start = Math.max(0, length - Long.parseLong(matcher.group(2)));
+                } else {
+                    start = Long.parseLong(matcher.group(1));
+                    if (!matcher.group(2).isEmpty()) {
+                        end = Math.min(end, Long.parseLong(matcher.group(2)));
+                    }
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        
+        long count = end - start + 1;
+        response.setContentType(mediaType);
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        // no sendfile on this connector, transferTo still skips the heap buffer on the file side
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += file.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+    
+    // A lossy JPEG only for clients that say they take one, an absent Accept keeps the original
+    private static boolean acceptsJpeg(HttpServletRequest request, PosterStore.Poster poster) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || MediaType.IMAGE_JPEG.equals(poster.mediaType())) {
+            return false;
+        }
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (type.getQualityValue() > 0 && type.includes(MediaType.IMAGE_JPEG)) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return false;
+    }
+    
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String trimmed = tag.trim();
+                if (trimmed.equals("*") || trimmed.equals(etag) || trimmed.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        // HTTP dates have whole seconds
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+}
@@ -0,0 +1,74 @@
+package com.moviebooking.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.moviebooking.inventory.SeatInventoryService;
+import com.moviebooking.inventory.SeatMapFormat;
+import com.moviebooking.stream.SeatStreamService;
+
+@RestController
+@RequestMapping("/api/showtimes/{showtimeId}/seats")
+@CrossOrigin(origins = "*")
+public class SeatController {
+    
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+    
+    @Autowired
+    private SeatStreamService seatStreamService;
+    
+    // Same seat map in two encodings, picked by the Accept header
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getSeatMap(@PathVariable Long showtimeId) {
+        try {
+            return ResponseEntity.ok(seatInventoryService.getInventory(showtimeId).toJson());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping(produces = SeatMapFormat.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getSeatMapBinary(@PathVariable Long showtimeId) {
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(SeatMapFormat.MEDIA_TYPE))
+                    .body(SeatMapFormat.encode(seatInventoryService.getInventory(showtimeId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/best")
+    public ResponseEntity<?> getBestSeats(@PathVariable Long showtimeId, @RequestParam(defaultValue = "1") int count) {
+        try {
+            int[] seats = seatInventoryService.bestAvailable(showtimeId, count);
+            if (seats == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "No " + count + " adjacent seats available"));
+            }
+            return ResponseEntity.ok(seatInventoryService.describe(showtimeId, seats));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // Snapshot of booked seats, then deltas as seats are claimed and released
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSeats(@PathVariable Long showtimeId) {
+        try {
+            return ResponseEntity.ok(seatStreamService.subscribe(showtimeId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
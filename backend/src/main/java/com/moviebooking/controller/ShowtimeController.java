@@ -0,0 +1,54 @@
+package com.moviebooking.controller;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.moviebooking.service.ShowtimeService;
+
+@RestController
+@RequestMapping("/api/showtimes")
+@CrossOrigin(origins = "*")
+public class ShowtimeController {
+    
+    @Autowired
+    private ShowtimeService showtimeService;
+    
+    // e.g. ?city=Pune&date=2026-10-19&from=17:00 for tomorrow evening in Pune
+    @GetMapping
+    public ResponseEntity<?> getListings(@RequestParam String city,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime to,
+                                         @RequestParam(required = false) Long movieId) {
+        return ResponseEntity.ok(showtimeService.getListings(city, date != null ? date : LocalDate.now(),
+                from != null ? from : LocalTime.MIN, to != null ? to : LocalTime.MAX, movieId));
+    }
+    
+    @GetMapping("/next")
+    public ResponseEntity<?> getNextShowtimes(@RequestParam Long movieId,
+                                              @RequestParam(required = false) String city,
+                                              @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(showtimeService.getNextShowtimes(movieId, city, Math.min(limit, 50)));
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getShowtime(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(showtimeService.getShowtimeDetails(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
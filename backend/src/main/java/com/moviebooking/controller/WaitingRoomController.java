@@ -0,0 +1,39 @@
+package com.moviebooking.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.moviebooking.admission.AdmissionService;
+
+@RestController
+@RequestMapping("/api/showtimes/{showtimeId}/queue")
+@CrossOrigin(origins = "*")
+public class WaitingRoomController {
+    
+    @Autowired
+    private AdmissionService admissionService;
+    
+    @PostMapping
+    public ResponseEntity<?> joinQueue(@PathVariable Long showtimeId) {
+        try {
+            return ResponseEntity.ok(admissionService.join(showtimeId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(503).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{token}")
+    public ResponseEntity<?> getQueueStatus(@PathVariable Long showtimeId, @PathVariable String token) {
+        return ResponseEntity.ok(admissionService.status(showtimeId, token));
+    }
+}
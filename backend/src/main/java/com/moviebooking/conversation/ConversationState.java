@@ -0,0 +1,127 @@
+package com.moviebooking.conversation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The slots of one conversation in a fixed layout: a bit for every slot
+ * that is set, then only the set ones, the date as a day number and the
+ * time as minutes. A booking in progress fits in under a hundred bytes, a
+ * small fraction of the slot map it stands for.
+ */
+public final class ConversationState {
+
+    public static final String MOVIE_NAME = "movie_name";
+    public static final String NUM_SEATS = "num_seats";
+    public static final String DATE = "date";
+    public static final String TIME = "time";
+    public static final String SHOWTIME_ID = "showtime_id";
+    public static final String SEATS = "seats";
+    public static final String SEAT_LABELS = "seat_labels";
+    public static final String BOOKING_ID = "booking_id";
+
+    private static final byte VERSION = 1;
+    private static final String[] SLOTS = { MOVIE_NAME, NUM_SEATS, DATE, TIME, SHOWTIME_ID, SEATS, SEAT_LABELS,
+            BOOKING_ID };
+
+    private final byte[] bytes;
+
+    private ConversationState(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    // Slots the assistant does not know are not kept
+    public static ConversationState of(Map<String, Object> slots) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            int present = 0;
+            for (int i = 0; i < SLOTS.length; i++) {
+                if (slots.get(SLOTS[i]) != null) {
+                    present |= 1 << i;
+                }
+            }
+            out.writeByte(VERSION);
+            out.writeByte(present);
+            if (slots.get(MOVIE_NAME) != null) out.writeUTF(slots.get(MOVIE_NAME).toString());
+            if (slots.get(NUM_SEATS) != null) out.writeShort(((Number) slots.get(NUM_SEATS)).intValue());
+            if (slots.get(DATE) != null) out.writeInt((int) LocalDate.parse(slots.get(DATE).toString()).toEpochDay());
+            if (slots.get(TIME) != null) out.writeShort(minutes(slots.get(TIME).toString()));
+            if (slots.get(SHOWTIME_ID) != null) out.writeLong(((Number) slots.get(SHOWTIME_ID)).longValue());
+            if (slots.get(SEATS) != null) out.writeUTF(slots.get(SEATS).toString());
+            if (slots.get(SEAT_LABELS) != null) out.writeUTF(slots.get(SEAT_LABELS).toString());
+            if (slots.get(BOOKING_ID) != null) writeVarLong(out, ((Number) slots.get(BOOKING_ID)).longValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ConversationState(buffer.toByteArray());
+    }
+
+    public static ConversationState decode(byte[] bytes) {
+        if (bytes.length < 2 || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown conversation state format");
+        }
+        return new ConversationState(bytes);
+    }
+
+    public byte[] encode() {
+        return bytes;
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+
+    // A fresh map each time, the caller is free to change it
+    public Map<String, Object> slots() {
+        Map<String, Object> slots = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            in.readByte();
+            int present = in.readUnsignedByte();
+            if ((present & 1) != 0) slots.put(MOVIE_NAME, in.readUTF());
+            if ((present & 1 << 1) != 0) slots.put(NUM_SEATS, (int) in.readShort());
+            if ((present & 1 << 2) != 0) slots.put(DATE, LocalDate.ofEpochDay(in.readInt()).toString());
+            if ((present & 1 << 3) != 0) {
+                int minutes = in.readShort();
+                slots.put(TIME, String.format("%02d:%02d", minutes / 60, minutes % 60));
+            }
+            if ((present & 1 << 4) != 0) slots.put(SHOWTIME_ID, in.readLong());
+            if ((present & 1 << 5) != 0) slots.put(SEATS, in.readUTF());
+            if ((present & 1 << 6) != 0) slots.put(SEAT_LABELS, in.readUTF());
+            if ((present & 1 << 7) != 0) slots.put(BOOKING_ID, readVarLong(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return slots;
+    }
+
+    // Seven bits a byte, low first; booking ids are small and usually take two or three
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+
+    // "19:30" -> 1170; the hour is not range checked, "25:00" comes back as it went in
+    private static int minutes(String time) {
+        int colon = time.indexOf(':');
+        return Integer.parseInt(time.substring(0, colon)) * 60 + Integer.parseInt(time.substring(colon + 1));
+    }
+}
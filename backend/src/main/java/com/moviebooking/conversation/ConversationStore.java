@@ -0,0 +1,20 @@
+package com.moviebooking.conversation;
+
+/**
+ * Where the voice assistant keeps a conversation's slots between
+ * utterances, keyed by the conversation id the client sends back. The
+ * in-memory store keeps them on this node; a store shared by every node,
+ * on Redis for example, only has to implement this and be configured with
+ * {@code nlp.conversations.store} set to something other than
+ * {@code memory}. States cross it as {@link ConversationState#encode()}
+ * bytes if it needs them serialized.
+ */
+public interface ConversationStore {
+
+    // The state, or null when the conversation is unknown or has been idle too long
+    ConversationState load(String conversationId);
+
+    void save(String conversationId, ConversationState state);
+
+    void remove(String conversationId);
+}
@@ -0,0 +1,154 @@
+package com.moviebooking.conversation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Conversations of this node, spread over lock striped maps so concurrent
+ * utterances of different conversations rarely meet on the same lock.
+ * Each stripe keeps its entries in access order: the least recently used
+ * is dropped when the stripe is full, and idle ones collect at the head,
+ * where the sweep takes them off without looking at the rest.
+ *
+ * Reports {@code nlp.conversations.size} and
+ * {@code nlp.conversations.evictions} by cause.
+ */
+@Component
+@ConditionalOnProperty(name = "nlp.conversations.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryConversationStore implements ConversationStore {
+
+    private final Stripe[] stripes;
+    private final int maxPerStripe;
+    private final long idleNanos;
+    private final LongSupplier clock;
+
+    private final Counter expired;
+    private final Counter evicted;
+
+    @Autowired
+    public InMemoryConversationStore(MeterRegistry meterRegistry,
+                                     @Value("${nlp.conversations.max-entries:100000}") int maxEntries,
+                                     @Value("${nlp.conversations.idle-ttl-seconds:900}") long idleSeconds,
+                                     @Value("${nlp.conversations.stripes:16}") int stripes) {
+        this(meterRegistry, maxEntries, idleSeconds, stripes, System::nanoTime);
+    }
+
+    InMemoryConversationStore(MeterRegistry meterRegistry, int maxEntries, long idleSeconds, int stripes,
+                              LongSupplier clock) {
+        // a power of two, so a stripe is picked with a mask
+        int count = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.maxPerStripe = Math.max(1, maxEntries / count);
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.clock = clock;
+        this.expired = Counter.builder("nlp.conversations.evictions").tag("cause", "expired").register(meterRegistry);
+        this.evicted = Counter.builder("nlp.conversations.evictions").tag("cause", "size").register(meterRegistry);
+        Gauge.builder("nlp.conversations.size", this, InMemoryConversationStore::size).register(meterRegistry);
+    }
+
+    @Override
+    public ConversationState load(String conversationId) {
+        Stripe stripe = stripe(conversationId);
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(conversationId);
+            if (entry == null) {
+                return null;
+            }
+            long now = clock.getAsLong();
+            if (now - entry.touchedAt > idleNanos) {
+                stripe.entries.remove(conversationId);
+                expired.increment();
+                return null;
+            }
+            entry.touchedAt = now;
+            return ConversationState.decode(entry.state);
+        }
+    }
+
+    @Override
+    public void save(String conversationId, ConversationState state) {
+        Stripe stripe = stripe(conversationId);
+        synchronized (stripe) {
+            stripe.entries.put(conversationId, new Entry(state.encode(), clock.getAsLong()));
+            if (stripe.entries.size() > maxPerStripe) {
+                Iterator<Entry> eldest = stripe.entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+                evicted.increment();
+            }
+        }
+    }
+
+    @Override
+    public void remove(String conversationId) {
+        Stripe stripe = stripe(conversationId);
+        synchronized (stripe) {
+            stripe.entries.remove(conversationId);
+        }
+    }
+
+    // Idle conversations are at the head of every stripe, the sweep stops at the first live one
+    @Scheduled(fixedDelayString = "${nlp.conversations.sweep-ms:30000}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Entry> entries = stripe.entries.values().iterator();
+                while (entries.hasNext()) {
+                    if (now - entries.next().touchedAt <= idleNanos) {
+                        break;
+                    }
+                    entries.remove();
+                    expired.increment();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(String conversationId) {
+        int hash = conversationId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static final class Stripe {
+
+        private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    private static final class Entry {
+
+        private final byte[] state;
+        private long touchedAt;
+
+        private Entry(byte[] state, long touchedAt) {
+            this.state = state;
+            this.touchedAt = touchedAt;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.moviebooking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class BookingView {
+    private Long id;
+    private ShowtimeSummary showtime;
+    private String seats;
+    private BigDecimal amount;
+    private String status;
+    private String guestEmail;
+    private String guestName;
+    private LocalDateTime createdAt;
+    private PaymentSummary payment;
+    
+    public BookingView() {}
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public ShowtimeSummary getShowtime() { return showtime; }
+    public void setShowtime(ShowtimeSummary showtime) { this.showtime = showtime; }
+    
+    public String getSeats() { return seats; }
+    public void setSeats(String seats) { this.seats = seats; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public String getGuestEmail() { return guestEmail; }
+    public void setGuestEmail(String guestEmail) { this.guestEmail = guestEmail; }
+    
+    public String getGuestName() { return guestName; }
+    public void setGuestName(String guestName) { this.guestName = guestName; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public PaymentSummary getPayment() { return payment; }
+    public void setPayment(PaymentSummary payment) { this.payment = payment; }
+}
@@ -0,0 +1,33 @@
+package com.moviebooking.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.moviebooking.poster.PosterUrlSerializer;
+
+public class MovieSuggestion {
+    private Long id;
+    private String title;
+    private String genre;
+    @JsonSerialize(using = PosterUrlSerializer.class)
+    private String posterUrl;
+    
+    public MovieSuggestion() {}
+    
+    public MovieSuggestion(Long id, String title, String genre, String posterUrl) {
+        this.id = id;
+        this.title = title;
+        this.genre = genre;
+        this.posterUrl = posterUrl;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+    
+    public String getPosterUrl() { return posterUrl; }
+    public void setPosterUrl(String posterUrl) { this.posterUrl = posterUrl; }
+}
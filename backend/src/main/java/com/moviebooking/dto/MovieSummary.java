@@ -0,0 +1,38 @@
+package com.moviebooking.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.moviebooking.poster.PosterUrlSerializer;
+
+public class MovieSummary {
+    private Long id;
+    private String title;
+    private Integer duration;
+    private String genre;
+    @JsonSerialize(using = PosterUrlSerializer.class)
+    private String posterUrl;
+    
+    public MovieSummary() {}
+    
+    public MovieSummary(Long id, String title, Integer duration, String genre, String posterUrl) {
+        this.id = id;
+        this.title = title;
+        this.duration = duration;
+        this.genre = genre;
+        this.posterUrl = posterUrl;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public Integer getDuration() { return duration; }
+    public void setDuration(Integer duration) { this.duration = duration; }
+    
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+    
+    public String getPosterUrl() { return posterUrl; }
+    public void setPosterUrl(String posterUrl) { this.posterUrl = posterUrl; }
+}
@@ -0,0 +1,41 @@
+package com.moviebooking.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.moviebooking.poster.PosterUrlSerializer;
+
+public class MovieView {
+    private Long id;
+    private String title;
+    private Integer duration;
+    private String genre;
+    @JsonSerialize(using = PosterUrlSerializer.class)
+    private String posterUrl;
+    private String synopsis;
+    private List<ShowtimeSummary> showtimes = new ArrayList<>();
+    
+    public MovieView() {}
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public Integer getDuration() { return duration; }
+    public void setDuration(Integer duration) { this.duration = duration; }
+    
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+    
+    public String getPosterUrl() { return posterUrl; }
+    public void setPosterUrl(String posterUrl) { this.posterUrl = posterUrl; }
+    
+    public String getSynopsis() { return synopsis; }
+    public void setSynopsis(String synopsis) { this.synopsis = synopsis; }
+    
+    public List<ShowtimeSummary> getShowtimes() { return showtimes; }
+    public void setShowtimes(List<ShowtimeSummary> showtimes) { this.showtimes = showtimes; }
+}
@@ -1,11 +1,16 @@
 package com.moviebooking.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 
 public class NLPRequest {
     @NotBlank
     private String text;
     
+    // Sent back from the previous response to continue that conversation
+    @Size(max = 64)
+    private String conversationId;
+    
     public NLPRequest() {}
     
     public NLPRequest(String text) {
@@ -14,4 +19,7 @@ public class NLPRequest {
     
     public String getText() { return text; }
     public void setText(String text) { this.text = text; }
+    
+    public String getConversationId() { return conversationId; }
+    public void setConversationId(String conversationId) { this.conversationId = conversationId; }
 }
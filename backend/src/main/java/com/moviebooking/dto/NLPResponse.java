@@ -7,6 +7,7 @@ public class NLPResponse {
     private Map<String, Object> slots;
     private String response;
     private boolean needsClarification;
+    private String conversationId;
     
     public NLPResponse() {}
     
@@ -28,4 +29,7 @@ public class NLPResponse {
     
     public boolean isNeedsClarification() { return needsClarification; }
     public void setNeedsClarification(boolean needsClarification) { this.needsClarification = needsClarification; }
+    
+    public String getConversationId() { return conversationId; }
+    public void setConversationId(String conversationId) { this.conversationId = conversationId; }
 }
@@ -0,0 +1,36 @@
+package com.moviebooking.dto;
+
+import java.time.LocalDateTime;
+
+public class PaymentSummary {
+    private Long id;
+    private String method;
+    private String status;
+    private String externalTxnId;
+    private LocalDateTime createdAt;
+    
+    public PaymentSummary() {}
+    
+    public PaymentSummary(Long id, String method, String status, String externalTxnId, LocalDateTime createdAt) {
+        this.id = id;
+        this.method = method;
+        this.status = status;
+        this.externalTxnId = externalTxnId;
+        this.createdAt = createdAt;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public String getExternalTxnId() { return externalTxnId; }
+    public void setExternalTxnId(String externalTxnId) { this.externalTxnId = externalTxnId; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,34 @@
+package com.moviebooking.dto;
+
+public class QueueStatus {
+    private String token;
+    private Long showtimeId;
+    private String status; // WAITING, ADMITTED or EXPIRED
+    private long position;
+    private long etaSeconds;
+    
+    public QueueStatus() {}
+    
+    public QueueStatus(String token, Long showtimeId, String status, long position, long etaSeconds) {
+        this.token = token;
+        this.showtimeId = showtimeId;
+        this.status = status;
+        this.position = position;
+        this.etaSeconds = etaSeconds;
+    }
+    
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+    
+    public Long getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Long showtimeId) { this.showtimeId = showtimeId; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public long getPosition() { return position; }
+    public void setPosition(long position) { this.position = position; }
+    
+    public long getEtaSeconds() { return etaSeconds; }
+    public void setEtaSeconds(long etaSeconds) { this.etaSeconds = etaSeconds; }
+}
@@ -0,0 +1,43 @@
+package com.moviebooking.dto;
+
+import java.util.List;
+
+// Compact seat map: layout, seat type runs and the indexes of booked seats.
+// Seat index = (row - 1) * seatsPerRow + (seat - 1)
+public class SeatAvailability {
+    private long version;
+    private int rows;
+    private int seatsPerRow;
+    private int seatsTotal;
+    private List<SeatTypeRun> types;
+    private int[] taken;
+    
+    public SeatAvailability() {}
+    
+    public SeatAvailability(long version, int rows, int seatsPerRow, int seatsTotal, List<SeatTypeRun> types, int[] taken) {
+        this.version = version;
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.seatsTotal = seatsTotal;
+        this.types = types;
+        this.taken = taken;
+    }
+    
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    
+    public int getRows() { return rows; }
+    public void setRows(int rows) { this.rows = rows; }
+    
+    public int getSeatsPerRow() { return seatsPerRow; }
+    public void setSeatsPerRow(int seatsPerRow) { this.seatsPerRow = seatsPerRow; }
+    
+    public int getSeatsTotal() { return seatsTotal; }
+    public void setSeatsTotal(int seatsTotal) { this.seatsTotal = seatsTotal; }
+    
+    public List<SeatTypeRun> getTypes() { return types; }
+    public void setTypes(List<SeatTypeRun> types) { this.types = types; }
+    
+    public int[] getTaken() { return taken; }
+    public void setTaken(int[] taken) { this.taken = taken; }
+}
@@ -0,0 +1,19 @@
+package com.moviebooking.dto;
+
+public class SeatTypeRun {
+    private String type;
+    private int count; // consecutive seats of this type, in seat index order
+    
+    public SeatTypeRun() {}
+    
+    public SeatTypeRun(String type, int count) {
+        this.type = type;
+        this.count = count;
+    }
+    
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+}
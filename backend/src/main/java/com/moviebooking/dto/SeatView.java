@@ -0,0 +1,34 @@
+package com.moviebooking.dto;
+
+public class SeatView {
+    private int row;
+    private int seat;
+    private String label;
+    private String type;
+    private boolean available;
+    
+    public SeatView() {}
+    
+    public SeatView(int row, int seat, String label, String type, boolean available) {
+        this.row = row;
+        this.seat = seat;
+        this.label = label;
+        this.type = type;
+        this.available = available;
+    }
+    
+    public int getRow() { return row; }
+    public void setRow(int row) { this.row = row; }
+    
+    public int getSeat() { return seat; }
+    public void setSeat(int seat) { this.seat = seat; }
+    
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+    
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    
+    public boolean isAvailable() { return available; }
+    public void setAvailable(boolean available) { this.available = available; }
+}
@@ -0,0 +1,40 @@
+package com.moviebooking.dto;
+
+import java.time.LocalDateTime;
+
+public class ShowtimeDetails {
+    private Long id;
+    private LocalDateTime startTime;
+    private String theater;
+    private String city;
+    private int seatsAvailable;
+    private int seatsTotal;
+    private MovieSummary movie;
+    private SeatAvailability seats;
+    
+    public ShowtimeDetails() {}
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    
+    public String getTheater() { return theater; }
+    public void setTheater(String theater) { this.theater = theater; }
+    
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+    
+    public int getSeatsAvailable() { return seatsAvailable; }
+    public void setSeatsAvailable(int seatsAvailable) { this.seatsAvailable = seatsAvailable; }
+    
+    public int getSeatsTotal() { return seatsTotal; }
+    public void setSeatsTotal(int seatsTotal) { this.seatsTotal = seatsTotal; }
+    
+    public MovieSummary getMovie() { return movie; }
+    public void setMovie(MovieSummary movie) { this.movie = movie; }
+    
+    public SeatAvailability getSeats() { return seats; }
+    public void setSeats(SeatAvailability seats) { this.seats = seats; }
+}
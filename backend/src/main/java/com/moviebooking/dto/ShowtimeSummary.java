@@ -0,0 +1,49 @@
+package com.moviebooking.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Movie is only filled in where the showtime is shown outside its movie, as in bookings
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ShowtimeSummary {
+    private Long id;
+    private LocalDateTime startTime;
+    private String theater;
+    private String city;
+    private int seatsAvailable;
+    private int seatsTotal;
+    private MovieSummary movie;
+    
+    public ShowtimeSummary() {}
+    
+    public ShowtimeSummary(Long id, LocalDateTime startTime, String theater, String city, int seatsAvailable, int seatsTotal) {
+        this.id = id;
+        this.startTime = startTime;
+        this.theater = theater;
+        this.city = city;
+        this.seatsAvailable = seatsAvailable;
+        this.seatsTotal = seatsTotal;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    
+    public String getTheater() { return theater; }
+    public void setTheater(String theater) { this.theater = theater; }
+    
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+    
+    public int getSeatsAvailable() { return seatsAvailable; }
+    public void setSeatsAvailable(int seatsAvailable) { this.seatsAvailable = seatsAvailable; }
+    
+    public int getSeatsTotal() { return seatsTotal; }
+    public void setSeatsTotal(int seatsTotal) { this.seatsTotal = seatsTotal; }
+    
+    public MovieSummary getMovie() { return movie; }
+    public void setMovie(MovieSummary movie) { this.movie = movie; }
+}
@@ -0,0 +1,73 @@
+package com.moviebooking.dto;
+
+import java.util.List;
+
+import com.moviebooking.entity.Booking;
+import com.moviebooking.entity.Movie;
+import com.moviebooking.entity.Payment;
+import com.moviebooking.entity.Showtime;
+
+/**
+ * Maps entities to the read models the API returns. Callers load every
+ * association mapped here in the query that found the entity; nothing is
+ * left to lazy loading once the session is gone.
+ */
+public final class ViewMapper {
+    
+    private ViewMapper() {}
+    
+    // Expects the showtimes to be fetched with the movie
+    public static MovieView movie(Movie movie) {
+        MovieView view = new MovieView();
+        view.setId(movie.getId());
+        view.setTitle(movie.getTitle());
+        view.setDuration(movie.getDuration());
+        view.setGenre(movie.getGenre());
+        view.setPosterUrl(movie.getPosterUrl());
+        view.setSynopsis(movie.getSynopsis());
+        view.setShowtimes(movie.getShowtimes().stream().map(ViewMapper::showtime).toList());
+        return view;
+    }
+    
+    public static List<MovieView> movies(List<Movie> movies) {
+        return movies.stream().map(ViewMapper::movie).toList();
+    }
+    
+    public static ShowtimeSummary showtime(Showtime showtime) {
+        return new ShowtimeSummary(showtime.getId(), showtime.getStartTime(), showtime.getTheater(),
+                showtime.getCity(), showtime.getSeatsAvailable(), showtime.getSeatsTotal());
+    }
+    
+    // Expects the movie to be fetched with the showtime
+    public static ShowtimeSummary showtimeWithMovie(Showtime showtime) {
+        Movie movie = showtime.getMovie();
+        ShowtimeSummary summary = showtime(showtime);
+        summary.setMovie(new MovieSummary(movie.getId(), movie.getTitle(), movie.getDuration(),
+                movie.getGenre(), movie.getPosterUrl()));
+        return summary;
+    }
+    
+    // Expects the showtime, its movie and the payment to be fetched with the booking
+    public static BookingView booking(Booking booking) {
+        BookingView view = new BookingView();
+        view.setId(booking.getId());
+        view.setShowtime(showtimeWithMovie(booking.getShowtime()));
+        view.setSeats(booking.getSeats());
+        view.setAmount(booking.getAmount());
+        view.setStatus(booking.getStatus().name());
+        view.setGuestEmail(booking.getGuestEmail());
+        view.setGuestName(booking.getGuestName());
+        view.setCreatedAt(booking.getCreatedAt());
+        
+        Payment payment = booking.getPayment();
+        if (payment != null) {
+            view.setPayment(new PaymentSummary(payment.getId(), payment.getMethod().name(),
+                    payment.getStatus().name(), payment.getExternalTxnId(), payment.getCreatedAt()));
+        }
+        return view;
+    }
+    
+    public static List<BookingView> bookings(List<Booking> bookings) {
+        return bookings.stream().map(ViewMapper::booking).toList();
+    }
+}
@@ -3,9 +3,12 @@ package com.moviebooking.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.moviebooking.schedule.ShowtimeIndexListener;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -18,6 +21,7 @@ import jakarta.validation.constraints.Positive;
 
 @Entity
 @Table(name = "movies")
+@EntityListeners(ShowtimeIndexListener.class)
 public class Movie {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -3,20 +3,28 @@ package com.moviebooking.entity;
 import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.moviebooking.schedule.ShowtimeIndexListener;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "showtimes")
+@Table(name = "showtimes", indexes = {
+        @Index(name = "idx_showtimes_city_start", columnList = "city, start_time"),
+        @Index(name = "idx_showtimes_movie_start", columnList = "movie_id, start_time")
+})
+@EntityListeners(ShowtimeIndexListener.class)
 public class Showtime {
 
     @Id
@@ -35,24 +43,31 @@ public class Showtime {
 
     private String city; // added field
 
+    // Written only by the conditional updates in ShowtimeRepository, never by flushing a loaded showtime
+    @Column(updatable = false)
     private int seatsAvailable;
 
     private int seatsTotal;
 
-    @Column(columnDefinition = "TEXT")
-    private String seatMap; // JSON string representing seat layout
+    @Column(name = "seat_inventory", length = 65536, updatable = false)
+    @JsonIgnore
+    private byte[] seatInventory; // binary SeatInventory: layout, seat types, availability bitset
+
+    @Column(name = "inventory_version", updatable = false)
+    @JsonIgnore
+    private long inventoryVersion; // SeatInventory version of the stored blob
 
     public Showtime() {}
 
     // Parameterized constructor
-    public Showtime(Movie movie, String theater, String city, LocalDateTime startTime, int seatsTotal, String seatMap) {
+    public Showtime(Movie movie, String theater, String city, LocalDateTime startTime, int seatsTotal, byte[] seatInventory) {
         this.movie = movie;
         this.theater = theater;
         this.city = city;
         this.startTime = startTime;
         this.seatsTotal = seatsTotal;
         this.seatsAvailable = seatsTotal; // all seats initially available
-        this.seatMap = seatMap;
+        this.seatInventory = seatInventory;
     }
 
     // Getters and Setters
@@ -77,6 +92,9 @@ public class Showtime {
     public int getSeatsTotal() { return seatsTotal; }
     public void setSeatsTotal(int seatsTotal) { this.seatsTotal = seatsTotal; }
 
-    public String getSeatMap() { return seatMap; }
-    public void setSeatMap(String seatMap) { this.seatMap = seatMap; }
+    public byte[] getSeatInventory() { return seatInventory; }
+    public void setSeatInventory(byte[] seatInventory) { this.seatInventory = seatInventory; }
+
+    public long getInventoryVersion() { return inventoryVersion; }
+    public void setInventoryVersion(long inventoryVersion) { this.inventoryVersion = inventoryVersion; }
 }
@@ -0,0 +1,337 @@
+package com.moviebooking.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.entity.IdempotencyRecord;
+import com.moviebooking.idempotency.IdempotentCall.StoredResponse;
+import com.moviebooking.repository.IdempotencyRecordRepository;
+
+/**
+ * Makes POST endpoints safe to retry with an {@code Idempotency-Key}
+ * header. The first request for a key runs; its response is kept in a
+ * bounded in-memory map for the TTL and in {@code idempotency_records} so
+ * other nodes can replay it too. Duplicates that arrive while the first is
+ * still running wait for its response instead of running again, on this
+ * node through a shared future and across nodes through the record row.
+ *
+ * Keys belong to the caller: the signed-in user, else the guest email
+ * the request names, so two customers picking the same key never see each
+ * other's response.
+ *
+ * Only final answers are kept: 2xx, and 4xx other than 408, 409, 422 and
+ * 429. Endpoints answer conditions that may clear on a retry with one of
+ * those or a 5xx. A key reused with a different request body is rejected
+ * with 422.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final long DB_POLL_MILLIS = 100;
+    private static final long ABANDONED_AFTER_MINUTES = 2;
+
+    @Value("${booking.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${booking.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${booking.idempotency.wait-seconds:10}")
+    private long waitSeconds;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, IdempotentCall> calls = new ConcurrentHashMap<>();
+    private final Queue<IdempotentCall> order = new ConcurrentLinkedQueue<>();
+
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        return execute(scope, null, key, request, action);
+    }
+
+    public ResponseEntity<?> execute(String scope, String guestEmail, String key, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Idempotency-Key is too long"));
+        }
+        String recordKey = scope + ":" + owner(guestEmail) + ":" + key;
+        String requestHash = hash(request);
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            IdempotentCall call = calls.get(recordKey);
+            if (call != null && call.isExpired(now)) {
+                calls.remove(recordKey, call);
+                continue;
+            }
+            if (call == null) {
+                IdempotentCall created = new IdempotentCall(recordKey, requestHash, now + TimeUnit.HOURS.toMillis(ttlHours));
+                if (calls.putIfAbsent(recordKey, created) == null) {
+                    order.add(created);
+                    evictOverflow();
+                    return lead(created, action);
+                }
+                continue;
+            }
+            ResponseEntity<?> replayed = follow(call, requestHash);
+            if (replayed != null) {
+                return replayed;
+            }
+        }
+    }
+
+    // Sweeps expired keys from memory and the database
+    @Scheduled(fixedRate = 60000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        for (Iterator<IdempotentCall> it = order.iterator(); it.hasNext();) {
+            IdempotentCall call = it.next();
+            if (call.isExpired(now) || calls.get(call.key) != call) {
+                it.remove();
+                calls.remove(call.key, call);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> recordRepository.deleteExpired(LocalDateTime.now()));
+    }
+
+    private ResponseEntity<?> lead(IdempotentCall call, Supplier<ResponseEntity<?>> action) {
+        StoredResponse previous;
+        try {
+            previous = claimRecord(call);
+        } catch (RuntimeException e) {
+            abandon(call, e);
+            throw e;
+        }
+        if (previous != null) {
+            // another node already answered this key, or is answering it right now
+            call.result.complete(previous);
+            if (!isFinal(previous.status())) {
+                calls.remove(call.key, call);
+            }
+            return replay(previous);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            deleteRecord(call.key);
+            abandon(call, e);
+            throw e;
+        }
+
+        StoredResponse stored = new StoredResponse(response.getStatusCode().value(), toJson(response.getBody()));
+        if (isFinal(stored.status()) && stored.body() != null) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        recordRepository.complete(call.key, stored.status(), stored.body()));
+            } catch (RuntimeException e) {
+                log.warn("Could not store idempotent response for {}", call.key, e);
+            }
+        } else {
+            // not an answer worth keeping, the client may retry with the same key
+            deleteRecord(call.key);
+            calls.remove(call.key, call);
+        }
+        call.result.complete(stored);
+        return response;
+    }
+
+    private ResponseEntity<?> follow(IdempotentCall call, String requestHash) {
+        if (!call.requestHash.equals(requestHash)) {
+            return mismatch();
+        }
+        try {
+            return replay(call.result.get(waitSeconds, TimeUnit.SECONDS));
+        } catch (TimeoutException e) {
+            return inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inProgress();
+        } catch (ExecutionException e) {
+            // the first request failed without an answer, this one gets to try
+            calls.remove(call.key, call);
+            return null;
+        }
+    }
+
+    /**
+     * Inserts the in-progress record for a key. Returns null when this node
+     * now owns the key, otherwise the response some other node stored,
+     * waiting for it if that node is still working.
+     */
+    private StoredResponse claimRecord(IdempotentCall call) {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(waitSeconds);
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(call.expiresAt), ZoneId.systemDefault());
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> recordRepository.saveAndFlush(
+                        new IdempotencyRecord(call.key, call.requestHash, expiresAt)));
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                // taken, look at what is there
+            }
+            IdempotencyRecord record = recordRepository.findById(call.key).orElse(null);
+            if (record == null) {
+                continue;
+            }
+            if (record.getExpiresAt().isBefore(LocalDateTime.now())) {
+                deleteRecord(call.key);
+                continue;
+            }
+            if (!record.getRequestHash().equals(call.requestHash)) {
+                return new StoredResponse(HttpStatus.UNPROCESSABLE_ENTITY.value(), toJson(mismatch().getBody()));
+            }
+            if (record.getStatus() > 0) {
+                return new StoredResponse(record.getStatus(), record.getResponseBody());
+            }
+            if (record.getCreatedAt().isBefore(LocalDateTime.now().minusMinutes(ABANDONED_AFTER_MINUTES))) {
+                // the node that claimed it died mid-request
+                deleteRecord(call.key);
+                continue;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                return new StoredResponse(HttpStatus.CONFLICT.value(), toJson(inProgress().getBody()));
+            }
+            try {
+                Thread.sleep(DB_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new StoredResponse(HttpStatus.CONFLICT.value(), toJson(inProgress().getBody()));
+            }
+        }
+    }
+
+    private void abandon(IdempotentCall call, RuntimeException e) {
+        calls.remove(call.key, call);
+        call.result.completeExceptionally(e);
+    }
+
+    private void deleteRecord(String key) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> recordRepository.deleteById(key));
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency key {}", key, e);
+        }
+    }
+
+    // Oldest answered keys go first once the map is over its bound, calls still running go back in line
+    private void evictOverflow() {
+        for (int looked = order.size(); looked > 0 && calls.size() > maxEntries; looked--) {
+            IdempotentCall oldest = order.poll();
+            if (oldest == null) {
+                return;
+            }
+            if (oldest.result.isDone()) {
+                calls.remove(oldest.key, oldest);
+            } else if (calls.get(oldest.key) == oldest) {
+                order.add(oldest);
+            }
+        }
+    }
+
+    private static boolean isFinal(int status) {
+        return status < 500 && status != HttpStatus.REQUEST_TIMEOUT.value()
+                && status != HttpStatus.TOO_MANY_REQUESTS.value()
+                && status != HttpStatus.CONFLICT.value() && status != HttpStatus.UNPROCESSABLE_ENTITY.value();
+    }
+
+    // Short fingerprint of whoever is calling, keeps record keys within their column
+    private static String owner(String guestEmail) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String owner;
+        if (auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getName())) {
+            owner = "user:" + auth.getName();
+        } else if (guestEmail != null && !guestEmail.isBlank()) {
+            owner = "guest:" + guestEmail.trim().toLowerCase();
+        } else {
+            return "anonymous";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(owner.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint caller", e);
+        }
+    }
+
+    private static ResponseEntity<?> replay(StoredResponse stored) {
+        return ResponseEntity.status(stored.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body());
+    }
+
+    private static ResponseEntity<Map<String, String>> mismatch() {
+        return ResponseEntity.unprocessableEntity()
+                .body(Map.of("error", "Idempotency-Key was already used with a different request"));
+    }
+
+    private static ResponseEntity<Map<String, String>> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "A request with this Idempotency-Key is still in progress"));
+    }
+
+    private String toJson(Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            log.warn("Response of type {} cannot be stored for replay", body.getClass().getSimpleName(), e);
+            return null;
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] body = request == null ? new byte[0] : objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.moviebooking.idempotency;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A request being served for an idempotency key on this node. Duplicates
+ * arriving meanwhile wait on {@link #result} instead of running again.
+ */
+class IdempotentCall {
+
+    final String key;
+    final String requestHash;
+    final long expiresAt;
+    final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+    IdempotentCall(String key, String requestHash, long expiresAt) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+        return expiresAt < now;
+    }
+
+    record StoredResponse(int status, String body) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.moviebooking.inventory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hashed hierarchical timing wheel. Each level has {@code 2^bits} slots and
+ * a slot on level L spans {@code 2^(bits*L)} ticks; entries due far in the
+ * future sit on a coarse level and cascade down as the wheel turns. Adding
+ * an entry and expiring it are both O(1) no matter how many are pending.
+ *
+ * Not thread-safe, callers serialize access.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final ToLongFunction<T> deadline;
+    private final ArrayDeque<T>[][] slots;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int bits, int levels, long startMillis, ToLongFunction<T> deadline) {
+        this.tickMillis = tickMillis;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        this.levels = levels;
+        this.deadline = deadline;
+        this.slots = new ArrayDeque[levels][1 << bits];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public int size() { return size; }
+
+    /**
+     * Schedules an entry. Returns false when it is already due, in which
+     * case the caller should expire it right away.
+     */
+    public boolean add(T entry) {
+        long expiryTick = (deadline.applyAsLong(entry) + tickMillis - 1) / tickMillis;
+        long delta = expiryTick - currentTick;
+        if (delta <= 0) {
+            return false;
+        }
+        int level = 0;
+        while (level < levels - 1 && delta >= 1L << (bits * (level + 1))) {
+            level++;
+        }
+        // beyond the top level the entry parks in the furthest slot and is re-placed when it cascades
+        long slotTick = level == levels - 1 && delta >= 1L << (bits * levels)
+                ? currentTick + (1L << (bits * levels)) - 1
+                : expiryTick;
+        int index = (int) ((slotTick >>> (bits * level)) & mask);
+        ArrayDeque<T> slot = slots[level][index];
+        if (slot == null) {
+            slot = slots[level][index] = new ArrayDeque<>();
+        }
+        slot.add(entry);
+        size++;
+        return true;
+    }
+
+    // Turns the wheel up to nowMillis and returns every entry that came due
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    cascade(level, (int) ((currentTick >>> (bits * level)) & mask), expired);
+                }
+            }
+            drain(slots[0][(int) (currentTick & mask)], expired);
+        }
+        return expired;
+    }
+
+    private void cascade(int level, int index, List<T> expired) {
+        ArrayDeque<T> slot = slots[level][index];
+        if (slot == null || slot.isEmpty()) {
+            return;
+        }
+        slots[level][index] = null;
+        size -= slot.size();
+        for (T entry : slot) {
+            if (!add(entry)) {
+                expired.add(entry);
+            }
+        }
+    }
+
+    private void drain(ArrayDeque<T> slot, List<T> expired) {
+        if (slot == null || slot.isEmpty()) {
+            return;
+        }
+        size -= slot.size();
+        expired.addAll(slot);
+        slot.clear();
+    }
+}
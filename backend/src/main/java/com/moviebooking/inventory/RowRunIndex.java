@@ -0,0 +1,159 @@
+package com.moviebooking.inventory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Run-length index of free seats: for every row the free blocks as
+ * start offset -> length, plus the longest block so rows that cannot fit a
+ * party are skipped without looking at their seats. Kept in step with the
+ * bitset by {@link SeatInventory} on every successful claim and release.
+ *
+ * Bits are flipped without the row lock, so an update does not trust the
+ * change it was called for: it reads the seat's bit under the lock and
+ * makes the run match it. Whichever update of a seat runs last sees the
+ * last flip, so racing claims and releases cannot leave the two apart.
+ */
+final class RowRunIndex {
+
+    private final SeatInventory inventory;
+    private final int seatsPerRow;
+    private final int seatsTotal;
+    private final TreeMap<Integer, Integer>[] runs;
+    private final AtomicIntegerArray longest;
+
+    @SuppressWarnings("unchecked")
+    RowRunIndex(SeatInventory inventory) {
+        this.inventory = inventory;
+        this.seatsPerRow = inventory.getSeatsPerRow();
+        this.seatsTotal = inventory.getSeatsTotal();
+        int rows = inventory.getRows();
+        this.runs = new TreeMap[rows];
+        this.longest = new AtomicIntegerArray(rows);
+        for (int row = 0; row < rows; row++) {
+            TreeMap<Integer, Integer> rowRuns = new TreeMap<>();
+            int length = rowLength(row);
+            int start = -1;
+            for (int offset = 0; offset <= length; offset++) {
+                boolean free = offset < length && inventory.isAvailable(row * seatsPerRow + offset);
+                if (free && start < 0) {
+                    start = offset;
+                } else if (!free && start >= 0) {
+                    rowRuns.put(start, offset - start);
+                    start = -1;
+                }
+            }
+            runs[row] = rowRuns;
+            longest.set(row, longestRun(rowRuns));
+        }
+    }
+
+    // Brings the seat's run in line with its bit, whatever change was made to it
+    void update(int index) {
+        TreeMap<Integer, Integer> rowRuns = runs[index / seatsPerRow];
+        synchronized (rowRuns) {
+            if (inventory.isAvailable(index)) {
+                free(index, rowRuns);
+            } else {
+                take(index, rowRuns);
+            }
+        }
+    }
+
+    private void take(int index, TreeMap<Integer, Integer> rowRuns) {
+        int row = index / seatsPerRow;
+        int offset = index % seatsPerRow;
+        Map.Entry<Integer, Integer> run = rowRuns.floorEntry(offset);
+        if (run == null || run.getKey() + run.getValue() <= offset) {
+            return;
+        }
+        int start = run.getKey();
+        int end = start + run.getValue();
+        rowRuns.remove(start);
+        if (offset > start) {
+            rowRuns.put(start, offset - start);
+        }
+        if (end > offset + 1) {
+            rowRuns.put(offset + 1, end - offset - 1);
+        }
+        longest.set(row, longestRun(rowRuns));
+    }
+
+    private void free(int index, TreeMap<Integer, Integer> rowRuns) {
+        int row = index / seatsPerRow;
+        int offset = index % seatsPerRow;
+        Map.Entry<Integer, Integer> before = rowRuns.floorEntry(offset);
+        if (before != null && before.getKey() + before.getValue() > offset) {
+            return;
+        }
+        int start = offset;
+        int length = 1;
+        if (before != null && before.getKey() + before.getValue() == offset) {
+            start = before.getKey();
+            length += before.getValue();
+            rowRuns.remove(start);
+        }
+        Integer after = rowRuns.remove(offset + 1);
+        if (after != null) {
+            length += after;
+        }
+        rowRuns.put(start, length);
+        longest.set(row, Math.max(longest.get(row), length));
+    }
+
+    /**
+     * Finds {@code count} adjacent free seats closest to the centre of the
+     * screen, or null when no row has a block that large.
+     */
+    int[] best(int count) {
+        double centreRow = (runs.length - 1) / 2.0;
+        int bestRow = -1;
+        int bestStart = -1;
+        double bestScore = Double.MAX_VALUE;
+        for (int row = 0; row < runs.length; row++) {
+            double rowDistance = row - centreRow;
+            if (longest.get(row) < count || rowDistance * rowDistance >= bestScore) {
+                continue;
+            }
+            double centreStart = (rowLength(row) - count) / 2.0;
+            synchronized (runs[row]) {
+                for (Map.Entry<Integer, Integer> run : runs[row].entrySet()) {
+                    if (run.getValue() < count) {
+                        continue;
+                    }
+                    // slide the block as close to the row centre as this run allows
+                    int start = (int) Math.round(Math.max(run.getKey(),
+                            Math.min(centreStart, run.getKey() + run.getValue() - count)));
+                    double seatDistance = start - centreStart;
+                    double score = rowDistance * rowDistance + seatDistance * seatDistance;
+                    if (score < bestScore) {
+                        bestScore = score;
+                        bestRow = row;
+                        bestStart = start;
+                    }
+                }
+            }
+        }
+        if (bestRow < 0) {
+            return null;
+        }
+        int[] seats = new int[count];
+        for (int i = 0; i < count; i++) {
+            seats[i] = bestRow * seatsPerRow + bestStart + i;
+        }
+        return seats;
+    }
+
+    private int rowLength(int row) {
+        return Math.min(seatsPerRow, seatsTotal - row * seatsPerRow);
+    }
+
+    private static int longestRun(TreeMap<Integer, Integer> rowRuns) {
+        int max = 0;
+        for (int length : rowRuns.values()) {
+            max = Math.max(max, length);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,8 @@
+package com.moviebooking.inventory;
+
+/**
+ * Seats claimed by a PENDING booking, held until {@code expiresAt}
+ * (epoch millis) unless payment confirms them first.
+ */
+public record SeatHold(Long bookingId, Long showtimeId, int[] seats, long expiresAt) {
+}
@@ -0,0 +1,243 @@
+package com.moviebooking.inventory;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.moviebooking.entity.Booking;
+import com.moviebooking.entity.Payment;
+import com.moviebooking.journal.BookingJournal;
+import com.moviebooking.repository.BookingRepository;
+import com.moviebooking.repository.PaymentRepository;
+import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.schedule.ShowtimeIndex;
+
+/**
+ * Holds the seats of a PENDING booking for a fixed TTL. Deadlines live in a
+ * {@link HierarchicalTimingWheel}, so the sweeper only touches holds that
+ * actually expired; those bookings are cancelled and their seats go back
+ * to the showtime in batches.
+ *
+ * The hold map is the arbiter between payment and expiry: whoever removes
+ * the hold first wins.
+ */
+@Service
+public class SeatHoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatHoldService.class);
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_LEVELS = 4;
+    private static final int BATCH_SIZE = 500;
+
+    @Value("${booking.hold.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShowtimeShardExecutor shardExecutor;
+
+    @Autowired
+    private BookingJournal journal;
+    
+    @Autowired
+    private ShowtimeIndex showtimeIndex;
+
+    private final Map<Long, SeatHold> holds = new ConcurrentHashMap<>();
+
+    private final HierarchicalTimingWheel<SeatHold> wheel = new HierarchicalTimingWheel<>(
+            TICK_MILLIS, WHEEL_BITS, WHEEL_LEVELS, System.currentTimeMillis(), SeatHold::expiresAt);
+
+    /**
+     * Starts the hold clock for a new booking. Inside a transaction the hold
+     * is only registered once the booking has committed.
+     */
+    public void hold(Long bookingId, Long showtimeId, int[] seats) {
+        SeatHold hold = new SeatHold(bookingId, showtimeId, seats, System.currentTimeMillis() + ttlSeconds * 1000);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    register(hold);
+                }
+            });
+        } else {
+            register(hold);
+        }
+    }
+
+    /**
+     * Turns a hold into a sale. Throws when the hold has already expired and
+     * the seats went back to the showtime. Inside a transaction the hold is
+     * taken out of the race with expiry right away and put back if the
+     * transaction does not commit, so a failed payment cannot strand the
+     * seats of a booking that is still PENDING.
+     */
+    public void confirm(Long bookingId) {
+        SeatHold hold = holds.remove(bookingId);
+        if (hold == null) {
+            throw new IllegalArgumentException("Booking hold has expired");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        requeue(hold);
+                    }
+                }
+            });
+        }
+    }
+
+    public boolean isHeld(Long bookingId) {
+        return holds.containsKey(bookingId);
+    }
+
+    public int getActiveHolds() {
+        return holds.size();
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void expireHolds() {
+        List<SeatHold> due;
+        synchronized (wheel) {
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        List<SeatHold> expired = new ArrayList<>();
+        for (SeatHold hold : due) {
+            // a confirmed or already expired hold is no longer in the map
+            if (holds.remove(hold.bookingId(), hold)) {
+                expired.add(hold);
+            }
+        }
+        for (int i = 0; i < expired.size(); i += BATCH_SIZE) {
+            List<SeatHold> batch = expired.subList(i, Math.min(i + BATCH_SIZE, expired.size()));
+            try {
+                releaseBatch(batch);
+            } catch (RuntimeException e) {
+                log.warn("Releasing {} expired seat holds failed, retrying next tick", batch.size(), e);
+                long retryAt = System.currentTimeMillis() + TICK_MILLIS;
+                batch.forEach(hold -> register(new SeatHold(hold.bookingId(), hold.showtimeId(), hold.seats(), retryAt)));
+            }
+        }
+    }
+
+    // Bookings still PENDING after a restart get their hold back, measured from creation time
+    @EventListener(ApplicationReadyEvent.class)
+    public void restorePendingHolds() {
+        for (Booking booking : bookingRepository.findByStatus(Booking.BookingStatus.PENDING)) {
+            Long showtimeId = booking.getShowtime().getId();
+            try {
+                int[] seats = seatInventoryService.parseSeats(
+                        seatInventoryService.getInventory(showtimeId), booking.getSeats());
+                long expiresAt = booking.getCreatedAt()
+                        .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + ttlSeconds * 1000;
+                register(new SeatHold(booking.getId(), showtimeId, seats, expiresAt));
+            } catch (RuntimeException e) {
+                log.warn("Could not restore seat hold for booking {}", booking.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Puts back the hold of a payment that did not commit. It expires on its
+     * original deadline, or on the next sweep if that has passed; the seats
+     * are never released from inside the finished transaction's callback,
+     * where its resources may still be bound.
+     */
+    private void requeue(SeatHold hold) {
+        synchronized (wheel) {
+            SeatHold queued = hold;
+            if (!wheel.add(queued)) {
+                queued = new SeatHold(hold.bookingId(), hold.showtimeId(), hold.seats(),
+                        System.currentTimeMillis() + TICK_MILLIS);
+                wheel.add(queued);
+            }
+            holds.put(queued.bookingId(), queued);
+        }
+    }
+
+    private void register(SeatHold hold) {
+        holds.put(hold.bookingId(), hold);
+        boolean scheduled;
+        synchronized (wheel) {
+            scheduled = wheel.add(hold);
+        }
+        if (!scheduled && holds.remove(hold.bookingId(), hold)) {
+            releaseBatch(List.of(hold));
+        }
+    }
+
+    private void releaseBatch(List<SeatHold> batch) {
+        List<Long> bookingIds = batch.stream().map(SeatHold::bookingId).toList();
+
+        // Cancel the bookings and return the seat counts in one transaction
+        Set<Long> cancelled = new LinkedHashSet<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            cancelled.addAll(bookingRepository.findIdsByStatus(bookingIds, Booking.BookingStatus.PENDING));
+            if (cancelled.isEmpty()) {
+                return;
+            }
+            bookingRepository.updateStatus(cancelled, Booking.BookingStatus.CANCELLED);
+            paymentRepository.updateStatusForBookings(cancelled,
+                    List.of(Payment.PaymentStatus.PENDING, Payment.PaymentStatus.OTP_REQUIRED),
+                    Payment.PaymentStatus.FAILED);
+            Map<Long, Integer> seatsPerShowtime = new HashMap<>();
+            for (SeatHold hold : batch) {
+                if (cancelled.contains(hold.bookingId())) {
+                    seatsPerShowtime.merge(hold.showtimeId(), hold.seats().length, Integer::sum);
+                    journal.recordStatus(hold.bookingId(), hold.showtimeId(), Booking.BookingStatus.CANCELLED);
+                }
+            }
+            seatsPerShowtime.forEach((showtimeId, count) -> {
+                showtimeRepository.incrementSeatsAvailable(showtimeId, count);
+                showtimeIndex.seatsChanged(showtimeId, count);
+            });
+        });
+
+        // Committed, hand the seats back on each showtime's shard, which stores and journals them in order.
+        // Not waited for: the bookings are cancelled, so the seats go back however slow the shard is
+        Map<Long, List<int[]>> released = new LinkedHashMap<>();
+        for (SeatHold hold : batch) {
+            if (cancelled.contains(hold.bookingId())) {
+                released.computeIfAbsent(hold.showtimeId(), id -> new ArrayList<>()).add(hold.seats());
+            }
+        }
+        released.forEach((showtimeId, seats) -> shardExecutor.submit(showtimeId,
+                () -> seats.forEach(held -> seatInventoryService.release(showtimeId, held))));
+    }
+}
@@ -0,0 +1,337 @@
+package com.moviebooking.inventory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat layout and availability of a single showtime.
+ *
+ * Availability is a bitset (bit set = seat free) and every seat carries a
+ * one-byte index into a small seat-type table, so a 120 seat screen fits in
+ * a couple of longs instead of a 6 KB JSON string.
+ *
+ * Claims are lock-free: every seat is taken with a CAS on its word of the
+ * bitset, and a request that loses any seat gives back the ones it already
+ * took, so a claim is all-or-nothing. The version counter moves on every
+ * successful change and is used to order writes of the persisted blob.
+ * A {@link RowRunIndex} of free blocks per row follows every change and
+ * answers best-available queries.
+ */
+public final class SeatInventory {
+
+    public static final int DEFAULT_SEATS_PER_ROW = 10;
+    public static final String DEFAULT_SEAT_TYPE = "regular";
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int rows;
+    private final int seatsPerRow;
+    private final int seatsTotal;
+    private final List<String> typeNames;
+    private final byte[] seatTypes;
+    private final AtomicLongArray available;
+    private final AtomicInteger availableCount = new AtomicInteger();
+    private final AtomicLong version;
+    private final RowRunIndex runIndex;
+    private volatile ChangeListener[] listeners = new ChangeListener[0];
+
+    SeatInventory(int seatsPerRow, int seatsTotal, List<String> typeNames, byte[] seatTypes, long[] available, long version) {
+        this.seatsPerRow = seatsPerRow;
+        this.seatsTotal = seatsTotal;
+        this.rows = (seatsTotal + seatsPerRow - 1) / seatsPerRow;
+        this.typeNames = typeNames;
+        this.seatTypes = seatTypes;
+        this.available = new AtomicLongArray(available);
+        this.version = new AtomicLong(version);
+        int free = 0;
+        for (long word : available) {
+            free += Long.bitCount(word);
+        }
+        this.availableCount.set(free);
+        this.runIndex = new RowRunIndex(this);
+    }
+
+    // Fresh layout, every seat free and of the default type
+    public static SeatInventory create(int seatsTotal, int seatsPerRow) {
+        if (seatsTotal < 0 || seatsPerRow <= 0) {
+            throw new IllegalArgumentException("Invalid seat layout");
+        }
+        List<String> typeNames = new ArrayList<>();
+        typeNames.add(DEFAULT_SEAT_TYPE);
+        long[] available = new long[(seatsTotal + 63) >>> 6];
+        for (int i = 0; i < seatsTotal; i++) {
+            available[i >>> 6] |= 1L << i;
+        }
+        return new SeatInventory(seatsPerRow, seatsTotal, typeNames, new byte[seatsTotal], available, 0);
+    }
+
+    public static SeatInventory create(int seatsTotal) {
+        return create(seatsTotal, DEFAULT_SEATS_PER_ROW);
+    }
+
+    public int getRows() { return rows; }
+
+    public int getSeatsPerRow() { return seatsPerRow; }
+
+    public int getSeatsTotal() { return seatsTotal; }
+
+    public int getAvailableCount() { return availableCount.get(); }
+
+    public long getVersion() { return version.get(); }
+
+    // Row and seat are 1-based, same as the seat map JSON
+    public int indexOf(int row, int seat) {
+        if (row < 1 || seat < 1 || seat > seatsPerRow) {
+            throw new IllegalArgumentException("Invalid seat " + label(row, seat));
+        }
+        int index = (row - 1) * seatsPerRow + (seat - 1);
+        if (index >= seatsTotal) {
+            throw new IllegalArgumentException("Invalid seat " + label(row, seat));
+        }
+        return index;
+    }
+
+    public int rowOf(int index) { return index / seatsPerRow + 1; }
+
+    public int seatOf(int index) { return index % seatsPerRow + 1; }
+
+    public String labelOf(int index) { return label(rowOf(index), seatOf(index)); }
+
+    public String typeOf(int index) { return typeNames.get(seatTypes[index]); }
+
+    public synchronized void setType(int index, String type) {
+        int typeIndex = typeNames.indexOf(type);
+        if (typeIndex < 0) {
+            typeIndex = typeNames.size();
+            typeNames.add(type);
+        }
+        seatTypes[index] = (byte) typeIndex;
+    }
+
+    // 64 seats per word, bit set = free
+    long availabilityWord(int word) {
+        return available.get(word);
+    }
+
+    public boolean isAvailable(int index) {
+        return (available.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Claims every seat or none of them. Throws when one of the seats has
+     * already been taken, naming the first conflicting seat.
+     */
+    public void claim(int[] seats) {
+        int[] ordered = seats.clone();
+        Arrays.sort(ordered);
+        for (int i = 0; i < ordered.length; i++) {
+            if (!clearBit(ordered[i])) {
+                for (int j = 0; j < i; j++) {
+                    setBit(ordered[j]);
+                }
+                throw new SeatUnavailableException("Seat " + labelOf(ordered[i]) + " is already booked");
+            }
+        }
+        for (int index : ordered) {
+            runIndex.update(index);
+        }
+        availableCount.addAndGet(-ordered.length);
+        long changed = version.incrementAndGet();
+        for (ChangeListener listener : listeners) {
+            listener.onChange(changed, ordered, new int[0]);
+        }
+    }
+
+    public void release(int[] seats) {
+        int[] released = new int[seats.length];
+        int count = 0;
+        for (int index : seats) {
+            if (setBit(index)) {
+                runIndex.update(index);
+                released[count++] = index;
+            }
+        }
+        if (count > 0) {
+            availableCount.addAndGet(count);
+            long changed = version.incrementAndGet();
+            int[] changedSeats = Arrays.copyOf(released, count);
+            for (ChangeListener listener : listeners) {
+                listener.onChange(changed, new int[0], changedSeats);
+            }
+        }
+    }
+
+    public synchronized void addChangeListener(ChangeListener listener) {
+        ChangeListener[] current = listeners;
+        ChangeListener[] added = Arrays.copyOf(current, current.length + 1);
+        added[current.length] = listener;
+        listeners = added;
+    }
+
+    public synchronized void removeChangeListener(ChangeListener listener) {
+        listeners = Arrays.stream(listeners).filter(current -> current != listener).toArray(ChangeListener[]::new);
+    }
+
+    // Indexes of booked seats, a compact view for mostly empty shows
+    public int[] takenSeats() {
+        int[] taken = new int[seatsTotal - availableCount.get() + 16];
+        int count = 0;
+        for (int index = 0; index < seatsTotal; index++) {
+            if (!isAvailable(index)) {
+                if (count == taken.length) {
+                    taken = Arrays.copyOf(taken, taken.length * 2);
+                }
+                taken[count++] = index;
+            }
+        }
+        return Arrays.copyOf(taken, count);
+    }
+
+    /**
+     * Picks {@code count} adjacent free seats closest to the centre of the
+     * screen without claiming them. Returns null when no row has room, and
+     * throws for a party that could never sit together in one row.
+     */
+    public int[] findBestAvailable(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Seat count must be at least 1");
+        }
+        if (count > seatsPerRow) {
+            throw new IllegalArgumentException("At most " + seatsPerRow + " adjacent seats fit in a row");
+        }
+        return runIndex.best(count);
+    }
+
+    // CAS helpers, return false when the bit was already in the target state
+    private boolean clearBit(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = available.get(word);
+            if ((current & mask) == 0) return false;
+        } while (!available.compareAndSet(word, current, current & ~mask));
+        return true;
+    }
+
+    private boolean setBit(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = available.get(word);
+            if ((current & mask) != 0) return false;
+        } while (!available.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    // Binary form stored in showtimes.seat_inventory
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + available.length() * 8);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(seatsPerRow);
+            out.writeInt(seatsTotal);
+            out.writeByte(typeNames.size());
+            for (String name : typeNames) {
+                out.writeUTF(name);
+            }
+            // seat types as (type, run length) pairs, layouts rarely have more than a few runs
+            int runStart = 0;
+            List<int[]> runs = new ArrayList<>();
+            for (int i = 1; i <= seatsTotal; i++) {
+                if (i == seatsTotal || seatTypes[i] != seatTypes[runStart]) {
+                    runs.add(new int[] { seatTypes[runStart], i - runStart });
+                    runStart = i;
+                }
+            }
+            out.writeInt(runs.size());
+            for (int[] run : runs) {
+                out.writeByte(run[0]);
+                out.writeInt(run[1]);
+            }
+            for (int i = 0; i < available.length(); i++) {
+                out.writeLong(available.get(i));
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode seat inventory", e);
+        }
+    }
+
+    public static SeatInventory fromBytes(byte[] data) {
+        return fromBytes(data, 0);
+    }
+
+    public static SeatInventory fromBytes(byte[] data, long version) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            byte format = in.readByte();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported seat inventory format " + format);
+            }
+            int seatsPerRow = in.readInt();
+            int seatsTotal = in.readInt();
+            int typeCount = in.readUnsignedByte();
+            List<String> typeNames = new ArrayList<>(typeCount);
+            for (int i = 0; i < typeCount; i++) {
+                typeNames.add(in.readUTF());
+            }
+            byte[] seatTypes = new byte[seatsTotal];
+            int runCount = in.readInt();
+            int position = 0;
+            for (int i = 0; i < runCount; i++) {
+                byte type = in.readByte();
+                int length = in.readInt();
+                for (int j = 0; j < length; j++) {
+                    seatTypes[position++] = type;
+                }
+            }
+            long[] available = new long[(seatsTotal + 63) >>> 6];
+            for (int i = 0; i < available.length; i++) {
+                available[i] = in.readLong();
+            }
+            return new SeatInventory(seatsPerRow, seatsTotal, typeNames, seatTypes, available, version);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt seat inventory", e);
+        }
+    }
+
+    // Legacy seat map JSON, only rendered at the API edge
+    public String toJson() {
+        StringBuilder json = new StringBuilder(seatsTotal * 52 + 2);
+        json.append('[');
+        for (int i = 0; i < seatsTotal; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"row\":").append(rowOf(i))
+                .append(",\"seat\":").append(seatOf(i))
+                .append(",\"available\":").append(isAvailable(i))
+                .append(",\"type\":\"").append(typeOf(i)).append("\"}");
+        }
+        json.append(']');
+        return json.toString();
+    }
+
+    private static String label(int row, int seat) {
+        return row >= 1 && row <= 26 ? (char) ('A' + row - 1) + String.valueOf(seat) : row + "-" + seat;
+    }
+
+    /**
+     * Told about every successful claim and release, on the thread that
+     * made it. Implementations must return quickly.
+     */
+    public interface ChangeListener {
+        void onChange(long version, int[] claimed, int[] released);
+    }
+}
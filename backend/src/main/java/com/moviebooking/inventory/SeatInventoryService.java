@@ -0,0 +1,181 @@
+package com.moviebooking.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.dto.SeatAvailability;
+import com.moviebooking.dto.SeatTypeRun;
+import com.moviebooking.dto.SeatView;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.journal.BookingJournal;
+import com.moviebooking.repository.ShowtimeRepository;
+
+/**
+ * Keeps one {@link SeatInventory} per showtime in memory. Inventories are
+ * loaded from the showtime's binary column on first use; claims and
+ * releases happen in memory and {@link #persist(Long)} writes the blob back
+ * with a version check so an older snapshot never overwrites a newer one.
+ */
+@Service
+public class SeatInventoryService {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private BookingJournal journal;
+
+    private final Map<Long, SeatInventory> inventories = new ConcurrentHashMap<>();
+
+    public SeatInventory getInventory(Long showtimeId) {
+        SeatInventory inventory = inventories.get(showtimeId);
+        if (inventory != null) {
+            return inventory;
+        }
+        Showtime showtime = showtimeRepository.findById(showtimeId)
+                .orElseThrow(() -> new IllegalArgumentException("Showtime not found"));
+        return getInventory(showtime);
+    }
+
+    public SeatInventory getInventory(Showtime showtime) {
+        return inventories.computeIfAbsent(showtime.getId(), id -> load(showtime));
+    }
+
+    public boolean isAvailable(Long showtimeId, int row, int seat) {
+        SeatInventory inventory = getInventory(showtimeId);
+        return inventory.isAvailable(inventory.indexOf(row, seat));
+    }
+
+    /**
+     * Claims the seats listed in a booking request's seat JSON
+     * ({@code [{"row":1,"seat":4}, ...]}), all or nothing. Returns the
+     * claimed seat indexes. Inside a transaction the seats are given back
+     * if it does not commit.
+     */
+    public int[] claim(Showtime showtime, String seatsJson) {
+        SeatInventory inventory = getInventory(showtime);
+        int[] seats = parseSeats(inventory, seatsJson);
+        inventory.claim(seats);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        inventory.release(seats);
+                    }
+                }
+            });
+        }
+        return seats;
+    }
+
+    /**
+     * Suggests {@code count} adjacent seats closest to the centre, without
+     * claiming them. Returns null when no row has room for the party.
+     */
+    public int[] bestAvailable(Long showtimeId, int count) {
+        return getInventory(showtimeId).findBestAvailable(count);
+    }
+
+    public List<SeatView> describe(Long showtimeId, int[] seats) {
+        SeatInventory inventory = getInventory(showtimeId);
+        List<SeatView> views = new ArrayList<>(seats.length);
+        for (int index : seats) {
+            views.add(new SeatView(inventory.rowOf(index), inventory.seatOf(index), inventory.labelOf(index),
+                    inventory.typeOf(index), inventory.isAvailable(index)));
+        }
+        return views;
+    }
+
+    // Compact availability for clients: layout, type runs and booked seat indexes
+    public SeatAvailability availability(Showtime showtime) {
+        SeatInventory inventory = getInventory(showtime);
+        long version = inventory.getVersion();
+        List<SeatTypeRun> types = new ArrayList<>();
+        for (int index = 0; index < inventory.getSeatsTotal(); index++) {
+            String type = inventory.typeOf(index);
+            SeatTypeRun last = types.isEmpty() ? null : types.get(types.size() - 1);
+            if (last != null && last.getType().equals(type)) {
+                last.setCount(last.getCount() + 1);
+            } else {
+                types.add(new SeatTypeRun(type, 1));
+            }
+        }
+        return new SeatAvailability(version, inventory.getRows(), inventory.getSeatsPerRow(),
+                inventory.getSeatsTotal(), types, inventory.takenSeats());
+    }
+
+    // Seat JSON in the shape booking requests carry
+    public String toSeatsJson(Long showtimeId, int[] seats) {
+        SeatInventory inventory = getInventory(showtimeId);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < seats.length; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"row\":").append(inventory.rowOf(seats[i]))
+                .append(",\"seat\":").append(inventory.seatOf(seats[i])).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    public void release(Long showtimeId, int[] seats) {
+        getInventory(showtimeId).release(seats);
+    }
+
+    // Version is read before the bits, so the stored blob is never older than its version
+    public long persist(Long showtimeId) {
+        SeatInventory inventory = getInventory(showtimeId);
+        long version = inventory.getVersion();
+        showtimeRepository.updateSeatInventory(showtimeId, inventory.toBytes(), version);
+        return version;
+    }
+
+    public void evict(Long showtimeId) {
+        inventories.remove(showtimeId);
+    }
+
+    public int[] parseSeats(SeatInventory inventory, String seatsJson) {
+        JsonNode nodes;
+        try {
+            nodes = MAPPER.readTree(seatsJson);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid seat selection");
+        }
+        if (nodes == null || !nodes.isArray() || nodes.isEmpty()) {
+            throw new IllegalArgumentException("Invalid seat selection");
+        }
+        int[] seats = new int[nodes.size()];
+        for (int i = 0; i < seats.length; i++) {
+            JsonNode node = nodes.get(i);
+            seats[i] = inventory.indexOf(node.path("row").asInt(), node.path("seat").asInt());
+            for (int j = 0; j < i; j++) {
+                if (seats[j] == seats[i]) {
+                    throw new IllegalArgumentException("Seat " + inventory.labelOf(seats[i]) + " selected twice");
+                }
+            }
+        }
+        return seats;
+    }
+
+    // Showtimes created before the binary column get a default layout
+    private SeatInventory load(Showtime showtime) {
+        SeatInventory inventory;
+        if (showtime.getSeatInventory() != null) {
+            inventory = SeatInventory.fromBytes(showtime.getSeatInventory(), showtime.getInventoryVersion());
+        } else {
+            inventory = SeatInventory.create(showtime.getSeatsTotal());
+        }
+        journal.attach(showtime.getId(), inventory);
+        return inventory;
+    }
+}
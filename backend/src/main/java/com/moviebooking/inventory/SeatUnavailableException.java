@@ -0,0 +1,12 @@
+package com.moviebooking.inventory;
+
+/**
+ * Thrown when the seats asked for were taken by another booking first.
+ * Nothing was claimed, other seats may still be free.
+ */
+public class SeatUnavailableException extends RuntimeException {
+
+    public SeatUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.moviebooking.inventory;
+
+/**
+ * Thrown when a booking write waited too long for its showtime's shard.
+ * The write was never run, so the request can be retried as is.
+ */
+public class ShardBusyException extends RuntimeException {
+
+    public ShardBusyException() {
+        super("Booking is taking too long, please try again");
+    }
+}
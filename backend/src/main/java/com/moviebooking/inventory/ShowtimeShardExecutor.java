@@ -0,0 +1,340 @@
+package com.moviebooking.inventory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.moviebooking.journal.BookingJournal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs every booking write for a showtime on the one thread that owns it.
+ * Showtimes are spread over a fixed number of shards by id; each shard
+ * drains its mailbox in batches and runs a whole batch in one transaction,
+ * so a burst on a hot showtime becomes a few commits instead of a row lock
+ * convoy, and different showtimes proceed on different cores.
+ *
+ * A task that throws fails only its own caller. It must undo its own
+ * writes before throwing, as the rest of the batch still commits; what it
+ * registered to run after commit is dropped and told the task rolled
+ * back. If the batch itself fails to commit, every task in it is retried
+ * in a transaction of its own.
+ * After a commit the batch is marked in the {@link BookingJournal}, which
+ * reaches the disk on its own schedule, and callers are answered.
+ */
+@Component
+public class ShowtimeShardExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ShowtimeShardExecutor.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final SeatInventoryService seatInventoryService;
+    private final BookingJournal journal;
+    private final MeterRegistry meterRegistry;
+
+    private final int shardCount;
+    private final int maxBatch;
+    private final long timeoutMillis;
+
+    private Shard[] shards;
+    private DistributionSummary batchSize;
+    private volatile boolean closed;
+
+    public ShowtimeShardExecutor(TransactionTemplate transactionTemplate, SeatInventoryService seatInventoryService,
+                                 BookingJournal journal, MeterRegistry meterRegistry,
+                                 @Value("${booking.shards.count:0}") int shardCount,
+                                 @Value("${booking.shards.max-batch:64}") int maxBatch,
+                                 @Value("${booking.shards.timeout-ms:5000}") long timeoutMillis) {
+        this.transactionTemplate = transactionTemplate;
+        this.seatInventoryService = seatInventoryService;
+        this.journal = journal;
+        this.meterRegistry = meterRegistry;
+        this.shardCount = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.maxBatch = Math.max(1, maxBatch);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+            shards[i].thread.start();
+        }
+        Gauge.builder("booking.shard.pending", this, e -> e.getPendingTasks())
+                .description("Booking writes waiting in shard mailboxes")
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder("booking.shard.batch.size")
+                .description("Booking writes committed together")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stops the shards. Writes still queued never run, their callers get
+     * {@link ShardBusyException} right away instead of at the timeout.
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        for (Shard shard : shards) {
+            shard.thread.interrupt();
+        }
+        for (Shard shard : shards) {
+            List<ShardTask<?>> pending = new ArrayList<>();
+            shard.mailbox.drainTo(pending);
+            pending.forEach(ShardTask::abandon);
+        }
+    }
+
+    /**
+     * Runs a write on the shard owning the showtime and waits for its
+     * batch to commit. Exceptions thrown by the task reach the caller as is.
+     * Throws {@link ShardBusyException} when the write did not start within
+     * the timeout; it then never runs and the caller may safely retry. A
+     * write that has started is always waited for.
+     */
+    public <T> T execute(Long showtimeId, Supplier<T> work) {
+        ShardTask<T> task = new ShardTask<>(showtimeId, work);
+        enqueue(task);
+        try {
+            try {
+                return task.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (task.state.compareAndSet(ShardTask.QUEUED, ShardTask.ABANDONED)) {
+                    throw new ShardBusyException();
+                }
+                // already running, its batch answers shortly
+                return task.future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Booking was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Queues a write on the shard owning the showtime without waiting for
+     * it. For work that must happen even when the caller cannot wait, a
+     * failure is only logged.
+     */
+    public void submit(Long showtimeId, Runnable work) {
+        ShardTask<Void> task = new ShardTask<>(showtimeId, () -> {
+            work.run();
+            return null;
+        });
+        task.future.whenComplete((result, failure) -> {
+            if (failure != null) {
+                log.error("Booking write for showtime {} failed on its shard", showtimeId, failure);
+            }
+        });
+        enqueue(task);
+    }
+
+    public int getPendingTasks() {
+        int pending = 0;
+        for (Shard shard : shards) {
+            pending += shard.mailbox.size();
+        }
+        return pending;
+    }
+
+    // A write queued while shutting down may have missed the drain, it fails itself
+    private void enqueue(ShardTask<?> task) {
+        shards[shardOf(task.showtimeId)].mailbox.add(task);
+        if (closed) {
+            task.abandon();
+        }
+    }
+
+    int shardOf(Long showtimeId) {
+        // spread sequential ids so neighbouring showtimes land on different shards
+        int hash = Long.hashCode(showtimeId) * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    private void runBatch(List<ShardTask<?>> batch) {
+        // callers that gave up before their turn are not answered, their writes never run
+        batch.removeIf(task -> !task.start());
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            commit(batch);
+            batchSize.record(batch.size());
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.warn("Booking batch of {} failed to commit, retrying one by one", batch.size(), e);
+            for (ShardTask<?> task : batch) {
+                try {
+                    commit(List.of(task));
+                    batchSize.record(1);
+                } catch (RuntimeException single) {
+                    task.future.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    // One transaction for the batch, seat blobs written once per showtime at the end
+    private void commit(List<ShardTask<?>> batch) {
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> touched = new ArrayList<>();
+            RuntimeException firstFailure = null;
+            for (ShardTask<?> task : batch) {
+                if (task.run()) {
+                    touched.add(task.showtimeId);
+                } else if (firstFailure == null) {
+                    firstFailure = task.failure;
+                }
+            }
+            // a failed write inside a repository call dooms the whole transaction
+            if (status.isRollbackOnly()) {
+                throw firstFailure != null ? firstFailure : new RuntimeException("Booking batch was rolled back");
+            }
+            for (Long showtimeId : touched) {
+                versions.computeIfAbsent(showtimeId, seatInventoryService::persist);
+            }
+        });
+        versions.forEach(journal::commit);
+        for (ShardTask<?> task : batch) {
+            task.complete();
+        }
+    }
+
+    private final class Shard implements Runnable {
+
+        private final BlockingQueue<ShardTask<?>> mailbox = new LinkedBlockingQueue<>();
+        private final Thread thread;
+
+        private Shard(int index) {
+            this.thread = new Thread(this, "booking-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<ShardTask<?>> batch = new ArrayList<>(maxBatch);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(mailbox.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                mailbox.drainTo(batch, maxBatch - 1);
+                try {
+                    runBatch(batch);
+                } catch (RuntimeException e) {
+                    log.error("Booking shard {} failed a batch", thread.getName(), e);
+                    batch.forEach(task -> task.future.completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private static final class ShardTask<T> {
+
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int ABANDONED = 2;
+
+        private final Long showtimeId;
+        private final Supplier<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private T result;
+        private RuntimeException failure;
+
+        private ShardTask(Long showtimeId, Supplier<T> work) {
+            this.showtimeId = showtimeId;
+            this.work = work;
+        }
+
+        // False when the caller has given up; true also for a task retried after its batch failed
+        private boolean start() {
+            return state.compareAndSet(QUEUED, RUNNING) || state.get() == RUNNING;
+        }
+
+        /**
+         * Returns true when the task wrote something. A failed task's
+         * synchronizations are completed as rolled back right away, so a
+         * later commit of the batch does not run them.
+         */
+        private boolean run() {
+            result = null;
+            failure = null;
+            List<TransactionSynchronization> before = TransactionSynchronizationManager.isSynchronizationActive()
+                    ? TransactionSynchronizationManager.getSynchronizations() : List.of();
+            try {
+                result = work.get();
+                return true;
+            } catch (RuntimeException e) {
+                failure = e;
+                discardSynchronizationsSince(before);
+                return false;
+            }
+        }
+
+        private static void discardSynchronizationsSince(List<TransactionSynchronization> before) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            List<TransactionSynchronization> added = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+            added.removeAll(before);
+            if (added.isEmpty()) {
+                return;
+            }
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.initSynchronization();
+            before.forEach(TransactionSynchronizationManager::registerSynchronization);
+            added.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        }
+
+        // Never runs from here on, a caller still waiting is told to retry
+        private void abandon() {
+            if (state.compareAndSet(QUEUED, ABANDONED)) {
+                future.completeExceptionally(new ShardBusyException());
+            }
+        }
+
+        // Callers only see a result once the batch has committed
+        private void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
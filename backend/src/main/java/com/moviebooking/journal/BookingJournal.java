@@ -0,0 +1,279 @@
+package com.moviebooking.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.moviebooking.entity.Booking;
+import com.moviebooking.inventory.SeatInventory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only journal of seat claims, releases and booking status changes,
+ * written into memory-mapped segment files. Appending is a copy into the
+ * mapping; {@link #flush()} makes everything appended so far durable with
+ * a single flush every few milliseconds, off the booking path.
+ *
+ * The journal is an audit trail and a feed for projections, not the source
+ * of seat state: inventories are loaded from the showtime row and holds
+ * from the PENDING bookings, so nothing waits for it to reach the disk.
+ * The booking shard adds a COMMIT entry after each batch reaches the
+ * database. Only the newest {@code booking.journal.retain-segments}
+ * segments are kept.
+ */
+@Component
+public class BookingJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingJournal.class);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int retainSegments;
+    private final MeterRegistry meterRegistry;
+
+    private final Object syncLock = new Object();
+
+    private JournalSegment active;
+    private long lastSequence;
+    private volatile long appendedSequence;
+    private volatile long durableSequence;
+
+    private Timer syncTimer;
+    private DistributionSummary syncBatch;
+
+    public BookingJournal(MeterRegistry meterRegistry,
+                          @Value("${booking.journal.dir:./data/journal}") String directory,
+                          @Value("${booking.journal.segment-mb:64}") int segmentMegabytes,
+                          @Value("${booking.journal.retain-segments:16}") int retainSegments) {
+        this.meterRegistry = meterRegistry;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentMegabytes * 1024 * 1024;
+        this.retainSegments = Math.max(1, retainSegments);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        lastSequence = lastWritten();
+        appendedSequence = lastSequence;
+        durableSequence = lastSequence;
+
+        // never append behind a record that may have been torn by a crash
+        Files.deleteIfExists(directory.resolve(JournalSegment.fileName(lastSequence + 1)));
+        active = JournalSegment.create(directory, lastSequence + 1, segmentBytes);
+        log.info("Booking journal opened after entry {}", lastSequence);
+
+        syncTimer = Timer.builder("booking.journal.sync")
+                .description("Time to flush the booking journal to disk")
+                .register(meterRegistry);
+        syncBatch = DistributionSummary.builder("booking.journal.sync.entries")
+                .description("Journal entries made durable by one flush")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        sync();
+        synchronized (this) {
+            active.close();
+        }
+    }
+
+    // Starts journaling a loaded inventory, every later change is appended as it happens
+    public void attach(Long showtimeId, SeatInventory inventory) {
+        inventory.addChangeListener((version, claimed, released) -> {
+            if (claimed.length > 0) {
+                append(JournalEntry.seats(JournalEntry.Type.CLAIM, showtimeId, version, claimed));
+            }
+            if (released.length > 0) {
+                append(JournalEntry.seats(JournalEntry.Type.RELEASE, showtimeId, version, released));
+            }
+        });
+    }
+
+    // Seat changes of the showtime up to this version are in the database
+    public void commit(Long showtimeId, long version) {
+        append(JournalEntry.commit(showtimeId, version));
+    }
+
+    /**
+     * Records a booking status change. Inside a transaction it is only
+     * appended once the transaction has committed.
+     */
+    public void recordStatus(Long bookingId, Long showtimeId, Booking.BookingStatus status) {
+        JournalEntry entry = JournalEntry.status(showtimeId, bookingId, status.name());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(entry);
+                }
+            });
+        } else {
+            append(entry);
+        }
+    }
+
+    /**
+     * Returns once every entry appended before the call is on disk. One
+     * caller flushes for everyone waiting behind it.
+     */
+    public void sync() {
+        long target = appendedSequence;
+        if (durableSequence >= target) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= target) {
+                return;
+            }
+            long upTo;
+            JournalSegment segment;
+            int end;
+            synchronized (this) {
+                upTo = lastSequence;
+                segment = active;
+                end = segment.position();
+            }
+            long started = System.nanoTime();
+            // segments before the active one were flushed when it replaced them
+            segment.force(end);
+            syncTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            syncBatch.record(upTo - durableSequence);
+            durableSequence = upTo;
+        }
+    }
+
+    // Everything appended reaches the disk within the interval
+    @Scheduled(fixedDelayString = "${booking.journal.flush-interval-ms:50}")
+    public void flush() {
+        sync();
+    }
+
+    // Deletes the oldest closed segments beyond the retained count
+    @Scheduled(fixedDelayString = "${booking.journal.retention-interval-ms:60000}",
+               initialDelayString = "${booking.journal.retention-interval-ms:60000}")
+    public void trim() {
+        try {
+            List<Path> segments = list(JournalSegment.PREFIX, JournalSegment.SUFFIX);
+            for (int i = 0; i < segments.size() - retainSegments; i++) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        } catch (IOException e) {
+            log.warn("Booking journal retention failed", e);
+        }
+    }
+
+    /**
+     * Reads the durable entries from {@code fromSequence} on, oldest first,
+     * for consumers rebuilding a projection. Entries before the oldest
+     * retained segment are gone.
+     */
+    public void replay(long fromSequence, Consumer<JournalEntry> consumer) {
+        try {
+            readSegments(fromSequence, durableSequence, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    private void append(JournalEntry entry) {
+        synchronized (this) {
+            long sequence = lastSequence + 1;
+            ByteBuffer record = entry.withSequence(sequence, System.currentTimeMillis()).encode();
+            if (!active.append(record)) {
+                roll(sequence, record);
+            }
+            lastSequence = sequence;
+            appendedSequence = sequence;
+        }
+    }
+
+    // Caller holds the journal lock
+    private void roll(long sequence, ByteBuffer record) {
+        try {
+            JournalSegment full = active;
+            JournalSegment next = JournalSegment.create(directory, sequence,
+                    Math.max(segmentBytes, record.remaining()));
+            full.close();
+            active = next;
+            active.append(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start a new booking journal segment", e);
+        }
+    }
+
+    // Sequence of the last intact entry, only the newest segment needs reading
+    private long lastWritten() throws IOException {
+        List<Path> segments = list(JournalSegment.PREFIX, JournalSegment.SUFFIX);
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        long first = JournalSegment.sequenceOf(segments.get(segments.size() - 1));
+        long[] last = { first - 1 };
+        readSegments(first, Long.MAX_VALUE, entry -> last[0] = entry.sequence());
+        return last[0];
+    }
+
+    /**
+     * Feeds the entries numbered {@code from..to} in order. Reading stops at
+     * the first gap in the numbering, which is where a crash cut the journal.
+     */
+    private void readSegments(long from, long to, Consumer<JournalEntry> consumer) throws IOException {
+        List<Path> segments = list(JournalSegment.PREFIX, JournalSegment.SUFFIX);
+        long expected = -1;
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && JournalSegment.sequenceOf(segments.get(i + 1)) <= from) {
+                continue;
+            }
+            ByteBuffer buffer = JournalSegment.read(segments.get(i));
+            JournalEntry entry;
+            while ((entry = JournalEntry.decode(buffer)) != null) {
+                if (expected >= 0 && entry.sequence() != expected) {
+                    return;
+                }
+                expected = entry.sequence() + 1;
+                if (entry.sequence() > to) {
+                    return;
+                }
+                if (entry.sequence() >= from) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    // Files named prefix + zero padded sequence + suffix, so name order is sequence order
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }).sorted().toList();
+        }
+    }
+}
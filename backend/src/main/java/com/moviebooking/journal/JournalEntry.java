@@ -0,0 +1,120 @@
+package com.moviebooking.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * One record of the booking journal.
+ *
+ * CLAIM and RELEASE carry the seat indexes that changed at
+ * {@code version}, COMMIT marks every earlier seat change of the showtime
+ * as committed to the database, and STATUS records a booking moving to
+ * {@code status}. BASE, a whole seat inventory, is no longer written but
+ * still read from older segments. Fields a type does not use are 0 or null.
+ */
+public record JournalEntry(long sequence, long timestamp, Type type, long showtimeId, long version,
+                           int[] seats, byte[] inventory, long bookingId, String status) {
+
+    // length and checksum in front of every record
+    static final int HEADER_BYTES = 8;
+
+    public enum Type { BASE, CLAIM, RELEASE, COMMIT, STATUS }
+
+    static JournalEntry seats(Type type, long showtimeId, long version, int[] seats) {
+        return new JournalEntry(0, 0, type, showtimeId, version, seats, null, 0, null);
+    }
+
+    static JournalEntry commit(long showtimeId, long version) {
+        return new JournalEntry(0, 0, Type.COMMIT, showtimeId, version, null, null, 0, null);
+    }
+
+    static JournalEntry status(long showtimeId, long bookingId, String status) {
+        return new JournalEntry(0, 0, Type.STATUS, showtimeId, 0, null, null, bookingId, status);
+    }
+
+    JournalEntry withSequence(long sequence, long timestamp) {
+        return new JournalEntry(sequence, timestamp, type, showtimeId, version, seats, inventory, bookingId, status);
+    }
+
+    // [int length][int crc32c][type, sequence, timestamp, showtime, version, payload]
+    ByteBuffer encode() {
+        byte[] statusBytes = status != null ? status.getBytes(StandardCharsets.UTF_8) : null;
+        int payload = switch (type) {
+            case BASE -> 4 + inventory.length;
+            case CLAIM, RELEASE -> 4 + seats.length * 4;
+            case COMMIT -> 0;
+            case STATUS -> 8 + 2 + statusBytes.length;
+        };
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 33 + payload);
+        buffer.position(HEADER_BYTES);
+        buffer.put((byte) type.ordinal()).putLong(sequence).putLong(timestamp).putLong(showtimeId).putLong(version);
+        switch (type) {
+            case BASE -> buffer.putInt(inventory.length).put(inventory);
+            case CLAIM, RELEASE -> {
+                buffer.putInt(seats.length);
+                for (int seat : seats) {
+                    buffer.putInt(seat);
+                }
+            }
+            case COMMIT -> { }
+            case STATUS -> buffer.putLong(bookingId).putShort((short) statusBytes.length).put(statusBytes);
+        }
+        int length = buffer.position() - HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(0, length).putInt(4, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * Reads the record at the buffer's position and moves past it. Returns
+     * null, leaving the position alone, at the end of the written part of a
+     * segment or at a record that was only partly written before a crash.
+     */
+    static JournalEntry decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > buffer.remaining() - HEADER_BYTES) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        ByteBuffer body = buffer.slice(start + HEADER_BYTES, length);
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(start + 4)) {
+            return null;
+        }
+        Type type = Type.values()[body.get()];
+        long sequence = body.getLong();
+        long timestamp = body.getLong();
+        long showtimeId = body.getLong();
+        long version = body.getLong();
+        JournalEntry entry = switch (type) {
+            case BASE -> {
+                byte[] inventory = new byte[body.getInt()];
+                body.get(inventory);
+                yield new JournalEntry(sequence, timestamp, type, showtimeId, version, null, inventory, 0, null);
+            }
+            case CLAIM, RELEASE -> {
+                int[] seats = new int[body.getInt()];
+                for (int i = 0; i < seats.length; i++) {
+                    seats[i] = body.getInt();
+                }
+                yield new JournalEntry(sequence, timestamp, type, showtimeId, version, seats, null, 0, null);
+            }
+            case COMMIT -> new JournalEntry(sequence, timestamp, type, showtimeId, version, null, null, 0, null);
+            case STATUS -> {
+                long bookingId = body.getLong();
+                byte[] status = new byte[body.getShort()];
+                body.get(status);
+                yield new JournalEntry(sequence, timestamp, type, showtimeId, version, null, null, bookingId,
+                        new String(status, StandardCharsets.UTF_8));
+            }
+        };
+        buffer.position(start + HEADER_BYTES + length);
+        return entry;
+    }
+}
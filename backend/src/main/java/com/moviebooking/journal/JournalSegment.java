@@ -0,0 +1,93 @@
+package com.moviebooking.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A preallocated journal file mapped into memory. Records are copied into
+ * the mapping by the appending thread and reach the disk when
+ * {@link #force()} flushes the dirty range; the unwritten rest of the file
+ * stays zero, which is how readers find the end.
+ */
+final class JournalSegment {
+
+    static final String PREFIX = "journal-";
+    static final String SUFFIX = ".seg";
+
+    final Path path;
+    final long firstSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int forced;
+
+    private JournalSegment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int size) throws IOException {
+        Path path = directory.resolve(fileName(firstSequence));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        // the file's length must survive a crash for the mapping to be readable again
+        channel.force(true);
+        return new JournalSegment(path, firstSequence, channel, buffer);
+    }
+
+    // Read-only view of a segment, shares pages with a writer mapping the same file
+    static ByteBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    static String fileName(long firstSequence) {
+        return String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX);
+    }
+
+    static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // Returns false when the record does not fit and a new segment is needed
+    boolean append(ByteBuffer record) {
+        if (record.remaining() > buffer.remaining()) {
+            return false;
+        }
+        buffer.put(record);
+        return true;
+    }
+
+    int position() {
+        return buffer.position();
+    }
+
+    boolean isEmpty() {
+        return buffer.position() == 0;
+    }
+
+    void force() {
+        force(buffer.position());
+    }
+
+    // the syncing thread and a roll to the next segment may both flush
+    synchronized void force(int upTo) {
+        if (upTo > forced) {
+            buffer.force(forced, upTo - forced);
+            forced = upTo;
+        }
+    }
+
+    void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,161 @@
+package com.moviebooking.nlp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads intent, seat count, date and time out of a voice utterance in
+ * Hindi, English or a mix of both. The utterance is tokenized once and
+ * every recognizer runs in the same pass over the tokens, looking one
+ * token around it: a number is a seat count before "ticket", an hour
+ * before "बजे" or "pm" and after "at", a day next to a month, and nothing
+ * on its own, so "2 ticket" is never read as 2 o'clock.
+ *
+ * The words come from {@code nlp/intent-rules.yml}, compiled once at
+ * startup; a broken file stops the application from starting.
+ */
+@Component
+public class IntentEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(IntentEngine.class);
+
+    private final IntentRules rules;
+
+    @Autowired
+    public IntentEngine(@Value("${nlp.rules:classpath:nlp/intent-rules.yml}") Resource rules) throws IOException {
+        try (InputStream in = rules.getInputStream()) {
+            this.rules = IntentRules.load(in);
+        }
+        log.info("Intent rules loaded from {}", rules.getDescription());
+    }
+
+    IntentEngine(IntentRules rules) {
+        this.rules = rules;
+    }
+
+    public ParsedUtterance parse(String text, LocalDate today) {
+        List<Lexer.Token> tokens = Lexer.tokenize(text);
+        int size = tokens.size();
+        IntentRules.Lexeme[] lexemes = new IntentRules.Lexeme[size + 1];
+        for (int i = 0; i < size; i++) {
+            if (tokens.get(i).kind() == Lexer.Kind.WORD) {
+                lexemes[i] = rules.lookup(tokens.get(i).text());
+            }
+        }
+
+        int intent = Integer.MAX_VALUE;
+        Integer seats = null;
+        Integer spokenNumber = null;
+        LocalDate date = null;
+        int hour = -1;
+        int minute = 0;
+        boolean afternoon = false;
+        boolean morning = false;
+
+        for (int i = 0; i < size; i++) {
+            Lexer.Token token = tokens.get(i);
+            IntentRules.Lexeme word = lexemes[i];
+            IntentRules.Lexeme next = lexemes[i + 1];
+            IntentRules.Lexeme previous = i > 0 ? lexemes[i - 1] : null;
+
+            if (word != null) {
+                intent = Math.min(intent, word.intent);
+                afternoon |= word.afternoon;
+                if (date == null && word.days != IntentRules.NO_NUMBER) {
+                    date = today.plusDays(word.days);
+                }
+                if (date == null && word.weekday != IntentRules.NO_NUMBER) {
+                    date = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.of(word.weekday)));
+                }
+            }
+
+            if (token.kind() == Lexer.Kind.TIME) {
+                if (hour < 0 && token.value() < 24 && token.minute() < 60) {
+                    hour = token.value();
+                    minute = token.minute();
+                    if (next != null) {
+                        afternoon |= next.afternoonUnit;
+                        morning |= next.morningUnit;
+                    }
+                }
+                continue;
+            }
+
+            int number = IntentRules.NO_NUMBER;
+            boolean spoken = false;
+            if (token.kind() == Lexer.Kind.NUMBER) {
+                number = token.value();
+            } else if (word != null && word.number != IntentRules.NO_NUMBER) {
+                number = word.number;
+                spoken = true;
+            } else if (word != null && word.numberBeforeUnit != IntentRules.NO_NUMBER
+                    && next != null && (next.seatUnit || next.hourUnit)) {
+                number = word.numberBeforeUnit;
+            }
+            if (number == IntentRules.NO_NUMBER) {
+                continue;
+            }
+
+            if (next != null && next.seatUnit) {
+                if (seats == null) seats = number;
+            } else if (next != null && next.hourUnit) {
+                if (hour < 0 && number < 24) {
+                    hour = number;
+                    minute = 0;
+                    afternoon |= next.afternoonUnit;
+                    morning |= next.morningUnit;
+                }
+            } else if (previous != null && previous.hourPrefix) {
+                if (hour < 0 && number < 24) {
+                    hour = number;
+                    minute = 0;
+                }
+            } else if (next != null && next.month != IntentRules.NO_NUMBER) {
+                if (date == null) date = dayOfMonth(today, next.month, number);
+            } else if (previous != null && previous.month != IntentRules.NO_NUMBER) {
+                if (date == null) date = dayOfMonth(today, previous.month, number);
+            } else if (spoken && spokenNumber == null) {
+                // "दो" on its own most likely counts people
+                spokenNumber = number;
+            }
+        }
+
+        if (seats == null) {
+            seats = spokenNumber;
+        }
+        LocalTime time = null;
+        if (hour >= 0) {
+            if (morning && hour == 12) {
+                hour = 0;
+            } else if ((afternoon && !morning) && hour < 12) {
+                hour += 12;
+            }
+            time = LocalTime.of(hour, minute);
+        }
+        String name = intent == Integer.MAX_VALUE ? ParsedUtterance.UNKNOWN : rules.intent(intent);
+        return new ParsedUtterance(name, seats, date, time);
+    }
+
+    // This year's date, or next year's once this year's has gone by
+    private static LocalDate dayOfMonth(LocalDate today, int month, int day) {
+        try {
+            LocalDate date = LocalDate.of(today.getYear(), month, day);
+            return date.isBefore(today) ? date.plusYears(1) : date;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.moviebooking.nlp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * The rules file compiled into a single table from word to what the word
+ * can mean. A word may mean several things: "ticket" names an intent and
+ * is a seat unit, "tonight" is a day and a time of day.
+ *
+ * Words ending in {@code *} in the file match by prefix. They are looked
+ * up by cutting the word to each prefix length in use, longest first, so
+ * a lookup stays a handful of map reads whatever the size of the file.
+ */
+final class IntentRules {
+
+    static final int NO_NUMBER = -1;
+
+    // What a word means, every field unset by default
+    static final class Lexeme {
+
+        int intent = Integer.MAX_VALUE;
+        int number = NO_NUMBER;
+        int numberBeforeUnit = NO_NUMBER;
+        boolean seatUnit;
+        boolean hourUnit;
+        boolean hourPrefix;
+        boolean afternoonUnit;
+        boolean morningUnit;
+        boolean afternoon;
+        int days = NO_NUMBER;
+        int month = NO_NUMBER;
+        int weekday = NO_NUMBER;
+
+        private Lexeme merge(Lexeme other) {
+            Lexeme merged = new Lexeme();
+            merged.intent = Math.min(intent, other.intent);
+            merged.number = number != NO_NUMBER ? number : other.number;
+            merged.numberBeforeUnit = numberBeforeUnit != NO_NUMBER ? numberBeforeUnit : other.numberBeforeUnit;
+            merged.seatUnit = seatUnit || other.seatUnit;
+            merged.hourUnit = hourUnit || other.hourUnit;
+            merged.hourPrefix = hourPrefix || other.hourPrefix;
+            merged.afternoonUnit = afternoonUnit || other.afternoonUnit;
+            merged.morningUnit = morningUnit || other.morningUnit;
+            merged.afternoon = afternoon || other.afternoon;
+            merged.days = days != NO_NUMBER ? days : other.days;
+            merged.month = month != NO_NUMBER ? month : other.month;
+            merged.weekday = weekday != NO_NUMBER ? weekday : other.weekday;
+            return merged;
+        }
+    }
+
+    private final List<String> intents;
+    private final Map<String, Lexeme> words;
+    private final Map<String, Lexeme> prefixes;
+    private final int[] prefixLengths;
+
+    private IntentRules(List<String> intents, Map<String, Lexeme> words, Map<String, Lexeme> prefixes) {
+        this.intents = List.copyOf(intents);
+        this.words = Map.copyOf(words);
+        this.prefixes = Map.copyOf(prefixes);
+        TreeSet<Integer> lengths = new TreeSet<>();
+        prefixes.keySet().forEach(prefix -> lengths.add(prefix.length()));
+        this.prefixLengths = lengths.descendingSet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    String intent(int index) {
+        return intents.get(index);
+    }
+
+    // Exact words first, then the longest prefix; null for a word the rules do not know
+    Lexeme lookup(String word) {
+        Lexeme lexeme = words.get(word);
+        for (int length : prefixLengths) {
+            if (length <= word.length()) {
+                Lexeme prefixed = prefixes.get(word.substring(0, length));
+                if (prefixed != null) {
+                    return lexeme != null ? lexeme.merge(prefixed) : prefixed;
+                }
+            }
+        }
+        return lexeme;
+    }
+
+    static IntentRules load(InputStream in) throws IOException {
+        Map<String, Object> file = new Yaml().load(in);
+        if (file == null) {
+            throw new IOException("Intent rules file is empty");
+        }
+        List<String> intents = new ArrayList<>();
+        Map<String, Lexeme> words = new HashMap<>();
+        Map<String, Lexeme> prefixes = new HashMap<>();
+        Compiler compiler = new Compiler(words, prefixes);
+
+        section(file, "intents").forEach((intent, keywords) -> {
+            int index = intents.size();
+            intents.add(intent);
+            compiler.words(keywords, lexeme -> lexeme.intent = Math.min(lexeme.intent, index));
+        });
+        section(file, "numbers").forEach((word, value) ->
+                compiler.word(word, lexeme -> lexeme.number = number(value)));
+        section(file, "numbers-before-unit").forEach((word, value) ->
+                compiler.word(word, lexeme -> lexeme.numberBeforeUnit = number(value)));
+        compiler.words(file.get("seat-units"), lexeme -> lexeme.seatUnit = true);
+        compiler.words(file.get("hour-units"), lexeme -> lexeme.hourUnit = true);
+        compiler.words(file.get("hour-prefixes"), lexeme -> lexeme.hourPrefix = true);
+        compiler.words(file.get("afternoon-units"), lexeme -> lexeme.afternoonUnit = true);
+        compiler.words(file.get("morning-units"), lexeme -> lexeme.morningUnit = true);
+        compiler.words(file.get("afternoon"), lexeme -> lexeme.afternoon = true);
+        section(file, "days").forEach((word, value) -> compiler.word(word, lexeme -> lexeme.days = number(value)));
+        section(file, "months").forEach((word, value) -> compiler.word(word, lexeme -> lexeme.month = number(value)));
+        section(file, "weekdays").forEach((word, value) ->
+                compiler.word(word, lexeme -> lexeme.weekday = number(value)));
+        return new IntentRules(intents, words, prefixes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(Map<String, Object> file, String name) {
+        Object section = file.get(name);
+        if (section == null) {
+            return Map.of();
+        }
+        if (!(section instanceof Map)) {
+            throw new IllegalStateException("Intent rules: '" + name + "' must be a map");
+        }
+        return (Map<String, Object>) section;
+    }
+
+    private static int number(Object value) {
+        if (!(value instanceof Integer number) || number < 0) {
+            throw new IllegalStateException("Intent rules: '" + value + "' is not a number");
+        }
+        return number;
+    }
+
+    private record Compiler(Map<String, Lexeme> words, Map<String, Lexeme> prefixes) {
+
+        void words(Object list, Consumer<Lexeme> meaning) {
+            if (list == null) {
+                return;
+            }
+            if (!(list instanceof List<?> entries)) {
+                throw new IllegalStateException("Intent rules: '" + list + "' must be a list of words");
+            }
+            entries.forEach(entry -> word(String.valueOf(entry), meaning));
+        }
+
+        void word(String entry, Consumer<Lexeme> meaning) {
+            String word = entry.strip().toLowerCase(Locale.ROOT);
+            boolean prefix = word.endsWith("*");
+            if (prefix) {
+                word = word.substring(0, word.length() - 1);
+            }
+            if (word.isEmpty()) {
+                throw new IllegalStateException("Intent rules: empty word");
+            }
+            meaning.accept((prefix ? prefixes : words).computeIfAbsent(word, key -> new Lexeme()));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.moviebooking.nlp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits an utterance into words, numbers and clock times in one pass.
+ * Words are lowercased and end where the script changes, so "duneके" is
+ * two words; vowel signs and other combining marks stay in their word.
+ * Digits may be Latin or Devanagari.
+ */
+final class Lexer {
+
+    enum Kind { WORD, NUMBER, TIME }
+
+    // A number's value, or hour and minute of a time; text only for words
+    record Token(Kind kind, String text, int value, int minute) { }
+
+    private static final int MAX_DIGITS = 6;
+
+    private Lexer() {}
+
+    static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>(16);
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.digit(c, 10) >= 0) {
+                int start = i;
+                int value = 0;
+                while (i < length && Character.digit(text.charAt(i), 10) >= 0) {
+                    if (i - start < MAX_DIGITS) {
+                        value = value * 10 + Character.digit(text.charAt(i), 10);
+                    }
+                    i++;
+                }
+                // 7:30 and 7.30, exactly two digits of minutes
+                if (i < length && (text.charAt(i) == ':' || text.charAt(i) == '.') && twoDigits(text, i + 1)) {
+                    int minute = Character.digit(text.charAt(i + 1), 10) * 10 + Character.digit(text.charAt(i + 2), 10);
+                    tokens.add(new Token(Kind.TIME, null, value, minute));
+                    i += 3;
+                } else {
+                    tokens.add(new Token(Kind.NUMBER, null, value, 0));
+                }
+            } else if (isWordChar(c)) {
+                int start = i;
+                boolean devanagari = isDevanagari(c);
+                i++;
+                while (i < length) {
+                    char next = text.charAt(i);
+                    if (isMark(next) || (Character.isLetter(next) && isDevanagari(next) == devanagari)) {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                tokens.add(new Token(Kind.WORD, text.substring(start, i).toLowerCase(), 0, 0));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    // The two minute digits, not followed by a third
+    private static boolean twoDigits(String text, int from) {
+        return from + 1 < text.length()
+                && Character.digit(text.charAt(from), 10) >= 0
+                && Character.digit(text.charAt(from + 1), 10) >= 0
+                && (from + 2 == text.length() || Character.digit(text.charAt(from + 2), 10) < 0);
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetter(c) || isMark(c);
+    }
+
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private static boolean isDevanagari(char c) {
+        return c >= 'ऀ' && c <= 'ॿ';
+    }
+}
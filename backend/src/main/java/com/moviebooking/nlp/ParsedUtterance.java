@@ -0,0 +1,13 @@
+package com.moviebooking.nlp;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * What the intent engine read in an utterance. Slots that were not said
+ * are null, the assistant fills in its own defaults.
+ */
+public record ParsedUtterance(String intent, Integer seats, LocalDate date, LocalTime time) {
+
+    public static final String UNKNOWN = "unknown";
+}
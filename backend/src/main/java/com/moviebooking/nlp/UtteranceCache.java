@@ -0,0 +1,134 @@
+package com.moviebooking.nlp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.moviebooking.cache.CatalogCache;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.search.MovieMatcher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Parses of recent utterances and the schedules they asked about. Voice
+ * queries repeat a lot, so an utterance is keyed by its normalized text,
+ * the day relative dates were resolved against and the version of the
+ * titles it was matched with; a catalog change makes every parse miss.
+ *
+ * Schedules hold which showtimes a movie has, never how many seats are
+ * left, and a movie's entry goes when one of its showtimes is saved.
+ * Hits and misses are reported as {@code catalog.cache.gets} tagged
+ * {@code nlp-utterances} and {@code nlp-showtimes}.
+ */
+@Component
+public class UtteranceCache {
+
+    public record Parse(ParsedUtterance utterance, MovieMatcher.Mention movie) { }
+
+    // A showtime as listed to the caller, seats are read live
+    public record Listing(Long showtimeId, LocalDateTime startTime, String theater) {
+
+        public static Listing of(Showtime showtime) {
+            return new Listing(showtime.getId(), showtime.getStartTime(), showtime.getTheater());
+        }
+    }
+
+    private final MovieMatcher movieMatcher;
+    private final IntentEngine intentEngine;
+    private final int maxLength;
+
+    private final CatalogCache<String, Parse> parses;
+    private final CatalogCache<Long, List<Listing>> schedules;
+    private volatile long matcherVersion;
+
+    public UtteranceCache(MovieMatcher movieMatcher, IntentEngine intentEngine, MeterRegistry meterRegistry,
+                          @Value("${nlp.cache.max-entries:10000}") int maxEntries,
+                          @Value("${nlp.cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${nlp.cache.max-utterance-length:160}") int maxLength) {
+        this.movieMatcher = movieMatcher;
+        this.intentEngine = intentEngine;
+        this.maxLength = maxLength;
+        this.parses = new CatalogCache<>("nlp-utterances", maxEntries, ttlSeconds, meterRegistry);
+        this.schedules = new CatalogCache<>("nlp-showtimes", maxEntries, ttlSeconds, meterRegistry);
+    }
+
+    // Longer utterances are parsed every time, so an entry never outgrows the budget
+    public Parse parse(String text, LocalDate today) {
+        String normalized = normalize(text);
+        if (normalized.length() > maxLength) {
+            return parseNormalized(normalized, today);
+        }
+        long version = movieMatcher.version();
+        if (version != matcherVersion) {
+            // parses matched against the old titles can no longer be hit, free their room
+            matcherVersion = version;
+            parses.invalidateAll();
+        }
+        return parses.get(version + "|" + today + "|" + normalized, key -> parseNormalized(normalized, today));
+    }
+
+    public List<Listing> showtimes(Long movieId, Function<Long, List<Listing>> loader) {
+        return schedules.get(movieId, loader);
+    }
+
+    // Dropped once the change has committed, so a reload cannot pick up the old schedule
+    public void showtimesChanged(Long movieId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedules.invalidate(movieId);
+                }
+            });
+        } else {
+            schedules.invalidate(movieId);
+        }
+    }
+
+    private Parse parseNormalized(String normalized, LocalDate today) {
+        return new Parse(intentEngine.parse(normalized, today), movieMatcher.match(normalized).orElse(null));
+    }
+
+    /**
+     * Lowercased, with every run of spaces and punctuation made one space.
+     * A lone ':' or '.' between digits is kept, as it makes a clock time.
+     * Utterances with the same normalized text parse the same.
+     */
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) || isMark(c)) {
+                normalized.append(Character.toLowerCase(c));
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i)) && !isMark(text.charAt(i))) {
+                i++;
+            }
+            boolean clock = i - start == 1 && (c == ':' || c == '.') && start > 0 && i < length
+                    && Character.isDigit(text.charAt(start - 1)) && Character.isDigit(text.charAt(i));
+            if (clock) {
+                normalized.append(c);
+            } else if (normalized.length() > 0 && i < length) {
+                normalized.append(' ');
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+}
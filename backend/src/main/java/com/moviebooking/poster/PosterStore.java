@@ -0,0 +1,184 @@
+package com.moviebooking.poster;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.moviebooking.cache.RenderedCatalog;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Poster files by name and by content-hashed name. A hashed name like
+ * {@code dune.3f2a9c1b7e4d0a65.png} never changes meaning, so it can be
+ * cached forever; a new poster under the old name gets a new hash.
+ *
+ * Posters bundled in the jar are copied out once to the cache directory,
+ * so every poster is a plain file that can be sent without copying it
+ * through the JVM. The posters directory is rescanned for new and changed
+ * files.
+ */
+@Component
+public class PosterStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PosterStore.class);
+    private static final String BUNDLED = "classpath*:static/posters/*";
+
+    private final Path directory;
+    private final Path cacheDirectory;
+    private final RenderedCatalog renderedCatalog;
+
+    private Map<String, Poster> bundled = Map.of();
+    private volatile Map<String, Poster> byName = Map.of();
+    private volatile Map<String, Poster> byFingerprint = Map.of();
+    private final Map<Path, Poster> scanned = new HashMap<>();
+
+    public record Poster(String name, String fingerprinted, Path path, long length, long lastModified, String etag,
+                         MediaType mediaType) {
+
+        public String hash() {
+            return etag.substring(1, etag.length() - 1);
+        }
+    }
+
+    public PosterStore(RenderedCatalog renderedCatalog,
+                       @Value("${posters.dir:./posters}") String directory,
+                       @Value("${posters.cache-dir:./data/posters}") String cacheDirectory) {
+        this.renderedCatalog = renderedCatalog;
+        this.directory = Paths.get(directory);
+        this.cacheDirectory = Paths.get(cacheDirectory);
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        Files.createDirectories(cacheDirectory);
+        Map<String, Poster> extracted = new HashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(BUNDLED)) {
+            if (resource.isReadable() && resource.getFilename() != null) {
+                extracted.put(resource.getFilename(), extract(resource));
+            }
+        }
+        bundled = Map.copyOf(extracted);
+        rescan();
+    }
+
+    // Only files whose size or modification time changed are hashed again
+    @Scheduled(fixedDelayString = "${posters.rescan-ms:60000}", initialDelayString = "${posters.rescan-ms:60000}")
+    public synchronized void rescan() throws IOException {
+        Map<String, Poster> names = new HashMap<>(bundled);
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(Files::isRegularFile).toList()) {
+                    // uploaded posters win over bundled ones of the same name
+                    names.put(file.getFileName().toString(), fingerprint(file));
+                }
+            }
+        }
+
+        Map<String, Poster> fingerprints = new HashMap<>();
+        names.values().forEach(poster -> fingerprints.put(poster.fingerprinted(), poster));
+        boolean changed = !fingerprints.keySet().equals(byFingerprint.keySet());
+        byName = Map.copyOf(names);
+        byFingerprint = Map.copyOf(fingerprints);
+        if (changed) {
+            log.info("Serving {} posters", names.size());
+            // rendered catalog pages carry the hashed names
+            renderedCatalog.invalidate();
+        }
+    }
+
+    /**
+     * Public name for a movie's poster: the hashed name when the poster is
+     * known, otherwise the stored value unchanged.
+     */
+    public String publicName(String posterUrl) {
+        if (posterUrl == null || posterUrl.startsWith("http")) {
+            return posterUrl;
+        }
+        String name = posterUrl.startsWith("/posters/") ? posterUrl.substring("/posters/".length()) : posterUrl;
+        Poster poster = byName.get(name.startsWith("/") ? name.substring(1) : name);
+        return poster != null ? poster.fingerprinted() : posterUrl;
+    }
+
+    // Hashed names first, plain names still resolve for clients holding old URLs
+    public Optional<Poster> find(String name) {
+        Poster poster = byFingerprint.get(name);
+        return Optional.ofNullable(poster != null ? poster : byName.get(name));
+    }
+
+    public Collection<Poster> all() {
+        return byName.values();
+    }
+
+    public boolean isFingerprinted(String name) {
+        return byFingerprint.containsKey(name);
+    }
+
+    private Poster extract(Resource resource) throws IOException {
+        byte[] bytes;
+        try (InputStream in = resource.getInputStream()) {
+            bytes = in.readAllBytes();
+        }
+        String hash = hash(bytes);
+        Path target = cacheDirectory.resolve(fingerprinted(resource.getFilename(), hash));
+        if (!Files.exists(target)) {
+            Path temporary = cacheDirectory.resolve(target.getFileName() + ".tmp");
+            Files.write(temporary, bytes);
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return poster(resource.getFilename(), hash, target);
+    }
+
+    private Poster fingerprint(Path file) throws IOException {
+        Poster known = scanned.get(file);
+        if (known != null && known.length() == Files.size(file)
+                && known.lastModified() == Files.getLastModifiedTime(file).toMillis()) {
+            return known;
+        }
+        Poster poster = poster(file.getFileName().toString(), hash(Files.readAllBytes(file)), file);
+        scanned.put(file, poster);
+        return poster;
+    }
+
+    private static Poster poster(String name, String hash, Path path) throws IOException {
+        return new Poster(name, fingerprinted(name, hash), path, Files.size(path),
+                Files.getLastModifiedTime(path).toMillis(), "\"" + hash + "\"",
+                MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM));
+    }
+
+    // dune.png -> dune.<hash>.png
+    static String fingerprinted(String name, String hash) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name + "." + hash : name.substring(0, dot) + "." + hash + name.substring(dot);
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.moviebooking.poster;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a poster as its content-hashed name. Created through Spring's
+ * handler instantiator; an object mapper outside the application writes
+ * the stored name.
+ */
+public class PosterUrlSerializer extends StdSerializer<String> {
+
+    @Autowired(required = false)
+    private PosterStore posterStore;
+
+    public PosterUrlSerializer() {
+        super(String.class);
+    }
+
+    @Override
+    public void serialize(String posterUrl, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeString(posterStore != null ? posterStore.publicName(posterUrl) : posterUrl);
+    }
+}
@@ -0,0 +1,261 @@
+package com.moviebooking.poster;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Smaller copies of every poster: each configured width as PNG and JPEG,
+ * plus a full width JPEG. They are rendered on a small bounded pool and
+ * kept on disk next to the extracted posters, named after the poster's
+ * content hash, so a variant is never stale and survives restarts.
+ *
+ * A poster whose variants are not ready yet is served as the original
+ * and queued; a full queue drops the work until the next request.
+ */
+@Component
+public class PosterVariants {
+
+    private static final Logger log = LoggerFactory.getLogger(PosterVariants.class);
+
+    public enum Format {
+        PNG("png", MediaType.IMAGE_PNG), JPEG("jpg", MediaType.IMAGE_JPEG);
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+    }
+
+    public record Variant(Path path, long length, String etag, MediaType mediaType) { }
+
+    private final PosterStore posterStore;
+    private final Path directory;
+    private final int[] widths;
+    private final float jpegQuality;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Boolean> queued = new ConcurrentHashMap<>();
+    private final Timer renderTimer;
+
+    public PosterVariants(PosterStore posterStore, MeterRegistry meterRegistry,
+                          @Value("${posters.cache-dir:./data/posters}") String cacheDirectory,
+                          @Value("${posters.variants.widths:320,480,768}") int[] widths,
+                          @Value("${posters.variants.jpeg-quality:0.8}") float jpegQuality,
+                          @Value("${posters.variants.threads:2}") int threads,
+                          @Value("${posters.variants.queue:100}") int queueSize) {
+        this.posterStore = posterStore;
+        this.directory = Paths.get(cacheDirectory, "variants");
+        this.widths = Arrays.stream(widths).sorted().toArray();
+        this.jpegQuality = jpegQuality;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), task -> {
+                    Thread thread = new Thread(task, "poster-variants-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        this.renderTimer = Timer.builder("posters.variants.render")
+                .description("Time to render every variant of one poster")
+                .register(meterRegistry);
+        meterRegistry.gauge("posters.variants.queue", executor.getQueue(), Queue::size);
+    }
+
+    // Everything found on disk at startup, posters saved later are queued by MovieService
+    @EventListener(ApplicationReadyEvent.class)
+    public void generateAll() {
+        posterStore.all().forEach(this::generate);
+    }
+
+    // Queues a poster by its stored or public name, unknown names are ignored
+    public void generate(String posterUrl) {
+        if (posterUrl != null) {
+            posterStore.find(posterStore.publicName(posterUrl)).ifPresent(this::generate);
+        }
+    }
+
+    public void generate(PosterStore.Poster poster) {
+        if (isComplete(poster) || queued.putIfAbsent(poster.fingerprinted(), Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(poster);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Rendering variants of poster {} failed", poster.name(), e);
+                } finally {
+                    queued.remove(poster.fingerprinted());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(poster.fingerprinted());
+        }
+    }
+
+    /**
+     * Smallest variant at least {@code width} wide in the format; the full
+     * size JPEG without a width or beyond the widest variant. Nothing while
+     * the variants are still being rendered, or when the original is the
+     * answer: full size PNG.
+     */
+    public Optional<Variant> find(PosterStore.Poster poster, Integer width, Format format) {
+        int chosen = 0;
+        if (width != null) {
+            for (int candidate : widths) {
+                if (candidate >= width) {
+                    chosen = candidate;
+                    break;
+                }
+            }
+        }
+        if (chosen == 0 && format == Format.PNG) {
+            return Optional.empty();
+        }
+        Path path = path(poster, chosen, format);
+        if (!Files.exists(path)) {
+            generate(poster);
+            return Optional.empty();
+        }
+        try {
+            String etag = "\"" + poster.hash() + "-" + label(chosen) + "-" + format.extension + "\"";
+            return Optional.of(new Variant(path, Files.size(path), etag, format.mediaType()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    void render(PosterStore.Poster poster) throws IOException {
+        long started = System.nanoTime();
+        BufferedImage original = ImageIO.read(poster.path().toFile());
+        if (original == null) {
+            log.warn("Poster {} is not an image ImageIO can read", poster.name());
+            return;
+        }
+        Files.createDirectories(directory);
+        for (int width : widths) {
+            // never scaled up, a narrow original simply stops at its own width
+            BufferedImage scaled = width < original.getWidth() ? scale(original, width) : original;
+            write(scaled, path(poster, width, Format.PNG), Format.PNG);
+            write(scaled, path(poster, width, Format.JPEG), Format.JPEG);
+        }
+        write(original, path(poster, 0, Format.JPEG), Format.JPEG);
+        renderTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    // The full size JPEG is written last, once it exists the whole set does
+    boolean isComplete(PosterStore.Poster poster) {
+        return Files.exists(path(poster, 0, Format.JPEG));
+    }
+
+    private Path path(PosterStore.Poster poster, int width, Format format) {
+        return directory.resolve(poster.hash() + "-" + label(width) + "." + format.extension);
+    }
+
+    private static String label(int width) {
+        return width == 0 ? "full" : "w" + width;
+    }
+
+    // Halves the size in steps before the last bilinear pass, a single pass from 1024 px looks grainy
+    private static BufferedImage scale(BufferedImage source, int width) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        do {
+            int nextWidth = Math.max(width, currentWidth / 2);
+            int nextHeight = Math.max(1, Math.round((float) source.getHeight() * nextWidth / source.getWidth()));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight,
+                    source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            graphics.dispose();
+            current = next;
+            currentWidth = nextWidth;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    private void write(BufferedImage image, Path target, Format format) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary);
+             ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            if (format == Format.PNG) {
+                ImageIO.write(image, "png", stream);
+            } else {
+                ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                writer.setOutput(stream);
+                writer.write(null, new IIOImage(opaque(image), null, null), param);
+                writer.dispose();
+            }
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // JPEG has no alpha, transparent areas become white
+    private static BufferedImage opaque(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return rgb;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,9 +1,13 @@
 package com.moviebooking.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.moviebooking.entity.Booking;
@@ -11,7 +15,23 @@ import com.moviebooking.entity.User;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByUser(User user);
     Optional<Booking> findByIdAndUser(Long id, User user);
-    List<Booking> findByGuestEmail(String guestEmail);
+    List<Booking> findByStatus(Booking.BookingStatus status);
+    
+    // Read paths fetch the showtime, its movie and the payment in the same statement
+    @Query("SELECT b FROM Booking b JOIN FETCH b.showtime s JOIN FETCH s.movie LEFT JOIN FETCH b.payment WHERE b.id = :id")
+    Optional<Booking> findDetailedById(@Param("id") Long id);
+    
+    @Query("SELECT b FROM Booking b JOIN FETCH b.showtime s JOIN FETCH s.movie LEFT JOIN FETCH b.payment WHERE b.user = :user ORDER BY b.createdAt DESC")
+    List<Booking> findDetailedByUser(@Param("user") User user);
+    
+    @Query("SELECT b FROM Booking b JOIN FETCH b.showtime s JOIN FETCH s.movie LEFT JOIN FETCH b.payment WHERE b.guestEmail = :email ORDER BY b.createdAt DESC")
+    List<Booking> findDetailedByGuestEmail(@Param("email") String email);
+    
+    @Query("SELECT b.id FROM Booking b WHERE b.id IN :ids AND b.status = :status")
+    List<Long> findIdsByStatus(@Param("ids") Collection<Long> ids, @Param("status") Booking.BookingStatus status);
+    
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") Booking.BookingStatus status);
 }
@@ -1,13 +1,25 @@
 package com.moviebooking.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.moviebooking.entity.Movie;
 
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Long> {
-    List<Movie> findByTitleContainingIgnoreCase(String title);
+    // Showtimes fetched in the same query, for movies that outlive their session
+    @Query("SELECT DISTINCT m FROM Movie m LEFT JOIN FETCH m.showtimes")
+    List<Movie> findAllWithShowtimes();
+    
+    @EntityGraph(attributePaths = "showtimes")
+    Optional<Movie> findWithShowtimesById(Long id);
+    
+    @EntityGraph(attributePaths = "showtimes")
+    List<Movie> findDistinctByIdIn(Collection<Long> ids);
 }
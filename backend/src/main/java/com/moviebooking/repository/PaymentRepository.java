@@ -1,8 +1,12 @@
 package com.moviebooking.repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.moviebooking.entity.Payment;
@@ -10,4 +14,10 @@ import com.moviebooking.entity.Payment;
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOtpToken(String otpToken);
+    
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :status WHERE p.booking.id IN :bookingIds AND p.status IN :from")
+    int updateStatusForBookings(@Param("bookingIds") Collection<Long> bookingIds,
+                                @Param("from") Collection<Payment.PaymentStatus> from,
+                                @Param("status") Payment.PaymentStatus status);
 }
@@ -2,8 +2,10 @@ package com.moviebooking.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,10 +16,36 @@ import com.moviebooking.entity.Showtime;
 public interface ShowtimeRepository extends JpaRepository<Showtime, Long> {
     List<Showtime> findByMovieId(Long movieId);
     
-    @Query("SELECT s FROM Showtime s WHERE s.movie.id = :movieId AND s.startTime >= :startDate AND s.startTime < :endDate")
+    @Query("SELECT s FROM Showtime s JOIN FETCH s.movie WHERE s.id = :id")
+    Optional<Showtime> findWithMovieById(@Param("id") Long id);
+    
+    // Fallbacks for the showtime index, served by the (movie_id, start_time) and (city, start_time) indexes
+    @Query("SELECT s FROM Showtime s JOIN FETCH s.movie WHERE s.movie.id = :movieId AND s.startTime >= :startDate AND s.startTime < :endDate ORDER BY s.startTime")
     List<Showtime> findByMovieIdAndDateRange(@Param("movieId") Long movieId, 
                                            @Param("startDate") LocalDateTime startDate, 
                                            @Param("endDate") LocalDateTime endDate);
     
-    List<Showtime> findByCityAndStartTimeAfter(String city, LocalDateTime startTime);
+    @Query("SELECT s FROM Showtime s JOIN FETCH s.movie WHERE s.city = :city AND s.startTime >= :startDate AND s.startTime < :endDate ORDER BY s.startTime")
+    List<Showtime> findByCityAndDateRange(@Param("city") String city,
+                                        @Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate);
+    
+    // Movie id and seats sold across its showtimes
+    @Query("SELECT s.movie.id, SUM(s.seatsTotal - s.seatsAvailable) FROM Showtime s GROUP BY s.movie.id")
+    List<Object[]> findSeatsSoldByMovie();
+    
+    // Conditional updates, the seat count can never drop below zero or exceed the total.
+    // They leave the persistence context alone, other writes of a shard batch share it
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Showtime s SET s.seatsAvailable = s.seatsAvailable - :count WHERE s.id = :id AND s.seatsAvailable >= :count")
+    int decrementSeatsAvailable(@Param("id") Long id, @Param("count") int count);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Showtime s SET s.seatsAvailable = s.seatsAvailable + :count WHERE s.id = :id AND s.seatsAvailable + :count <= s.seatsTotal")
+    int incrementSeatsAvailable(@Param("id") Long id, @Param("count") int count);
+    
+    // Only a newer inventory version may overwrite the stored blob
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Showtime s SET s.seatInventory = :inventory, s.inventoryVersion = :version WHERE s.id = :id AND s.inventoryVersion < :version")
+    int updateSeatInventory(@Param("id") Long id, @Param("inventory") byte[] inventory, @Param("version") long version);
 }
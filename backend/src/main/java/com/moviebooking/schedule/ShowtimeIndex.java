@@ -0,0 +1,279 @@
+package com.moviebooking.schedule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.moviebooking.cache.RenderedCatalog;
+import com.moviebooking.dto.MovieSummary;
+import com.moviebooking.dto.ShowtimeSummary;
+import com.moviebooking.entity.Movie;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.repository.MovieRepository;
+import com.moviebooking.repository.ShowtimeRepository;
+
+/**
+ * Showtimes bucketed by city, then day, then movie, each bucket holding
+ * its start times in a sorted array. Listings for a city and day, and the
+ * next showtimes of a movie, are answered from it without a query.
+ *
+ * Buckets are immutable and replaced whole when a showtime is saved, so
+ * readers need no lock. Seat counts live in a counter per showtime that
+ * the booking and hold paths adjust once their transaction commits; the
+ * rendered catalog responses of the showtime's movie follow on the
+ * catalog's next tick.
+ */
+@Component
+public class ShowtimeIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ShowtimeIndex.class);
+
+    private final Map<String, NavigableMap<LocalDate, DayBucket>> cities = new ConcurrentHashMap<>();
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final Map<Long, MovieSummary> movies = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RenderedCatalog renderedCatalog;
+
+    // One showtime as indexed, the seat count is the only part that changes in place
+    record Slot(Long id, Long movieId, String city, String theater, LocalDateTime startTime, int seatsTotal,
+                AtomicInteger seatsAvailable) {
+
+        long startKey() {
+            return startTime.toEpochSecond(ZoneOffset.UTC);
+        }
+    }
+
+    // A day of one city: per movie, start times ascending with the slots in the same order
+    record DayBucket(Map<Long, long[]> starts, Map<Long, Slot[]> slots) {
+
+        static final DayBucket EMPTY = new DayBucket(Map.of(), Map.of());
+
+        DayBucket plus(Slot added) {
+            Map<Long, Slot[]> copy = new HashMap<>(slots);
+            Slot[] current = copy.getOrDefault(added.movieId(), new Slot[0]);
+            Slot[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = added;
+            Arrays.sort(grown, Comparator.comparingLong(Slot::startKey));
+            copy.put(added.movieId(), grown);
+            return of(copy);
+        }
+
+        DayBucket minus(Long showtimeId) {
+            Map<Long, Slot[]> copy = new HashMap<>(slots);
+            copy.replaceAll((movieId, movieSlots) -> Arrays.stream(movieSlots)
+                    .filter(slot -> !slot.id().equals(showtimeId)).toArray(Slot[]::new));
+            copy.values().removeIf(movieSlots -> movieSlots.length == 0);
+            return copy.isEmpty() ? null : of(copy);
+        }
+
+        private static DayBucket of(Map<Long, Slot[]> slots) {
+            Map<Long, long[]> starts = new HashMap<>();
+            slots.forEach((movieId, movieSlots) -> starts.put(movieId,
+                    Arrays.stream(movieSlots).mapToLong(Slot::startKey).toArray()));
+            return new DayBucket(Map.copyOf(starts), Map.copyOf(slots));
+        }
+    }
+
+    // Loaded once the seed data is in, later saves arrive through ShowtimeIndexListener
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.nanoTime();
+        List<Slot> loaded = transactionTemplate.execute(status -> {
+            movieRepository.findAll().forEach(this::movieSaved);
+            return showtimeRepository.findAll().stream().map(ShowtimeIndex::slot).toList();
+        });
+        synchronized (this) {
+            loaded.forEach(this::put);
+            ready = true;
+        }
+        log.info("Showtime index built with {} showtimes in {} cities in {} ms", slots.size(), cities.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Showtimes in a city on a day, starting within {@code from..to}, of one
+     * movie or all of them, earliest first.
+     */
+    public List<ShowtimeSummary> whatsOn(String city, LocalDate day, LocalTime from, LocalTime to, Long movieId) {
+        NavigableMap<LocalDate, DayBucket> days = cities.get(key(city));
+        DayBucket bucket = days == null ? null : days.get(day);
+        if (bucket == null) {
+            return List.of();
+        }
+        long lower = day.atTime(from).toEpochSecond(ZoneOffset.UTC);
+        long upper = day.atTime(to).toEpochSecond(ZoneOffset.UTC);
+        List<Slot> found = new ArrayList<>();
+        if (movieId != null) {
+            collect(bucket, movieId, lower, upper, found);
+        } else {
+            for (Long id : bucket.starts().keySet()) {
+                collect(bucket, id, lower, upper, found);
+            }
+        }
+        found.sort(Comparator.comparingLong(Slot::startKey).thenComparing(Slot::id));
+        return found.stream().map(this::summary).toList();
+    }
+
+    /**
+     * The next {@code limit} showtimes of a movie from {@code after} on, in
+     * one city or across all of them. Walks days forward until enough are
+     * found.
+     */
+    public List<ShowtimeSummary> next(Long movieId, String city, LocalDateTime after, int limit) {
+        List<NavigableMap<LocalDate, DayBucket>> searched = city != null
+                ? List.of(cities.getOrDefault(key(city), new ConcurrentSkipListMap<>()))
+                : List.copyOf(cities.values());
+        long lower = after.toEpochSecond(ZoneOffset.UTC);
+        List<Slot> found = new ArrayList<>();
+        for (NavigableMap<LocalDate, DayBucket> days : searched) {
+            int fromCity = 0;
+            for (DayBucket bucket : days.tailMap(after.toLocalDate(), true).values()) {
+                int before = found.size();
+                collect(bucket, movieId, lower, Long.MAX_VALUE, found);
+                fromCity += found.size() - before;
+                if (fromCity >= limit) break;
+            }
+        }
+        found.sort(Comparator.comparingLong(Slot::startKey).thenComparing(Slot::id));
+        return found.stream().limit(limit).map(this::summary).toList();
+    }
+
+    // Seats taken (negative) or handed back, applied once the caller's transaction commits
+    public void seatsChanged(Long showtimeId, int delta) {
+        Runnable apply = () -> {
+            Slot slot = slots.get(showtimeId);
+            if (slot != null) {
+                slot.seatsAvailable().addAndGet(delta);
+                renderedCatalog.seatsChanged(slot.movieId());
+            }
+        };
+        afterCommit(apply);
+    }
+
+    void showtimeSaved(Showtime showtime) {
+        Slot slot = slot(showtime);
+        afterCommit(() -> {
+            synchronized (this) {
+                put(slot);
+            }
+            renderedCatalog.movieChanged(slot.movieId());
+        });
+    }
+
+    void showtimeRemoved(Long showtimeId) {
+        afterCommit(() -> {
+            Slot slot;
+            synchronized (this) {
+                slot = remove(showtimeId);
+            }
+            if (slot != null) {
+                renderedCatalog.movieChanged(slot.movieId());
+            }
+        });
+    }
+
+    void movieSaved(Movie movie) {
+        movies.put(movie.getId(), new MovieSummary(movie.getId(), movie.getTitle(), movie.getDuration(),
+                movie.getGenre(), movie.getPosterUrl()));
+    }
+
+    // Caller holds the index lock; a saved showtime may have moved to another day or city
+    private void put(Slot slot) {
+        remove(slot.id());
+        slots.put(slot.id(), slot);
+        cities.computeIfAbsent(key(slot.city()), city -> new ConcurrentSkipListMap<>())
+                .compute(slot.startTime().toLocalDate(),
+                        (day, bucket) -> (bucket == null ? DayBucket.EMPTY : bucket).plus(slot));
+    }
+
+    private Slot remove(Long showtimeId) {
+        Slot slot = slots.remove(showtimeId);
+        if (slot == null) return null;
+        NavigableMap<LocalDate, DayBucket> days = cities.get(key(slot.city()));
+        days.computeIfPresent(slot.startTime().toLocalDate(), (day, bucket) -> bucket.minus(showtimeId));
+        return slot;
+    }
+
+    private static void collect(DayBucket bucket, Long movieId, long lower, long upper, List<Slot> found) {
+        long[] starts = bucket.starts().get(movieId);
+        if (starts == null) return;
+        Slot[] movieSlots = bucket.slots().get(movieId);
+        int i = Arrays.binarySearch(starts, lower);
+        // first start at or after the lower bound
+        if (i < 0) {
+            i = -i - 1;
+        } else {
+            while (i > 0 && starts[i - 1] == lower) i--;
+        }
+        for (; i < starts.length && starts[i] <= upper; i++) {
+            found.add(movieSlots[i]);
+        }
+    }
+
+    private ShowtimeSummary summary(Slot slot) {
+        ShowtimeSummary summary = new ShowtimeSummary(slot.id(), slot.startTime(), slot.theater(), slot.city(),
+                slot.seatsAvailable().get(), slot.seatsTotal());
+        summary.setMovie(movies.get(slot.movieId()));
+        return summary;
+    }
+
+    private static Slot slot(Showtime showtime) {
+        return new Slot(showtime.getId(), showtime.getMovie().getId(), showtime.getCity(),
+                showtime.getTheater(), showtime.getStartTime(), showtime.getSeatsTotal(),
+                new AtomicInteger(showtime.getSeatsAvailable()));
+    }
+
+    private static String key(String city) {
+        return city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.moviebooking.schedule;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.moviebooking.entity.Movie;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.nlp.UtteranceCache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Keeps the {@link ShowtimeIndex} in step with saved movies and showtimes,
+ * and drops the voice assistant's cached schedule of a changed showtime's movie.
+ * Bulk JPQL updates skip entity callbacks, so seat counts are reported to
+ * the index by the code that runs them.
+ */
+@Component
+public class ShowtimeIndexListener {
+
+    // absent where only the persistence layer is started
+    @Autowired
+    private ObjectProvider<ShowtimeIndex> showtimeIndex;
+
+    @Autowired
+    private ObjectProvider<UtteranceCache> utteranceCache;
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        scheduleChanged(entity);
+        ShowtimeIndex index = showtimeIndex.getIfAvailable();
+        if (index == null) return;
+        if (entity instanceof Showtime showtime) {
+            index.showtimeSaved(showtime);
+        } else if (entity instanceof Movie movie) {
+            index.movieSaved(movie);
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        scheduleChanged(entity);
+        ShowtimeIndex index = showtimeIndex.getIfAvailable();
+        if (index != null && entity instanceof Showtime showtime) {
+            index.showtimeRemoved(showtime.getId());
+        }
+    }
+
+    private void scheduleChanged(Object entity) {
+        UtteranceCache cache = utteranceCache.getIfAvailable();
+        if (cache != null && entity instanceof Showtime showtime && showtime.getMovie() != null) {
+            cache.showtimesChanged(showtime.getMovie().getId());
+        }
+    }
+}
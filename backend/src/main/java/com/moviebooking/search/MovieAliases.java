@@ -0,0 +1,25 @@
+package com.moviebooking.search;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Other spellings of catalog titles, Devanagari transliterations for now.
+ * Shared by the voice assistant, which matches them in what was said, and
+ * the suggestions, which complete them as they are typed.
+ */
+public final class MovieAliases {
+
+    private static final Map<String, List<String>> BY_TITLE = Map.of(
+            "Avatar: The Way of Water", List.of("अवतार"),
+            "Inception", List.of("इनसेप्शन"),
+            "Dune", List.of("दूने", "ड्यून"),
+            "Spider-Man: No Way Home", List.of("स्पाइडर-मैन", "स्पाइडरमैन"),
+            "Interstellar", List.of("इंटरस्टेलर"));
+
+    private MovieAliases() {}
+
+    public static List<String> of(String title) {
+        return BY_TITLE.getOrDefault(title, List.of());
+    }
+}
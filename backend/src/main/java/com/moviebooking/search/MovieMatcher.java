@@ -0,0 +1,117 @@
+package com.moviebooking.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.moviebooking.entity.Movie;
+import com.moviebooking.repository.MovieRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Finds the movies named in a voice utterance. Titles and their
+ * {@link MovieAliases} are compiled into one {@link TitleAutomaton}, so
+ * an utterance is read once however large the catalog is.
+ *
+ * Like the suggestions, the automaton is rebuilt on a background thread
+ * when the catalog changes and swapped in with one write.
+ */
+@Component
+public class MovieMatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieMatcher.class);
+
+    // Offsets are in the normalized utterance
+    public record Mention(long movieId, String title, int start, int end) { }
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    private volatile TitleAutomaton automaton = TitleAutomaton.EMPTY;
+    private volatile long version;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "movie-matcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public List<Mention> mentions(String text) {
+        return automaton.find(MovieSearchIndex.normalize(text));
+    }
+
+    // The longest mention, so "dune part two" wins over "dune"; the first one on a tie
+    public Optional<Mention> match(String text) {
+        return mentions(text).stream()
+                .max(Comparator.comparingInt((Mention mention) -> mention.end() - mention.start())
+                        .thenComparingInt(mention -> -mention.start()));
+    }
+
+    public List<String> titles() {
+        return automaton.titles();
+    }
+
+    // Changes whenever the titles matched against change, for callers caching matches
+    public long version() {
+        return version;
+    }
+
+    // Requests arriving while a rebuild waits to start are folded into it
+    public void refresh() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            builder.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Movie matcher rebuild failed, keeping the previous one", e);
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        refresh();
+    }
+
+    void rebuild() {
+        long started = System.nanoTime();
+        List<Movie> movies = movieRepository.findAll();
+        rebuild(movies);
+        log.info("Movie matcher rebuilt for {} movies, {} nodes in {} ms", movies.size(), automaton.nodes(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    void rebuild(List<Movie> movies) {
+        List<TitleAutomaton.Entry> entries = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            List<String> names = new ArrayList<>();
+            names.add(MovieSearchIndex.normalize(movie.getTitle()));
+            for (String alias : MovieAliases.of(movie.getTitle())) {
+                names.add(MovieSearchIndex.normalize(alias));
+            }
+            entries.add(new TitleAutomaton.Entry(movie.getId(), movie.getTitle(), names));
+        }
+        automaton = TitleAutomaton.build(entries);
+        version++;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+}
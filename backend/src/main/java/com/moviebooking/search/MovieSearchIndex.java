@@ -0,0 +1,329 @@
+package com.moviebooking.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.moviebooking.entity.Movie;
+import com.moviebooking.repository.MovieRepository;
+
+/**
+ * In-memory trigram index over movie titles, genres and synopses. Every
+ * word is padded and cut into three-character grams; a query matches a
+ * movie when enough of its grams occur in one of the fields, so a typo
+ * only costs the few grams it touches. A query that appears inside a
+ * field also matches, as "vat" does in "Avatar", although the padding
+ * grams around its words miss. Matches are ranked title first, then
+ * genre, then synopsis.
+ *
+ * Movies are added and replaced one at a time as they are saved. A
+ * replaced movie leaves its old slot behind as dead until enough of them
+ * pile up to rebuild the postings.
+ */
+@Component
+public class MovieSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieSearchIndex.class);
+
+    // title, genre, synopsis
+    private static final int FIELDS = 3;
+    private static final int TITLE = 0;
+    private static final float[] FIELD_WEIGHTS = { 1.0f, 0.7f, 0.4f };
+
+    // share of the query's grams one field must contain to match
+    private static final float MIN_SIMILARITY = 0.5f;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<Long, Integer> slotsByMovie = new HashMap<>();
+
+    private Document[] documents = new Document[1024];
+    private int slots;
+    private int dead;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    // Runs after the seed data is in, saves from then on are indexed one by one
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.nanoTime();
+        rebuild(movieRepository.findAll());
+        log.info("Movie search index built with {} movies in {} ms", size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public void rebuild(List<Movie> movies) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Movie movie : movies) {
+                add(document(movie));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds the movie, or replaces what was indexed for it before
+    public void index(Movie movie) {
+        Document document = document(movie);
+        lock.writeLock().lock();
+        try {
+            kill(movie.getId());
+            add(document);
+            if (dead > 1024 && dead > slots / 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long movieId) {
+        lock.writeLock().lock();
+        try {
+            kill(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the best matching movies, best first. Each query gram's
+     * posting lists are walked once, counting hits per movie and field,
+     * and separately for the grams inside the query's words; a field
+     * holding all of those is checked for the query as a substring.
+     */
+    public List<Long> search(String query, int limit) {
+        long[] grams = grams(query).stream().mapToLong(Long::longValue).toArray();
+        if (grams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        Set<Long> inner = innerGrams(query);
+        // a field below this many hits cannot reach the minimum similarity
+        int needed = (int) Math.ceil(grams.length * MIN_SIMILARITY);
+        lock.readLock().lock();
+        try {
+            int[] hits = new int[slots * FIELDS];
+            int[] innerHits = inner.isEmpty() ? null : new int[slots * FIELDS];
+            boolean[] candidate = new boolean[slots];
+            IntList candidates = new IntList();
+            for (long gram : grams) {
+                boolean isInner = inner.contains(gram);
+                for (int field = 0; field < FIELDS; field++) {
+                    IntList posting = postings.get(key(field, gram));
+                    if (posting == null) continue;
+                    int[] values = posting.values;
+                    for (int i = 0; i < posting.size; i++) {
+                        int slot = values[i];
+                        int at = slot * FIELDS + field;
+                        boolean reached = ++hits[at] == needed;
+                        if (isInner && ++innerHits[at] == inner.size()) {
+                            reached = true;
+                        }
+                        if (reached && !candidate[slot]) {
+                            candidate[slot] = true;
+                            candidates.add(slot);
+                        }
+                    }
+                }
+            }
+
+            String normalized = normalize(query);
+            PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::score));
+            for (int i = 0; i < candidates.size; i++) {
+                int slot = candidates.values[i];
+                Document document = documents[slot];
+                if (document == null) continue;
+                float score = score(document, hits, slot, grams.length, normalized);
+                if (score <= 0) continue;
+                best.add(new Match(document.movieId, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<Long> ids = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                ids.add(best.poll().movieId());
+            }
+            Collections.reverse(ids);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsByMovie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Zero when no field is similar enough and none contains the query
+    private static float score(Document document, int[] hits, int slot, int queryGrams, String query) {
+        float score = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            float similarity = (float) hits[slot * FIELDS + field] / queryGrams;
+            if (document.texts[field].contains(query)) {
+                similarity = 1;
+            } else if (similarity < MIN_SIMILARITY) {
+                continue;
+            }
+            score = Math.max(score, similarity * FIELD_WEIGHTS[field]);
+        }
+        if (score == 0) {
+            return 0;
+        }
+        // a title spelled the way it was typed comes first, a shorter title breaks ties
+        if (document.texts[TITLE].contains(query)) {
+            score += 0.5f;
+        }
+        return score + 0.1f * hits[slot * FIELDS + TITLE] / Math.max(1, document.titleGrams);
+    }
+
+    // Caller holds the write lock
+    private void add(Document document) {
+        if (slots == documents.length) {
+            documents = Arrays.copyOf(documents, slots * 2);
+        }
+        int slot = slots++;
+        documents[slot] = document;
+        slotsByMovie.put(document.movieId, slot);
+        for (int field = 0; field < FIELDS; field++) {
+            for (long gram : document.grams[field]) {
+                postings.computeIfAbsent(key(field, gram), k -> new IntList()).add(slot);
+            }
+        }
+    }
+
+    // Caller holds the write lock, the slot's postings stay until the next compaction
+    private void kill(Long movieId) {
+        Integer slot = slotsByMovie.remove(movieId);
+        if (slot != null) {
+            documents[slot] = null;
+            dead++;
+        }
+    }
+
+    private void compact() {
+        List<Document> live = new ArrayList<>(slotsByMovie.size());
+        for (int slot = 0; slot < slots; slot++) {
+            if (documents[slot] != null) {
+                live.add(documents[slot]);
+            }
+        }
+        clear();
+        live.forEach(this::add);
+    }
+
+    private void clear() {
+        postings.clear();
+        slotsByMovie.clear();
+        documents = new Document[Math.max(1024, documents.length)];
+        slots = 0;
+        dead = 0;
+    }
+
+    private static Document document(Movie movie) {
+        Set<Long> title = grams(movie.getTitle());
+        String[] texts = { normalize(movie.getTitle()), normalize(movie.getGenre()), normalize(movie.getSynopsis()) };
+        return new Document(movie.getId(), texts, title.size(), new long[][] {
+                toArray(title), toArray(grams(movie.getGenre())), toArray(grams(movie.getSynopsis())) });
+    }
+
+    // Lower case letters and digits, anything else separates words. Vowel signs stay, Devanagari needs them
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) || isMark(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        return normalized.toString().strip();
+    }
+
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    // Each word padded with two spaces in front and one behind, so short words and word starts count
+    static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (String word : normalize(text).split(" ")) {
+            if (word.isEmpty()) continue;
+            addGrams("  " + word + " ", grams);
+        }
+        return grams;
+    }
+
+    // The grams within each word, all of them indexed for any field the word sits in
+    static Set<Long> innerGrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (String word : normalize(text).split(" ")) {
+            addGrams(word, grams);
+        }
+        return grams;
+    }
+
+    private static void addGrams(String text, Set<Long> grams) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    private static long key(int field, long gram) {
+        return ((long) field << 48) | gram;
+    }
+
+    private static long[] toArray(Set<Long> grams) {
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // normalized title, genre and synopsis, then the grams of each
+    private record Document(Long movieId, String[] texts, int titleGrams, long[][] grams) { }
+
+    private record Match(Long movieId, float score) { }
+
+    // Slots in insertion order, which keeps every posting list sorted
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
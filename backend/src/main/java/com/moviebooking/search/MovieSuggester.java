@@ -0,0 +1,133 @@
+package com.moviebooking.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.moviebooking.dto.MovieSuggestion;
+import com.moviebooking.entity.Movie;
+import com.moviebooking.repository.MovieRepository;
+import com.moviebooking.repository.ShowtimeRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Title suggestions for the search box. Every word of a title and of its
+ * {@link MovieAliases} starts a key, so "way" finds Avatar: The Way of
+ * Water and "अव" finds it too; matches are ranked by seats sold.
+ *
+ * The trie is rebuilt on a background thread when the catalog changes and
+ * periodically as popularity moves, then swapped in with one write.
+ * Lookups read whichever trie is current and never wait for a rebuild.
+ */
+@Component
+public class MovieSuggester {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieSuggester.class);
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Value("${catalog.suggest.max-results:10}")
+    private int maxResults;
+
+    private volatile SuggestTrie trie = SuggestTrie.EMPTY;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "movie-suggest");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public List<MovieSuggestion> suggest(String query, int limit) {
+        return trie.suggest(MovieSearchIndex.normalize(query), Math.min(limit, maxResults));
+    }
+
+    // Requests arriving while a rebuild waits to start are folded into it
+    public void refresh() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            builder.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Movie suggestions rebuild failed, keeping the previous one", e);
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        refresh();
+    }
+
+    // Seats sold drift as bookings come in
+    @Scheduled(fixedDelayString = "${catalog.suggest.refresh-ms:300000}",
+               initialDelayString = "${catalog.suggest.refresh-ms:300000}")
+    public void refreshPopularity() {
+        refresh();
+    }
+
+    void rebuild() {
+        long started = System.nanoTime();
+        Map<Long, Long> sold = new HashMap<>();
+        for (Object[] row : showtimeRepository.findSeatsSoldByMovie()) {
+            sold.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        List<Movie> movies = new ArrayList<>(movieRepository.findAll());
+        movies.sort(Comparator.<Movie>comparingLong(movie -> -sold.getOrDefault(movie.getId(), 0L))
+                .thenComparing(Movie::getTitle));
+
+        List<SuggestTrie.Entry> entries = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            List<String> keys = new ArrayList<>(keys(movie.getTitle()));
+            for (String alias : MovieAliases.of(movie.getTitle())) {
+                keys.addAll(keys(alias));
+            }
+            entries.add(new SuggestTrie.Entry(new MovieSuggestion(movie.getId(), movie.getTitle(),
+                    movie.getGenre(), movie.getPosterUrl()), keys));
+        }
+        SuggestTrie built = SuggestTrie.build(entries, maxResults);
+        trie = built;
+        log.info("Movie suggestions rebuilt for {} movies, {} nodes in {} ms", movies.size(), built.nodes(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // The whole name, then the rest of it from every later word on
+    static List<String> keys(String name) {
+        String normalized = MovieSearchIndex.normalize(name);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+}
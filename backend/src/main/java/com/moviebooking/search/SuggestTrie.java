@@ -0,0 +1,137 @@
+package com.moviebooking.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+
+import com.moviebooking.dto.MovieSuggestion;
+
+/**
+ * Immutable prefix trie flattened into arrays. The children of a node sit
+ * next to each other sorted by character, so a step down is a binary
+ * search, and every node keeps its best movies precomputed, so a lookup
+ * only walks the prefix.
+ *
+ * Movies are ranked before insertion; a node's list fills up in rank
+ * order and stops at the limit.
+ */
+final class SuggestTrie {
+
+    static final SuggestTrie EMPTY = build(List.of(), 1);
+
+    private final MovieSuggestion[] movies;
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] top;
+
+    private SuggestTrie(MovieSuggestion[] movies, char[] labels, int[] firstChild, int[] childCount,
+                        int[] topStart, int[] topCount, int[] top) {
+        this.movies = movies;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topStart = topStart;
+        this.topCount = topCount;
+        this.top = top;
+    }
+
+    record Entry(MovieSuggestion movie, List<String> keys) { }
+
+    List<MovieSuggestion> suggest(String prefix, int limit) {
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int node = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            int from = firstChild[node];
+            int index = Arrays.binarySearch(labels, from, from + childCount[node], prefix.charAt(i));
+            if (index < 0) {
+                return List.of();
+            }
+            node = index;
+        }
+        int count = Math.min(limit, topCount[node]);
+        List<MovieSuggestion> suggestions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            suggestions.add(movies[top[topStart[node] + i]]);
+        }
+        return suggestions;
+    }
+
+    int nodes() {
+        return labels.length;
+    }
+
+    // Entries come ranked, best first; keys are already normalized
+    static SuggestTrie build(List<Entry> entries, int limit) {
+        Node root = new Node('\0');
+        MovieSuggestion[] movies = new MovieSuggestion[entries.size()];
+        for (int m = 0; m < entries.size(); m++) {
+            movies[m] = entries.get(m).movie();
+            for (String key : entries.get(m).keys()) {
+                Node node = root;
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.children.computeIfAbsent(key.charAt(i), Node::new);
+                    node.offer(m, limit);
+                }
+            }
+        }
+
+        // breadth first, so every node's children end up next to each other
+        List<Node> order = new ArrayList<>();
+        Queue<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            order.add(node);
+            queue.addAll(node.children.values());
+        }
+
+        int size = order.size();
+        char[] labels = new char[size];
+        int[] firstChild = new int[size];
+        int[] childCount = new int[size];
+        int[] topStart = new int[size];
+        int[] topCount = new int[size];
+        int[] top = new int[order.stream().mapToInt(node -> node.top.size()).sum()];
+        int next = 1;
+        int topNext = 0;
+        for (int i = 0; i < size; i++) {
+            Node node = order.get(i);
+            labels[i] = node.label;
+            firstChild[i] = next;
+            childCount[i] = node.children.size();
+            next += node.children.size();
+            topStart[i] = topNext;
+            topCount[i] = node.top.size();
+            for (int movie : node.top) {
+                top[topNext++] = movie;
+            }
+        }
+        return new SuggestTrie(movies, labels, firstChild, childCount, topStart, topCount, top);
+    }
+
+    private static final class Node {
+
+        private final char label;
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private final List<Integer> top = new ArrayList<>(2);
+
+        private Node(char label) {
+            this.label = label;
+        }
+
+        // movies arrive in rank order, a repeat can only be the movie just added
+        private void offer(int movie, int limit) {
+            if (top.size() < limit && (top.isEmpty() || top.get(top.size() - 1) != movie)) {
+                top.add(movie);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.moviebooking.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Aho–Corasick automaton over movie names, flattened into arrays the same
+ * way as {@link SuggestTrie}. One left to right pass over a text finds
+ * every name in it, whatever the number of names: a character that does
+ * not continue the current match falls back along the failure links to
+ * the longest suffix that is still the start of some name.
+ *
+ * Names and texts are normalized with {@link MovieSearchIndex#normalize},
+ * and only whole words match, so "dune" is not found in "dunes".
+ */
+final class TitleAutomaton {
+
+    static final TitleAutomaton EMPTY = build(List.of());
+
+    private final long[] movieIds;
+    private final String[] titles;
+    private final int[] keyLength;
+    private final int[] keyMovie;
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] fail;
+    private final int[] output;
+    private final int[] nextOutput;
+
+    private TitleAutomaton(long[] movieIds, String[] titles, int[] keyLength, int[] keyMovie, char[] labels,
+                           int[] firstChild, int[] childCount, int[] fail, int[] output, int[] nextOutput) {
+        this.movieIds = movieIds;
+        this.titles = titles;
+        this.keyLength = keyLength;
+        this.keyMovie = keyMovie;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.fail = fail;
+        this.output = output;
+        this.nextOutput = nextOutput;
+    }
+
+    record Entry(long movieId, String title, List<String> names) { }
+
+    // Every whole word mention, in the order they end; offsets are in the normalized text
+    List<MovieMatcher.Mention> find(String normalized) {
+        List<MovieMatcher.Mention> mentions = new ArrayList<>(2);
+        int state = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            int next;
+            while ((next = child(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(next, 0);
+            for (int node = output[state] >= 0 ? state : nextOutput[state]; node >= 0; node = nextOutput[node]) {
+                int key = output[node];
+                int start = i + 1 - keyLength[key];
+                if ((start == 0 || normalized.charAt(start - 1) == ' ')
+                        && (i + 1 == normalized.length() || normalized.charAt(i + 1) == ' ')) {
+                    int movie = keyMovie[key];
+                    mentions.add(new MovieMatcher.Mention(movieIds[movie], titles[movie], start, i + 1));
+                }
+            }
+        }
+        return mentions;
+    }
+
+    List<String> titles() {
+        return List.of(titles);
+    }
+
+    int nodes() {
+        return labels.length;
+    }
+
+    private int child(int node, char c) {
+        int from = firstChild[node];
+        int index = Arrays.binarySearch(labels, from, from + childCount[node], c);
+        return index < 0 ? -1 : index;
+    }
+
+    // Names are already normalized; a name shared by two movies belongs to the first
+    static TitleAutomaton build(List<Entry> entries) {
+        Node root = new Node('\0');
+        long[] movieIds = new long[entries.size()];
+        String[] titles = new String[entries.size()];
+        List<Integer> lengths = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int m = 0; m < entries.size(); m++) {
+            movieIds[m] = entries.get(m).movieId();
+            titles[m] = entries.get(m).title();
+            for (String name : entries.get(m).names()) {
+                if (name.isEmpty()) continue;
+                Node node = root;
+                for (int i = 0; i < name.length(); i++) {
+                    node = node.children.computeIfAbsent(name.charAt(i), Node::new);
+                }
+                if (node.key < 0) {
+                    node.key = lengths.size();
+                    lengths.add(name.length());
+                    owners.add(m);
+                }
+            }
+        }
+
+        // breadth first, so every node's children end up next to each other
+        List<Node> order = new ArrayList<>();
+        Queue<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            order.add(node);
+            queue.addAll(node.children.values());
+        }
+
+        int size = order.size();
+        char[] labels = new char[size];
+        int[] firstChild = new int[size];
+        int[] childCount = new int[size];
+        int[] output = new int[size];
+        int next = 1;
+        for (int i = 0; i < size; i++) {
+            Node node = order.get(i);
+            labels[i] = node.label;
+            firstChild[i] = next;
+            childCount[i] = node.children.size();
+            output[i] = node.key;
+            next += node.children.size();
+        }
+
+        TitleAutomaton automaton = new TitleAutomaton(movieIds, titles,
+                lengths.stream().mapToInt(Integer::intValue).toArray(),
+                owners.stream().mapToInt(Integer::intValue).toArray(),
+                labels, firstChild, childCount, new int[size], output, new int[size]);
+        automaton.link();
+        return automaton;
+    }
+
+    /**
+     * Failure links in breadth first order, which is array order: a node's
+     * link is shorter than the node, so it is always set before it is used.
+     * Each node also points at the nearest node on its failure chain that
+     * ends a name, so reporting skips the ones that do not.
+     */
+    private void link() {
+        nextOutput[0] = -1;
+        for (int node = 0; node < labels.length; node++) {
+            int from = firstChild[node];
+            for (int child = from; child < from + childCount[node]; child++) {
+                int target = 0;
+                if (node != 0) {
+                    int state = fail[node];
+                    while ((target = child(state, labels[child])) < 0 && state != 0) {
+                        state = fail[state];
+                    }
+                    target = Math.max(target, 0);
+                }
+                fail[child] = target;
+                nextOutput[child] = output[target] >= 0 ? target : nextOutput[target];
+            }
+        }
+    }
+
+    private static final class Node {
+
+        private final char label;
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private int key = -1;
+
+        private Node(char label) {
+            this.label = label;
+        }
+    }
+}
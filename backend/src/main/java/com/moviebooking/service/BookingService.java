@@ -7,15 +7,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.moviebooking.dto.BookingRequest;
+import com.moviebooking.dto.BookingView;
+import com.moviebooking.dto.ViewMapper;
 import com.moviebooking.entity.Booking;
 import com.moviebooking.entity.Showtime;
 import com.moviebooking.entity.User;
+import com.moviebooking.inventory.SeatHoldService;
+import com.moviebooking.inventory.SeatInventoryService;
+import com.moviebooking.inventory.ShowtimeShardExecutor;
+import com.moviebooking.inventory.SeatUnavailableException;
+import com.moviebooking.journal.BookingJournal;
 import com.moviebooking.repository.BookingRepository;
 import com.moviebooking.repository.ShowtimeRepository;
 import com.moviebooking.repository.UserRepository;
+import com.moviebooking.schedule.ShowtimeIndex;
 
 @Service
 @Transactional
@@ -30,59 +39,109 @@ public class BookingService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+    
+    @Autowired
+    private SeatHoldService seatHoldService;
+    
+    @Autowired
+    private ShowtimeShardExecutor shardExecutor;
+    
+    @Autowired
+    private BookingJournal journal;
+    
+    @Autowired
+    private ShowtimeIndex showtimeIndex;
+    
+    // Runs on the showtime's booking shard, so no transaction is held while waiting for it
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Booking createBooking(BookingRequest request) {
-        Showtime showtime = showtimeRepository.findById(request.getShowtimeId())
-                .orElseThrow(() -> new RuntimeException("Showtime not found"));
+        // The security context lives on the request thread, resolve the user before handing off
+        String email = null;
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !auth.getName().equals("anonymousUser")) {
+            email = auth.getName();
+        }
+        String userEmail = email;
+        return shardExecutor.execute(request.getShowtimeId(), () -> placeBooking(request, userEmail));
+    }
+    
+    private Booking placeBooking(BookingRequest request, String userEmail) {
+        // the movie comes along, the response shows it after the shard's session is gone
+        Showtime showtime = showtimeRepository.findWithMovieById(request.getShowtimeId())
+                .orElseThrow(() -> new IllegalArgumentException("Showtime not found"));
         
         // Check if seats are available
         if (showtime.getSeatsAvailable() <= 0) {
-            throw new RuntimeException("No seats available");
+            throw new SeatUnavailableException("No seats available");
         }
         
-        Booking booking = new Booking(showtime, request.getSeats(), request.getAmount());
+        // Claim the selected seats in the showtime's inventory, all or nothing
+        int[] seats = seatInventoryService.claim(showtime, request.getSeats());
         
-        // Set user if authenticated
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated() && !auth.getName().equals("anonymousUser")) {
-            User user = userRepository.findByEmail(auth.getName())
-                    .orElse(null);
-            if (user != null) {
-                booking.setUser(user);
-            }
+        // Conditional update, fails instead of driving the count negative
+        if (showtimeRepository.decrementSeatsAvailable(showtime.getId(), seats.length) == 0) {
+            // the rest of the shard's batch still commits, so give the seats back now
+            seatInventoryService.release(showtime.getId(), seats);
+            throw new SeatUnavailableException("No seats available");
         }
         
-        // Set guest info if provided
-        if (request.getGuestEmail() != null) {
-            booking.setGuestEmail(request.getGuestEmail());
-            booking.setGuestName(request.getGuestName());
+        Booking saved;
+        try {
+            Booking booking = new Booking(showtime, request.getSeats(), request.getAmount());
+            
+            // Set user if authenticated
+            if (userEmail != null) {
+                userRepository.findByEmail(userEmail).ifPresent(booking::setUser);
+            }
+            
+            // Set guest info if provided
+            if (request.getGuestEmail() != null) {
+                booking.setGuestEmail(request.getGuestEmail());
+                booking.setGuestName(request.getGuestName());
+            }
+            
+            saved = bookingRepository.save(booking);
+        } catch (RuntimeException e) {
+            // same as above, the claim and the count must not ride along with the batch
+            seatInventoryService.release(showtime.getId(), seats);
+            showtimeRepository.incrementSeatsAvailable(showtime.getId(), seats.length);
+            throw e;
         }
+        // in memory only, the column is written by the conditional update above
+        showtime.setSeatsAvailable(showtime.getSeatsAvailable() - seats.length);
+        showtimeIndex.seatsChanged(showtime.getId(), -seats.length);
+        journal.recordStatus(saved.getId(), showtime.getId(), Booking.BookingStatus.PENDING);
         
-        // Update available seats
-        showtime.setSeatsAvailable(showtime.getSeatsAvailable() - 1);
-        showtimeRepository.save(showtime);
-        
-        return bookingRepository.save(booking);
+        // Seats stay held until payment confirms them or the hold expires
+        seatHoldService.hold(saved.getId(), showtime.getId(), seats);
+        return saved;
     }
     
-    public Optional<Booking> getBookingById(Long id) {
-        return bookingRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<BookingView> getBookingById(Long id) {
+        return bookingRepository.findDetailedById(id).map(ViewMapper::booking);
     }
     
-    public List<Booking> getUserBookings(String email) {
+    @Transactional(readOnly = true)
+    public List<BookingView> getUserBookings(String email) {
         User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return bookingRepository.findByUser(user);
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return ViewMapper.bookings(bookingRepository.findDetailedByUser(user));
     }
     
-    public List<Booking> getGuestBookings(String email) {
-        return bookingRepository.findByGuestEmail(email);
+    @Transactional(readOnly = true)
+    public List<BookingView> getGuestBookings(String email) {
+        return ViewMapper.bookings(bookingRepository.findDetailedByGuestEmail(email));
     }
     
     public Booking updateBookingStatus(Long bookingId, Booking.BookingStatus status) {
         Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
         
         booking.setStatus(status);
+        journal.recordStatus(bookingId, booking.getShowtime().getId(), status);
         return bookingRepository.save(booking);
     }
 }
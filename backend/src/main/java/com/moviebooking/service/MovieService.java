@@ -1,13 +1,25 @@
 package com.moviebooking.service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.moviebooking.cache.RenderedCatalog;
+import com.moviebooking.dto.MovieView;
+import com.moviebooking.dto.ViewMapper;
 import com.moviebooking.entity.Movie;
+import com.moviebooking.poster.PosterVariants;
 import com.moviebooking.repository.MovieRepository;
+import com.moviebooking.search.MovieMatcher;
+import com.moviebooking.search.MovieSearchIndex;
+import com.moviebooking.search.MovieSuggester;
 
 @Service
 public class MovieService {
@@ -15,19 +27,54 @@ public class MovieService {
     @Autowired
     private MovieRepository movieRepository;
     
-    public List<Movie> getAllMovies() {
-        return movieRepository.findAll();
+    @Autowired
+    private RenderedCatalog renderedCatalog;
+    
+    @Autowired
+    private MovieSearchIndex searchIndex;
+    
+    @Autowired
+    private MovieSuggester suggester;
+    
+    @Autowired
+    private MovieMatcher movieMatcher;
+    
+    @Autowired
+    private PosterVariants posterVariants;
+    
+    @Value("${catalog.search.max-results:50}")
+    private int maxSearchResults;
+    
+    // Read models, mapped while the fetched showtimes are at hand; the controller caches them rendered
+    public List<MovieView> getAllMovies() {
+        return ViewMapper.movies(movieRepository.findAllWithShowtimes());
     }
     
-    public Optional<Movie> getMovieById(Long id) {
-        return movieRepository.findById(id);
+    public Optional<MovieView> getMovieById(Long id) {
+        return movieRepository.findWithShowtimesById(id).map(ViewMapper::movie);
     }
     
-    public List<Movie> searchMovies(String title) {
-        return movieRepository.findByTitleContainingIgnoreCase(title);
+    // Ranked by the search index, then loaded with their showtimes in one query
+    public List<MovieView> searchMovies(String title) {
+        List<Long> ids = searchIndex.search(title.toLowerCase(Locale.ROOT), maxSearchResults);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, MovieView> movies = new HashMap<>();
+        for (Movie movie : movieRepository.findDistinctByIdIn(ids)) {
+            movies.put(movie.getId(), ViewMapper.movie(movie));
+        }
+        return ids.stream().map(movies::get).filter(Objects::nonNull).toList();
     }
     
     public Movie saveMovie(Movie movie) {
-        return movieRepository.save(movie);
+        Movie saved = movieRepository.save(movie);
+        searchIndex.index(saved);
+        suggester.refresh();
+        movieMatcher.refresh();
+        posterVariants.generate(saved.getPosterUrl());
+        // the only catalog writer, every rendered response may now be out of date
+        renderedCatalog.invalidate();
+        return saved;
     }
-}
\ No newline at end of file
+}
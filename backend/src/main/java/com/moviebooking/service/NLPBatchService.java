@@ -0,0 +1,177 @@
+package com.moviebooking.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.dto.NLPRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Parses a stream of utterances, one {@link NLPRequest} per line, and
+ * writes one line per utterance back in the same order: the
+ * {@code NLPResponse}, or {@code {"line": n, "error": "..."}} for a line
+ * that could not be parsed. Blank lines are skipped.
+ *
+ * Utterances run in parallel on a bounded pool, except those of one
+ * conversation, which run one after another in input order so every turn
+ * sees the slots of the turn before. At most {@code nlp.batch.window}
+ * utterances are in flight; the next line is only read once the oldest
+ * has been written, so a slow reader slows the replay down instead of
+ * filling the heap.
+ *
+ * Turns run as the caller, and booking turns are parsed without holding
+ * seats: a replay must not take a whole house past the waiting room.
+ */
+@Service
+public class NLPBatchService {
+
+    private static final int MAX_CONVERSATION_ID = 64;
+    private static final byte NEWLINE = '\n';
+
+    @Autowired
+    private NLPService nlpService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${nlp.batch.threads:4}")
+    private int threads;
+
+    @Value("${nlp.batch.window:256}")
+    private int window;
+
+    private ThreadPoolExecutor parsers;
+    private Counter parsed;
+    private Counter failed;
+
+    private record Pending(String conversationId, CompletableFuture<Object> result) { }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger count = new AtomicInteger();
+        // a full queue runs the utterance on the thread that hands it over, which slows the batch that filled it
+        parsers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(threads, window) * 4), task -> {
+                    Thread thread = new Thread(task, "nlp-batch-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        parsed = Counter.builder("nlp.batch.utterances").tag("result", "parsed").register(meterRegistry);
+        failed = Counter.builder("nlp.batch.utterances").tag("result", "failed").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsers.shutdownNow();
+    }
+
+    public void parse(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Deque<Pending> pending = new ArrayDeque<>();
+        // the last utterance of every conversation still in flight, the next one of it waits for that
+        Map<String, CompletableFuture<Object>> lastTurns = new HashMap<>();
+        // the pool's threads run every caller's turns, each turn brings its caller's context along
+        Executor executor = new DelegatingSecurityContextExecutor(parsers, SecurityContextHolder.getContext());
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (line.isBlank()) {
+                continue;
+            }
+            pending.add(submit(number, line, lastTurns, executor));
+            while (pending.size() >= window || pending.peek().result().isDone()) {
+                write(pending.poll(), lastTurns, out);
+                if (pending.isEmpty()) break;
+            }
+        }
+        while (!pending.isEmpty()) {
+            write(pending.poll(), lastTurns, out);
+        }
+        out.flush();
+    }
+
+    private Pending submit(int number, String line, Map<String, CompletableFuture<Object>> lastTurns,
+                           Executor executor) {
+        NLPRequest request;
+        try {
+            request = objectMapper.readValue(line, NLPRequest.class);
+        } catch (JsonProcessingException e) {
+            return new Pending(null, CompletableFuture.completedFuture(error(number, "Not a JSON object")));
+        }
+        if (request.getText() == null || request.getText().isBlank()) {
+            return new Pending(null, CompletableFuture.completedFuture(error(number, "text is required")));
+        }
+        String conversationId = request.getConversationId();
+        if (conversationId != null && conversationId.length() > MAX_CONVERSATION_ID) {
+            return new Pending(null, CompletableFuture.completedFuture(error(number, "conversationId is too long")));
+        }
+
+        Supplier<Object> turn = () -> {
+            try {
+                return nlpService.parseIntent(request, false);
+            } catch (RuntimeException e) {
+                return error(number, e.getMessage());
+            }
+        };
+        if (conversationId == null || conversationId.isBlank()) {
+            return new Pending(null, CompletableFuture.supplyAsync(turn, executor));
+        }
+        CompletableFuture<Object> previous = lastTurns.get(conversationId);
+        // turns never complete exceptionally, a failed one still lets the next turn run
+        CompletableFuture<Object> result = previous == null
+                ? CompletableFuture.supplyAsync(turn, executor)
+                : previous.thenApplyAsync(ignored -> turn.get(), executor);
+        lastTurns.put(conversationId, result);
+        return new Pending(conversationId, result);
+    }
+
+    private void write(Pending next, Map<String, CompletableFuture<Object>> lastTurns, OutputStream out)
+            throws IOException {
+        if (!next.result().isDone()) {
+            // about to wait, let the client have what is ready so far
+            out.flush();
+        }
+        Object result = next.result().join();
+        if (next.conversationId() != null) {
+            lastTurns.remove(next.conversationId(), next.result());
+        }
+        (result instanceof Map ? failed : parsed).increment();
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write(NEWLINE);
+    }
+
+    private static Map<String, Object> error(int line, String message) {
+        return Map.of("line", line, "error", message != null ? message : "Could not parse the utterance");
+    }
+}
@@ -1,246 +1,278 @@
 package com.moviebooking.service;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.context.annotation.SessionScope;
 
+import com.moviebooking.admission.AdmissionService;
+import com.moviebooking.conversation.ConversationState;
+import com.moviebooking.conversation.ConversationStore;
+import com.moviebooking.dto.BookingRequest;
 import com.moviebooking.dto.NLPRequest;
 import com.moviebooking.dto.NLPResponse;
-import com.moviebooking.entity.Movie;
-import com.moviebooking.entity.Showtime;
-import com.moviebooking.repository.MovieRepository;
+import com.moviebooking.dto.PaymentRequest;
+import com.moviebooking.dto.SeatView;
+import com.moviebooking.dto.ShowtimeSummary;
+import com.moviebooking.entity.Booking;
+import com.moviebooking.inventory.SeatInventoryService;
+import com.moviebooking.inventory.SeatUnavailableException;
+import com.moviebooking.inventory.ShardBusyException;
+import com.moviebooking.nlp.ParsedUtterance;
+import com.moviebooking.nlp.UtteranceCache;
 import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.search.MovieMatcher;
 
 @Service
-@SessionScope
 public class NLPService {
 
-    // ✅ Global slots session ke liye
-    private Map<String, Object> slots = new HashMap<>();
+    // the window bounds the lookup, this only caps a day with shows in every city
+    private static final int MAX_CANDIDATES = 200;
 
     @Autowired
-    private MovieRepository movieRepository;
+    private ConversationStore conversationStore;
+
+    @Autowired
+    private MovieMatcher movieMatcher;
+
+    @Autowired
+    private UtteranceCache utteranceCache;
 
     @Autowired
     private ShowtimeRepository showtimeRepository;
 
-    private static final Map<String, String> HINDI_MONTHS = Map.ofEntries(
-        Map.entry("जनवरी", "01"), Map.entry("फरवरी", "02"), Map.entry("मार्च", "03"),
-        Map.entry("अप्रैल", "04"), Map.entry("मई", "05"), Map.entry("जून", "06"),
-        Map.entry("जुलाई", "07"), Map.entry("अगस्त", "08"), Map.entry("सितंबर", "09"),
-        Map.entry("अक्टूबर", "10"), Map.entry("नवंबर", "11"), Map.entry("दिसंबर", "12")
-    );
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private AdmissionService admissionService;
+
+    @Value("${nlp.booking.window-minutes:180}")
+    private long windowMinutes;
 
-    private static final Map<String, Integer> HINDI_NUMBERS = Map.of(
-        "एक", 1, "दो", 2, "तीन", 3, "चार", 4, "पांच", 5,
-        "छह", 6, "सात", 7, "आठ", 8, "नौ", 9, "दस", 10
-    );
+    @Value("${nlp.booking.seat-price:250}")
+    private BigDecimal seatPrice;
 
-    // 🔹 Main intent parser
+    // 🔹 Main intent parser, slots carry over between utterances of one conversation
     public NLPResponse parseIntent(NLPRequest request) {
-        String text = request.getText().toLowerCase();
-        String intent = detectIntent(text);
+        return parseIntent(request, true);
+    }
+
+    // A replayed transcript gets the same parse, its booking turns just hold no seats
+    public NLPResponse parseIntent(NLPRequest request, boolean bookingAllowed) {
+        String conversationId = request.getConversationId();
+        ConversationState state = conversationId != null ? conversationStore.load(conversationId) : null;
+        if (conversationId == null || conversationId.isBlank()) {
+            conversationId = UUID.randomUUID().toString();
+        }
+        Map<String, Object> slots = state != null ? state.slots() : new HashMap<>();
+
+        NLPResponse response = parseIntent(request.getText().toLowerCase(), slots, bookingAllowed);
+        conversationStore.save(conversationId, ConversationState.of(slots));
+        response.setConversationId(conversationId);
+        return response;
+    }
+
+    private NLPResponse parseIntent(String text, Map<String, Object> slots, boolean bookingAllowed) {
+        // repeated utterances skip both passes, only what they ask about live is looked up again
+        UtteranceCache.Parse parse = utteranceCache.parse(text, LocalDate.now());
+        MovieMatcher.Mention movie = parse.movie();
+        ParsedUtterance utterance = parse.utterance();
+        String intent = utterance.intent();
+        if (ParsedUtterance.UNKNOWN.equals(intent) && movie != null)
+            intent = "book_ticket";
 
         switch (intent) {
             case "book_ticket":
-                return parseBookingIntent(text);
+                return parseBookingIntent(utterance, movie, slots, bookingAllowed);
             case "ask_showtimes":
-                return parseShowtimesIntent(text);
+                return parseShowtimesIntent(movie, slots);
             case "greet":
                 return new NLPResponse("greet", slots,
                         "Namaste 🙏! Ticket book karna hai ya showtime dekhna?", false);
             case "payment_confirm":
-                return parsePaymentConfirm();
+                return parsePaymentConfirm(slots);
             default:
                 return new NLPResponse("unknown", slots,
                         "Maaf 😅, samajh nahi paaya. Dobara koshish karein.", true);
         }
     }
 
-    // 🔹 Intent detect
-    private String detectIntent(String text) {
-        text = text.toLowerCase();
-        String movieName = extractMovieName(text);
-
-        if (text.contains("ticket") || text.contains("बुक") || text.contains("टिकट") || (movieName != null && text.contains("बुक")))
-            return "book_ticket";
-
-        if (text.contains("showtime") || text.contains("शो") || text.contains("समय"))
-            return "ask_showtimes";
-
-        if (text.contains("hello") || text.contains("नमस्ते"))
-            return "greet";
-
-        if (text.contains("payment") || text.contains("कंफर्म") || text.contains("confirm"))
-            return "payment_confirm";
-
-        if (movieName != null)
-            return "book_ticket";
-
-        return "unknown";
-    }
-
     // 🔹 Showtimes extraction
-    private NLPResponse parseShowtimesIntent(String text) {
-        String movieName = extractMovieName(text);
-        if (movieName == null)
+    private NLPResponse parseShowtimesIntent(MovieMatcher.Mention movie, Map<String, Object> slots) {
+        if (movie == null)
             return new NLPResponse("ask_showtimes", slots, "Kaunsa movie? Available: " + listAllMovies(), true);
 
+        String movieName = movie.title();
         slots.put("movie_name", movieName);
-        Movie movie = movieRepository.findAll().stream()
-                .filter(m -> m.getTitle().equalsIgnoreCase(movieName)).findFirst().orElse(null);
-        if (movie == null)
-            return new NLPResponse("ask_showtimes", slots, "Movie nahi mili 😅", true);
-
-        List<Showtime> showtimes = showtimeRepository.findByMovieId(movie.getId());
+        List<UtteranceCache.Listing> showtimes = showtimes(movie.movieId());
         if (showtimes.isEmpty())
             return new NLPResponse("ask_showtimes", slots, "Maaf, showtime available nahi hai.", true);
 
         StringBuilder response = new StringBuilder(movieName + " ke showtimes:\n");
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM, HH:mm");
-        for (Showtime s : showtimes) {
-            response.append(s.getStartTime().format(formatter))
-                    .append(" @ ").append(s.getTheater())
-                    .append(" (").append(s.getSeatsAvailable()).append(" seat bachi)\n");
+        for (UtteranceCache.Listing s : showtimes) {
+            response.append(s.startTime().format(formatter))
+                    .append(" @ ").append(s.theater())
+                    .append(" (").append(seatInventoryService.getInventory(s.showtimeId()).getAvailableCount())
+                    .append(" seat bachi)\n");
         }
         return new NLPResponse("ask_showtimes", slots, response.toString(), false);
     }
 
-    // 🔹 Booking flow
-    private NLPResponse parseBookingIntent(String text) {
-        int seats = extractNumberOfSeats(text);
+    // 🔹 Booking flow: the showtime nearest the asked date and time, seats held through the booking engine
+    private NLPResponse parseBookingIntent(ParsedUtterance utterance, MovieMatcher.Mention movie, Map<String, Object> slots,
+                                           boolean bookingAllowed) {
+        int seats = utterance.seats() != null ? utterance.seats() : 1;
         slots.put("num_seats", seats);
+        // a booking from an earlier turn is not this one
+        slots.remove(ConversationState.SHOWTIME_ID);
+        slots.remove(ConversationState.SEATS);
+        slots.remove(ConversationState.SEAT_LABELS);
+        slots.remove(ConversationState.BOOKING_ID);
 
-        String movieName = extractMovieName(text);
-        if (movieName == null)
+        if (movie == null)
             return new NLPResponse("book_ticket", slots, "Kaunsa movie?", true);
+        String movieName = movie.title();
         slots.put("movie_name", movieName);
 
-        LocalDate date = extractDate(text);
-        if (date == null) date = LocalDate.now();
+        LocalDate date = utterance.date() != null ? utterance.date() : LocalDate.now();
+        LocalTime time = utterance.time() != null ? utterance.time() : LocalTime.of(19, 0);
         slots.put("date", date.toString());
-
-        String time = extractTime(text);
-        if (time == null) time = "19:00";
-        slots.put("time", time);
-
-        // Seat availability
-        Movie movie = movieRepository.findAll().stream()
-                .filter(m -> m.getTitle().equalsIgnoreCase(movieName)).findFirst().orElse(null);
-        if (movie != null) {
-            List<Showtime> showtimes = showtimeRepository.findByMovieId(movie.getId());
-            if (!showtimes.isEmpty()) {
-                Showtime s = showtimes.get(0); // first showtime
-                int seatsAvailable = s.getSeatsAvailable();
-                if (seats > seatsAvailable) {
-                    return new NLPResponse("book_ticket", slots,
-                            "Maaf, sirf " + seatsAvailable + " seat bachi hai.", true);
-                }
-                s.setSeatsAvailable(seatsAvailable - seats);
-                showtimeRepository.save(s);
+        slots.put("time", time.toString());
+
+        // Only showtimes within the window around the asked time are loaded
+        LocalDateTime asked = date.atTime(time);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = asked.minusMinutes(windowMinutes).isAfter(now) ? asked.minusMinutes(windowMinutes) : now;
+        List<ShowtimeSummary> candidates = showtimeService.getShowtimesBetween(movie.movieId(), from,
+                asked.plusMinutes(windowMinutes), MAX_CANDIDATES);
+        if (candidates.isEmpty())
+            return new NLPResponse("book_ticket", slots,
+                    "Maaf, " + date + " ko " + time + " ke aas-paas " + movieName + " ka koi show nahi hai.", true);
+
+        ShowtimeSummary showtime = candidates.stream()
+                .filter(candidate -> candidate.getSeatsAvailable() >= seats)
+                .min(Comparator.comparingLong((ShowtimeSummary candidate) ->
+                                Math.abs(Duration.between(asked, candidate.getStartTime()).toMinutes()))
+                        .thenComparing(ShowtimeSummary::getStartTime))
+                .orElse(null);
+        if (showtime == null) {
+            int most = candidates.stream().mapToInt(ShowtimeSummary::getSeatsAvailable).max().orElse(0);
+            return new NLPResponse("book_ticket", slots, "Maaf, sirf " + most + " seat bachi hai.", true);
+        }
+        slots.put("date", showtime.getStartTime().toLocalDate().toString());
+        slots.put("time", showtime.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm")));
+
+        // Best adjacent seats near the centre of the screen
+        int[] best;
+        try {
+            best = seatInventoryService.bestAvailable(showtime.getId(), seats);
+        } catch (RuntimeException e) {
+            // a party wider than a row
+            return new NLPResponse("book_ticket", slots, "Maaf, " + e.getMessage() + ".", true);
+        }
+        if (best == null) {
+            return new NLPResponse("book_ticket", slots,
+                    "Maaf, " + seats + " seat ek saath available nahi hain.", true);
+        }
+        if (!bookingAllowed) {
+            return new NLPResponse("book_ticket", slots,
+                    "Transcript replay mein seats hold nahi hoti. Live bolke booking karein.", true);
+        }
+        BookingRequest request = new BookingRequest();
+        request.setShowtimeId(showtime.getId());
+        request.setSeats(seatInventoryService.toSeatsJson(showtime.getId(), best));
+        request.setAmount(seatPrice.multiply(BigDecimal.valueOf(seats)));
+        // a caller cannot poll a queue ticket, so voice only books while nobody waits in the showtime's queue
+        Booking booking;
+        try (AdmissionService.Admission admission = admissionService.tryEnter(showtime.getId())) {
+            if (admission == null) {
+                return new NLPResponse("book_ticket", slots,
+                        "Abhi bahut bookings chal rahi hain 🙏. Thodi der mein dobara koshish karein.", true);
             }
+            booking = bookingService.createBooking(request);
+        } catch (SeatUnavailableException e) {
+            // someone else took the seats between picking and claiming them
+            return new NLPResponse("book_ticket", slots,
+                    "Maaf, ye seats abhi abhi book ho gayi. Dobara koshish karein.", true);
+        } catch (ShardBusyException e) {
+            // nothing was booked, the same request works once the rush passes
+            return new NLPResponse("book_ticket", slots,
+                    "Abhi bahut bookings chal rahi hain 🙏. Thodi der mein dobara koshish karein.", true);
+        } catch (RuntimeException e) {
+            return new NLPResponse("book_ticket", slots, "Maaf, booking nahi ho paayi: " + e.getMessage() + ".", true);
         }
+        String seatLabels = String.join(", ", seatInventoryService.describe(showtime.getId(), best).stream()
+                .map(SeatView::getLabel).toList());
+        slots.put("showtime_id", showtime.getId());
+        slots.put("seats", request.getSeats());
+        slots.put("seat_labels", seatLabels);
+        slots.put("booking_id", booking.getId());
 
         return new NLPResponse("book_ticket", slots,
-                "Booking summary: " + seats + " seat(s) for " + movieName + " on " + date + " at " + time +
+                "Booking summary: " + seats + " seat(s) for " + movieName + " on " + slots.get("date") +
+                " at " + slots.get("time") + " @ " + showtime.getTheater() + " (seats " + seatLabels + ")" +
                 "\nAap ab 'पेमेंट कंफर्म करें' bolke booking finalize kar sakte hain.", false);
     }
 
     // 🔹 Payment confirm (mock, no card/PIN)
-    private NLPResponse parsePaymentConfirm() {
-        if (!slots.containsKey("movie_name") || !slots.containsKey("num_seats")) {
+    private NLPResponse parsePaymentConfirm(Map<String, Object> slots) {
+        Object bookingId = slots.get(ConversationState.BOOKING_ID);
+        if (bookingId == null) {
             return new NLPResponse("payment_confirm", slots,
                     "Koi booking detect nahi hui 😅. Pehle movie aur seats select karein.", true);
         }
 
+        // Paid like a checkout without OTP, the seat hold becomes a sale
+        PaymentRequest payment = new PaymentRequest();
+        payment.setBookingId(((Number) bookingId).longValue());
+        payment.setSimulateOTP(false);
+        Map<String, Object> result;
+        try {
+            result = paymentService.initiatePayment(payment);
+        } catch (RuntimeException e) {
+            // the hold expired and the booking was cancelled, or it is gone
+            slots.remove(ConversationState.BOOKING_ID);
+            return new NLPResponse("payment_confirm", slots,
+                    "Maaf, payment nahi ho paaya: " + e.getMessage() + ". Dobara booking karein.", true);
+        }
+        slots.remove(ConversationState.BOOKING_ID);
+
         return new NLPResponse("payment_confirm", slots,
-                "Payment confirm ho gaya ✅. Aapki " + slots.get("num_seats") +
+                "Payment confirm ho gaya ✅ (" + result.get("transaction_id") + "). Aapki " + slots.get("num_seats") +
                 " seat(s) " + slots.get("movie_name") + " ke liye " +
                 slots.get("date") + " at " + slots.get("time") + " book ho gayi hain. Enjoy! 🍿", false);
     }
 
-    // 🔹 Helper: number of seats
-    private int extractNumberOfSeats(String text) {
-        for (String key : HINDI_NUMBERS.keySet()) {
-            if (text.contains(key)) return HINDI_NUMBERS.get(key);
-        }
-
-        Pattern p = Pattern.compile("(\\d+)\\s*(ticket|seat|seats?)");
-        Matcher m = p.matcher(text);
-        return m.find() ? Integer.parseInt(m.group(1)) : 1;
-    }
-
-    // 🔹 Helper: movie name
-    private String extractMovieName(String text) {
-        final String txt = text.toLowerCase();
-        Map<String, String> movieMap = Map.of(
-                "अवतार", "Avatar: The Way of Water",
-                "इनसेप्शन", "Inception",
-                "दूने", "Dune",
-                "स्पाइडर-मैन", "Spider-Man: No Way Home",
-                "इंटरस्टेलर", "Interstellar"
-        );
-
-        for (String key : movieMap.keySet()) {
-            if (txt.contains(key)) return movieMap.get(key);
-        }
-
-        return movieRepository.findAll().stream()
-                .map(Movie::getTitle)
-                .filter(title -> txt.contains(title.toLowerCase()))
-                .findFirst()
-                .orElse(null);
+    // 🔹 Which showtimes a movie has, cached apart from the seat counts
+    private List<UtteranceCache.Listing> showtimes(Long movieId) {
+        return utteranceCache.showtimes(movieId, id -> showtimeRepository.findByMovieId(id).stream()
+                .map(UtteranceCache.Listing::of).toList());
     }
 
     // 🔹 Helper: list movies
     private String listAllMovies() {
-        StringBuilder sb = new StringBuilder();
-        movieRepository.findAll().forEach(m -> sb.append(m.getTitle()).append(", "));
-        return sb.length() > 2 ? sb.substring(0, sb.length() - 2) : "";
-    }
-
-    // 🔹 Helper: date extract
-    private LocalDate extractDate(String text) {
-        text = text.toLowerCase();
-        if (text.contains("aaj") || text.contains("today")) return LocalDate.now();
-        if (text.contains("kal") || text.contains("tomorrow")) return LocalDate.now().plusDays(1);
-
-        Pattern p = Pattern.compile("(\\d{1,2})\\s+(जनवरी|फरवरी|मार्च|अप्रैल|मई|जून|जुलाई|अगस्त|सितंबर|अक्टूबर|नवंबर|दिसंबर)");
-        Matcher m = p.matcher(text);
-        if (m.find()) {
-            int day = Integer.parseInt(m.group(1));
-            String monthStr = HINDI_MONTHS.get(m.group(2));
-            String dateStr = LocalDate.now().getYear() + "-" + monthStr + "-" + String.format("%02d", day);
-            try { return LocalDate.parse(dateStr); } 
-            catch (DateTimeParseException e) { return null; }
-        }
-        return null;
-    }
-
-    // 🔹 Helper: time extract
-    private String extractTime(String text) {
-        Pattern p = Pattern.compile("(\\d{1,2})[:.](\\d{2})");
-        Matcher m = p.matcher(text);
-        if (m.find()) return String.format("%02d:%02d", Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
-
-        Pattern hourPattern = Pattern.compile("(\\d{1,2})\\s*(बजे|am|pm)?");
-        Matcher mh = hourPattern.matcher(text);
-        if (mh.find()) {
-            int hour = Integer.parseInt(mh.group(1));
-            String period = mh.group(2);
-            if ("pm".equalsIgnoreCase(period) && hour < 12) hour += 12;
-            if ("am".equalsIgnoreCase(period) && hour == 12) hour = 0;
-            return String.format("%02d:00", hour);
-        }
-        return "19:00";
+        return String.join(", ", movieMatcher.titles());
     }
 }
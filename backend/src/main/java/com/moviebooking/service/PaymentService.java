@@ -3,6 +3,8 @@ package com.moviebooking.service;
 import com.moviebooking.dto.PaymentRequest;
 import com.moviebooking.entity.Booking;
 import com.moviebooking.entity.Payment;
+import com.moviebooking.inventory.SeatHoldService;
+import com.moviebooking.journal.BookingJournal;
 import com.moviebooking.repository.BookingRepository;
 import com.moviebooking.repository.PaymentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,12 +26,18 @@ public class PaymentService {
     @Autowired
     private BookingRepository bookingRepository;
     
+    @Autowired
+    private SeatHoldService seatHoldService;
+    
+    @Autowired
+    private BookingJournal journal;
+    
     public Map<String, Object> initiatePayment(PaymentRequest request) {
         Booking booking = bookingRepository.findById(request.getBookingId())
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
         
         if (booking.getStatus() != Booking.BookingStatus.PENDING) {
-            throw new RuntimeException("Booking is not in pending status");
+            throw new IllegalArgumentException("Booking is not in pending status");
         }
         
         Payment payment = new Payment(booking, Payment.PaymentMethod.CREDIT_CARD);
@@ -46,13 +54,15 @@ public class PaymentService {
             response.put("message", "OTP sent to your registered mobile number");
             return response;
         } else {
-            // Direct payment without OTP
+            // Direct payment without OTP, the seat hold becomes a sale
+            seatHoldService.confirm(booking.getId());
             payment.setStatus(Payment.PaymentStatus.SUCCESS);
             payment.setExternalTxnId("TXN_" + UUID.randomUUID().toString().substring(0, 8));
             paymentRepository.save(payment);
             
             booking.setStatus(Booking.BookingStatus.PAID);
             bookingRepository.save(booking);
+            journal.recordStatus(booking.getId(), booking.getShowtime().getId(), Booking.BookingStatus.PAID);
             
             Map<String, Object> response = new HashMap<>();
             response.put("status", "SUCCESS");
@@ -64,7 +74,7 @@ public class PaymentService {
     
     public Map<String, Object> confirmOTPPayment(String otpToken, String otp) {
         Payment payment = paymentRepository.findByOtpToken(otpToken)
-                .orElseThrow(() -> new RuntimeException("Invalid OTP token"));
+                .orElseThrow(() -> new IllegalArgumentException("Invalid OTP token"));
         
         // Mock OTP validation - accept 123456 as valid OTP
         if (!"123456".equals(otp)) {
@@ -77,13 +87,16 @@ public class PaymentService {
             return response;
         }
         
+        Booking booking = payment.getBooking();
+        seatHoldService.confirm(booking.getId());
+        
         payment.setStatus(Payment.PaymentStatus.SUCCESS);
         payment.setExternalTxnId("TXN_" + UUID.randomUUID().toString().substring(0, 8));
         paymentRepository.save(payment);
         
-        Booking booking = payment.getBooking();
         booking.setStatus(Booking.BookingStatus.PAID);
         bookingRepository.save(booking);
+        journal.recordStatus(booking.getId(), booking.getShowtime().getId(), Booking.BookingStatus.PAID);
         
         Map<String, Object> response = new HashMap<>();
         response.put("status", "SUCCESS");
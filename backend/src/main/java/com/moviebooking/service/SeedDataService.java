@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import com.moviebooking.entity.Movie;
 import com.moviebooking.entity.Showtime;
 import com.moviebooking.entity.User;
+import com.moviebooking.inventory.SeatInventory;
 import com.moviebooking.repository.MovieRepository;
 import com.moviebooking.repository.ShowtimeRepository;
 import com.moviebooking.repository.UserRepository;
@@ -96,37 +97,11 @@ public class SeedDataService implements CommandLineRunner {
     }
 
     private void createShowtime(Movie movie, String theater, String city, LocalDateTime startTime, int seatsTotal) {
-        String seatMap = generateSeatMap(seatsTotal);
-        Showtime showtime = new Showtime(movie, theater, city, startTime, seatsTotal, seatMap);
+        SeatInventory inventory = SeatInventory.create(seatsTotal, SeatInventory.DEFAULT_SEATS_PER_ROW);
+        Showtime showtime = new Showtime(movie, theater, city, startTime, seatsTotal, inventory.toBytes());
         showtimeRepository.save(showtime);
     }
 
-    private String generateSeatMap(int seatsTotal) {
-        int seatsPerRow = 10;
-        int rows = (int) Math.ceil((double) seatsTotal / seatsPerRow);
-        StringBuilder seatMap = new StringBuilder();
-        seatMap.append("[");
-
-        int seatCount = 0;
-        for (int row = 1; row <= rows; row++) {
-            for (int seat = 1; seat <= seatsPerRow; seat++) {
-                seatCount++;
-                if (seatCount > seatsTotal) break;
-
-                seatMap.append("{\"row\":").append(row)
-                       .append(",\"seat\":").append(seat)
-                       .append(",\"available\":true,\"type\":\"regular\"}");
-
-                if (seatCount < seatsTotal) {
-                    seatMap.append(",");
-                }
-            }
-        }
-
-        seatMap.append("]");
-        return seatMap.toString();
-    }
-
     private void seedUsers() {
         User demoUser = new User();
         demoUser.setName("Demo User");
@@ -0,0 +1,89 @@
+package com.moviebooking.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.moviebooking.dto.MovieSummary;
+import com.moviebooking.dto.ShowtimeDetails;
+import com.moviebooking.dto.ShowtimeSummary;
+import com.moviebooking.dto.ViewMapper;
+import com.moviebooking.entity.Movie;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.inventory.SeatInventoryService;
+import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.schedule.ShowtimeIndex;
+
+@Service
+@Transactional(readOnly = true)
+public class ShowtimeService {
+    
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+    
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+    
+    @Autowired
+    private ShowtimeIndex showtimeIndex;
+    
+    // One showtime with its movie and seats, instead of the whole catalog
+    public ShowtimeDetails getShowtimeDetails(Long id) {
+        Showtime showtime = showtimeRepository.findWithMovieById(id)
+                .orElseThrow(() -> new RuntimeException("Showtime not found"));
+        Movie movie = showtime.getMovie();
+        
+        ShowtimeDetails details = new ShowtimeDetails();
+        details.setId(showtime.getId());
+        details.setStartTime(showtime.getStartTime());
+        details.setTheater(showtime.getTheater());
+        details.setCity(showtime.getCity());
+        details.setSeatsAvailable(showtime.getSeatsAvailable());
+        details.setSeatsTotal(showtime.getSeatsTotal());
+        details.setMovie(new MovieSummary(movie.getId(), movie.getTitle(), movie.getDuration(),
+                movie.getGenre(), movie.getPosterUrl()));
+        details.setSeats(seatInventoryService.availability(showtime));
+        return details;
+    }
+    
+    // A city's showtimes on one day within a time window, from memory once the index is loaded
+    public List<ShowtimeSummary> getListings(String city, LocalDate date, LocalTime from, LocalTime to, Long movieId) {
+        if (showtimeIndex.isReady()) {
+            return showtimeIndex.whatsOn(city, date, from, to, movieId);
+        }
+        return showtimeRepository.findByCityAndDateRange(city, date.atTime(from), date.atTime(to).plusNanos(1)).stream()
+                .filter(showtime -> movieId == null || movieId.equals(showtime.getMovie().getId()))
+                .map(ViewMapper::showtimeWithMovie)
+                .toList();
+    }
+    
+    public List<ShowtimeSummary> getNextShowtimes(Long movieId, String city, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        if (showtimeIndex.isReady()) {
+            return showtimeIndex.next(movieId, city, now, limit);
+        }
+        return showtimeRepository.findByMovieIdAndDateRange(movieId, now, now.plusYears(1)).stream()
+                .filter(showtime -> city == null || city.equalsIgnoreCase(showtime.getCity()))
+                .limit(limit)
+                .map(ViewMapper::showtimeWithMovie)
+                .toList();
+    }
+    
+    // A movie's showtimes starting within {@code from..to} in any city, earliest first, at most {@code limit}
+    public List<ShowtimeSummary> getShowtimesBetween(Long movieId, LocalDateTime from, LocalDateTime to, int limit) {
+        if (showtimeIndex.isReady()) {
+            return showtimeIndex.next(movieId, null, from, limit).stream()
+                    .filter(showtime -> showtime.getStartTime().isBefore(to))
+                    .toList();
+        }
+        return showtimeRepository.findByMovieIdAndDateRange(movieId, from, to).stream()
+                .limit(limit)
+                .map(ViewMapper::showtimeWithMovie)
+                .toList();
+    }
+}
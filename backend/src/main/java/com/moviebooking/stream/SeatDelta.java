@@ -0,0 +1,9 @@
+package com.moviebooking.stream;
+
+/**
+ * Seats that changed state since the feed's previous delta; {@code version}
+ * is the delta's number in its feed. Clients skip deltas not newer than the
+ * snapshot or delta they already applied.
+ */
+record SeatDelta(long version, int[] claimed, int[] released) {
+}
@@ -0,0 +1,88 @@
+package com.moviebooking.stream;
+
+import java.util.BitSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import com.moviebooking.inventory.SeatInventory;
+
+/**
+ * Seat changes of one showtime since the last flush, plus everyone
+ * watching it. A seat claimed and released within one flush window ends up
+ * in only one of the two sets, so a burst of activity becomes a single
+ * delta however many times each seat changed.
+ *
+ * A claim made inside a transaction is only collected once it commits, as
+ * a rollback takes it back; releases are never undone and go out at once.
+ * Deltas are numbered by the feed itself, one after the other, and a
+ * snapshot carries the number of the last delta handed out, so clients
+ * can drop what they already have.
+ */
+class SeatFeed implements SeatInventory.ChangeListener {
+
+    final Long showtimeId;
+    final SeatInventory inventory;
+    final Set<SeatSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // last rendered snapshot, reused until the inventory or the feed moves on
+    volatile RenderedSnapshot snapshot;
+
+    private final BitSet claimed = new BitSet();
+    private final BitSet released = new BitSet();
+    private long sequence;
+
+    SeatFeed(Long showtimeId, SeatInventory inventory) {
+        this.showtimeId = showtimeId;
+        this.inventory = inventory;
+    }
+
+    @Override
+    public void onChange(long version, int[] claimedSeats, int[] releasedSeats) {
+        if (claimedSeats.length > 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(claimedSeats, releasedSeats);
+                }
+            });
+        } else {
+            record(claimedSeats, releasedSeats);
+        }
+    }
+
+    private synchronized void record(int[] claimedSeats, int[] releasedSeats) {
+        for (int index : claimedSeats) {
+            claimed.set(index);
+            released.clear(index);
+        }
+        for (int index : releasedSeats) {
+            released.set(index);
+            claimed.clear(index);
+        }
+    }
+
+    /**
+     * Takes the changes collected so far, or null when there were none.
+     */
+    synchronized SeatDelta drain() {
+        if (claimed.isEmpty() && released.isEmpty()) {
+            return null;
+        }
+        SeatDelta delta = new SeatDelta(++sequence, claimed.stream().toArray(), released.stream().toArray());
+        claimed.clear();
+        released.clear();
+        return delta;
+    }
+
+    // Number of the last delta handed out, every change collected after it goes into a later one
+    synchronized long sequence() {
+        return sequence;
+    }
+
+    record RenderedSnapshot(long inventoryVersion, long sequence, Set<DataWithMediaType> event) {
+    }
+}
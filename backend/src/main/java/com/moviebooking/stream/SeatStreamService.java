@@ -0,0 +1,186 @@
+package com.moviebooking.stream;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.inventory.SeatInventory;
+import com.moviebooking.inventory.SeatInventoryService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Live seat availability over Server-Sent Events. A new stream starts with
+ * a snapshot (the booked seat indexes); after that a flusher collects the
+ * changes of each showtime every {@value #FLUSH_MILLIS} ms, renders them
+ * into one delta event and hands the same event to every subscriber.
+ * Writes happen on a small writer pool, never on the booking threads.
+ */
+@Service
+public class SeatStreamService {
+
+    private static final long FLUSH_MILLIS = 100;
+    private static final long HEARTBEAT_MILLIS = 15000;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Value("${booking.stream.buffer-size:16}")
+    private int bufferSize;
+
+    @Value("${booking.stream.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${booking.stream.writer-threads:4}")
+    private int writerThreads;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    private final Map<Long, SeatFeed> feeds = new ConcurrentHashMap<>();
+    private ExecutorService writers;
+
+    public SeatStreamService(MeterRegistry meterRegistry) {
+        Gauge.builder("booking.stream.subscribers", feeds, f -> f.values().stream().mapToInt(feed -> feed.subscribers.size()).sum())
+                .description("Open seat availability streams")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads, task -> {
+            Thread thread = new Thread(task, "seat-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+
+    public SseEmitter subscribe(Long showtimeId) {
+        SeatInventory inventory = seatInventoryService.getInventory(showtimeId);
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        SeatSubscriber[] subscribed = new SeatSubscriber[1];
+        // joined under the map's lock for the showtime, so a feed being dropped is never joined
+        feeds.compute(showtimeId, (id, feed) -> {
+            if (feed == null) {
+                feed = new SeatFeed(id, inventory);
+                inventory.addChangeListener(feed);
+            }
+            SeatFeed joined = feed;
+            subscribed[0] = new SeatSubscriber(emitter, bufferSize, () -> snapshot(joined));
+            feed.subscribers.add(subscribed[0]);
+            return feed;
+        });
+        SeatSubscriber subscriber = subscribed[0];
+        Runnable unsubscribe = () -> unsubscribe(showtimeId, subscriber);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        // a new subscriber starts out needing a snapshot
+        subscriber.schedule(writers);
+        return emitter;
+    }
+
+    // The last one out drops the feed, the inventory stops reporting to it
+    void unsubscribe(Long showtimeId, SeatSubscriber subscriber) {
+        subscriber.close();
+        feeds.computeIfPresent(showtimeId, (id, feed) -> {
+            if (!feed.subscribers.remove(subscriber) || !feed.subscribers.isEmpty()) {
+                return feed;
+            }
+            feed.inventory.removeChangeListener(feed);
+            return null;
+        });
+    }
+
+    int getFeedCount() {
+        return feeds.size();
+    }
+
+    public int getSubscriberCount(Long showtimeId) {
+        SeatFeed feed = feeds.get(showtimeId);
+        return feed != null ? feed.subscribers.size() : 0;
+    }
+
+    @Scheduled(fixedDelay = FLUSH_MILLIS)
+    public void flush() {
+        for (SeatFeed feed : feeds.values()) {
+            SeatDelta delta = feed.drain();
+            if (delta == null || feed.subscribers.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("version", delta.version());
+            body.put("claimed", delta.claimed());
+            body.put("released", delta.released());
+            Set<DataWithMediaType> event = render("delta", delta.version(), body);
+            for (SeatSubscriber subscriber : feed.subscribers) {
+                subscriber.offer(event, writers);
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and finds dead ones
+    @Scheduled(fixedRate = HEARTBEAT_MILLIS)
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (SeatFeed feed : feeds.values()) {
+            for (SeatSubscriber subscriber : feed.subscribers) {
+                subscriber.offer(ping, writers);
+            }
+        }
+    }
+
+    private Set<DataWithMediaType> snapshot(SeatFeed feed) {
+        SeatInventory inventory = feed.inventory;
+        // numbers first, so the seats read are at least as new as the delta the snapshot claims to follow
+        long sequence = feed.sequence();
+        long inventoryVersion = inventory.getVersion();
+        SeatFeed.RenderedSnapshot cached = feed.snapshot;
+        if (cached != null && cached.sequence() == sequence && cached.inventoryVersion() == inventoryVersion) {
+            return cached.event();
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", sequence);
+        body.put("seatsPerRow", inventory.getSeatsPerRow());
+        body.put("seatsTotal", inventory.getSeatsTotal());
+        body.put("taken", inventory.takenSeats());
+        Set<DataWithMediaType> event = render("snapshot", sequence, body);
+        feed.snapshot = new SeatFeed.RenderedSnapshot(inventoryVersion, sequence, event);
+        return event;
+    }
+
+    private static Set<DataWithMediaType> render(String name, long version, Map<String, Object> body) {
+        try {
+            return SseEmitter.event()
+                    .name(name)
+                    .id(String.valueOf(version))
+                    .data(MAPPER.writeValueAsString(body), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not render seat event", e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.moviebooking.stream;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One open stream. Events are rendered once per feed and shared by all
+ * its subscribers, then wait here in a small bounded queue. A client that
+ * falls so far behind that the queue overflows loses the queued deltas
+ * and gets a fresh snapshot instead, so a slow reader costs a fixed amount
+ * of memory and never holds up the others.
+ */
+class SeatSubscriber {
+
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final Supplier<Set<DataWithMediaType>> snapshot;
+    private final ArrayDeque<Set<DataWithMediaType>> queue = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private boolean resync = true;
+    private volatile boolean closed;
+
+    SeatSubscriber(SseEmitter emitter, int capacity, Supplier<Set<DataWithMediaType>> snapshot) {
+        this.emitter = emitter;
+        this.capacity = capacity;
+        this.snapshot = snapshot;
+    }
+
+    SseEmitter getEmitter() { return emitter; }
+
+    boolean isClosed() { return closed; }
+
+    void offer(Set<DataWithMediaType> event, Executor writers) {
+        if (closed) {
+            return;
+        }
+        synchronized (this) {
+            if (!resync) {
+                if (queue.size() >= capacity) {
+                    // coalesce: everything queued is superseded by one snapshot
+                    queue.clear();
+                    resync = true;
+                } else {
+                    queue.add(event);
+                }
+            }
+        }
+        schedule(writers);
+    }
+
+    void schedule(Executor writers) {
+        if (!closed && draining.compareAndSet(false, true)) {
+            writers.execute(this::drain);
+        }
+    }
+
+    void close() {
+        closed = true;
+        synchronized (this) {
+            queue.clear();
+        }
+    }
+
+    // At most one writer per subscriber, events go out in order
+    private void drain() {
+        do {
+            if (!sendQueued()) {
+                return;
+            }
+            draining.set(false);
+            // something may have arrived between the last poll and clearing the flag
+        } while (hasQueued() && draining.compareAndSet(false, true));
+    }
+
+    private boolean sendQueued() {
+        try {
+            Set<DataWithMediaType> next;
+            while (!closed && (next = poll()) != null) {
+                emitter.send(next);
+            }
+            return !closed;
+        } catch (IOException | IllegalStateException e) {
+            // client went away, the emitter callbacks unsubscribe it
+            close();
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private synchronized Set<DataWithMediaType> poll() {
+        if (resync) {
+            resync = false;
+            queue.clear();
+            return snapshot.get();
+        }
+        return queue.poll();
+    }
+
+    private synchronized boolean hasQueued() {
+        return !closed && (resync || !queue.isEmpty());
+    }
+}
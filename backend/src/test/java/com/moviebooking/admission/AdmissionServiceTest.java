@@ -0,0 +1,175 @@
+package com.moviebooking.admission;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.moviebooking.dto.QueueStatus;
+import com.moviebooking.repository.ShowtimeRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdmissionServiceTest {
+
+    private final ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+    private AdmissionService admission;
+
+    @BeforeEach
+    void setUp() {
+        admission = new AdmissionService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(admission, "showtimeRepository", showtimeRepository);
+        ReflectionTestUtils.setField(admission, "maxConcurrent", 2);
+        ReflectionTestUtils.setField(admission, "ratePerSecond", 1000.0);
+        ReflectionTestUtils.setField(admission, "admitTtlSeconds", 120L);
+        ReflectionTestUtils.setField(admission, "idleTimeoutSeconds", 60L);
+        ReflectionTestUtils.setField(admission, "maxQueueDepth", 100);
+        when(showtimeRepository.existsById(anyLong())).thenAnswer(call -> call.getArgument(0, Long.class) < 100);
+    }
+
+    @Test
+    void fullShowtime_QueuesBookersAndAdmitsThemOldestFirst() {
+        AdmissionService.Admission first = admission.enter(1L, null);
+        AdmissionService.Admission second = admission.enter(1L, null);
+        QueueStatus third = queued(1L, null);
+        QueueStatus fourth = queued(1L, null);
+        assertEquals(1, third.getPosition());
+        assertEquals(2, fourth.getPosition());
+
+        // nobody left, nobody gets in
+        admission.admit();
+        assertEquals("WAITING", admission.status(1L, third.getToken()).getStatus());
+
+        first.close();
+        admission.admit();
+        assertEquals("ADMITTED", admission.status(1L, third.getToken()).getStatus());
+        assertEquals("WAITING", admission.status(1L, fourth.getToken()).getStatus());
+        assertEquals(1, admission.status(1L, fourth.getToken()).getPosition());
+
+        // a newcomer does not jump the queue while people wait, even with a free slot
+        second.close();
+        queued(1L, null);
+        admission.admit();
+        assertEquals("ADMITTED", admission.status(1L, fourth.getToken()).getStatus());
+
+        admission.enter(1L, third.getToken()).close();
+        // a ticket is good for one booking attempt
+        queued(1L, third.getToken());
+    }
+
+    @Test
+    void tryEnter_TakesAFreeSlotButNeverQueues() {
+        AdmissionService.Admission first = admission.tryEnter(3L);
+        assertNotNull(first);
+        admission.enter(3L, null);
+        assertNull(admission.tryEnter(3L));
+
+        // the refused caller did not join, the next booker is first in line
+        QueueStatus waiting = queued(3L, null);
+        assertEquals(1, waiting.getPosition());
+        // someone waits, a free slot goes to them and not to a caller that cannot queue
+        first.close();
+        assertNull(admission.tryEnter(3L));
+        assertEquals(1, admission.status(3L, waiting.getToken()).getPosition());
+    }
+
+    @Test
+    void showtimes_HaveTheirOwnCapacity() {
+        admission.enter(1L, null);
+        admission.enter(1L, null);
+        queued(1L, null);
+        admission.enter(2L, null);
+        admission.enter(2L, null).close();
+        admission.enter(2L, null);
+        queued(2L, null);
+    }
+
+    @Test
+    void unusedAdmission_ExpiresAndFreesItsSlot() throws InterruptedException {
+        ReflectionTestUtils.setField(admission, "admitTtlSeconds", 0L);
+        admission.enter(1L, null).close();
+        AdmissionService.Admission holder = admission.enter(1L, null);
+        admission.enter(1L, null);
+        QueueStatus waiting = queued(1L, null);
+        holder.close();
+        admission.admit();
+        assertEquals("ADMITTED", admission.status(1L, waiting.getToken()).getStatus());
+
+        Thread.sleep(5);
+        admission.admit();
+        assertEquals("EXPIRED", admission.status(1L, waiting.getToken()).getStatus());
+        // the slot went back to the pool, the late ticket counts as a newcomer
+        admission.enter(1L, null);
+        queued(1L, waiting.getToken());
+    }
+
+    @Test
+    void bookerWhoStoppedPolling_IsSkipped() {
+        AdmissionService.Admission holder = admission.enter(1L, null);
+        admission.enter(1L, null);
+        QueueStatus gone = queued(1L, null);
+        QueueStatus polling = queued(1L, null);
+        // last polled longer ago than the idle timeout
+        ticket(gone.getToken()).lastSeen -= 61_000;
+        admission.status(1L, polling.getToken());
+
+        holder.close();
+        admission.admit();
+        assertEquals("EXPIRED", admission.status(1L, gone.getToken()).getStatus());
+        assertEquals("ADMITTED", admission.status(1L, polling.getToken()).getStatus());
+    }
+
+    @Test
+    void fullWaitingRoom_RejectsNewcomers() {
+        ReflectionTestUtils.setField(admission, "maxQueueDepth", 1);
+        admission.enter(1L, null);
+        admission.enter(1L, null);
+        queued(1L, null);
+        RuntimeException rejected = assertThrows(RuntimeException.class, () -> admission.enter(1L, null));
+        assertEquals("Waiting room is full, please try again later", rejected.getMessage());
+    }
+
+    @Test
+    void unknownShowtime_OpensNoRoom() {
+        assertThrows(IllegalArgumentException.class, () -> admission.enter(500L, null));
+        assertThrows(IllegalArgumentException.class, () -> admission.join(501L));
+        assertEquals("EXPIRED", admission.status(502L, "token").getStatus());
+        assertEquals(0, admission.getRoomCount());
+    }
+
+    @Test
+    void idleRooms_AreDropped() throws InterruptedException {
+        admission.enter(1L, null).close();
+        AdmissionService.Admission busy = admission.enter(2L, null);
+        ReflectionTestUtils.setField(admission, "idleTimeoutSeconds", 0L);
+        Thread.sleep(5);
+
+        admission.admit();
+        assertEquals(1, admission.getRoomCount());
+
+        busy.close();
+        Thread.sleep(5);
+        admission.admit();
+        assertEquals(0, admission.getRoomCount());
+        // a later booker gets a fresh room
+        admission.enter(1L, null).close();
+        assertEquals(1, admission.getRoomCount());
+    }
+
+    private QueueStatus queued(Long showtimeId, String token) {
+        return assertThrows(AdmissionQueuedException.class, () -> admission.enter(showtimeId, token)).getStatus();
+    }
+
+    @SuppressWarnings("unchecked")
+    private AdmissionTicket ticket(String token) {
+        return ((Map<String, AdmissionTicket>) ReflectionTestUtils.getField(admission, "tickets")).get(token);
+    }
+}
@@ -0,0 +1,138 @@
+package com.moviebooking.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CatalogCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void concurrentMisses_LoadOnce() throws Exception {
+        CatalogCache<String, String> cache = new CatalogCache<>("movies", 10, 60, registry, clock::get);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<Future<String>> results = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            results.add(callers.submit(() -> cache.get("all", key -> {
+                loads.incrementAndGet();
+                await(loading);
+                return "catalog";
+            })));
+        }
+        Thread.sleep(100);
+        loading.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("catalog", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, count("catalog.cache.gets", "result", "miss"));
+        assertEquals(99, count("catalog.cache.gets", "result", "hit"));
+        callers.shutdown();
+    }
+
+    @Test
+    void entries_ExpireAndEvictOldestFirst() {
+        CatalogCache<Integer, Integer> cache = new CatalogCache<>("movie", 2, 60, registry, clock::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, key -> loads.incrementAndGet());
+        cache.get(2, key -> loads.incrementAndGet());
+        cache.get(3, key -> loads.incrementAndGet());
+        assertEquals(2, cache.size());
+        assertEquals(1, count("catalog.cache.evictions", "cause", "size"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertEquals(4, cache.get(3, key -> loads.incrementAndGet()));
+        assertEquals(1, count("catalog.cache.evictions", "cause", "expired"));
+    }
+
+    @Test
+    void failedLoad_IsNotCached() {
+        CatalogCache<String, String> cache = new CatalogCache<>("movie-search", 10, 60, registry, clock::get);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("dune", key -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals("Dune", cache.get("dune", key -> "Dune"));
+    }
+
+    @Test
+    void invalidate_DropsTheMatchingKeysOrEverything() {
+        CatalogCache<String, String> cache = new CatalogCache<>("movie-search", 10, 60, registry, clock::get);
+        cache.get("search:dune", key -> "Dune");
+        cache.get("movie:1", key -> "Avatar");
+
+        cache.invalidateIf(key -> key.startsWith("search:"));
+        assertEquals("Avatar", cache.get("movie:1", key -> "Avatar 2"));
+        assertEquals("Dune: Part Two", cache.get("search:dune", key -> "Dune: Part Two"));
+
+        cache.invalidateAll();
+        assertEquals("Avatar 2", cache.get("movie:1", key -> "Avatar 2"));
+        assertEquals(3, count("catalog.cache.evictions", "cause", "invalidated"));
+    }
+
+    @Test
+    void entriesAddedDuringInvalidateAll_AreStillEvicted() throws Exception {
+        CatalogCache<Integer, Integer> cache = new CatalogCache<>("catalog-responses", 8, 60, registry, clock::get);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        AtomicInteger keys = new AtomicInteger();
+        List<Future<?>> running = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            running.add(callers.submit(() -> {
+                for (int i = 0; i < 200000; i++) {
+                    cache.get(keys.incrementAndGet(), key -> key);
+                }
+            }));
+        }
+        running.add(callers.submit(() -> {
+            while (keys.get() < 600000) {
+                cache.invalidateAll();
+            }
+        }));
+        for (Future<?> done : running) {
+            done.get(30, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        // fresh keys push out everything older, nothing slipped out of the eviction order
+        for (int i = 0; i < 16; i++) {
+            cache.get(-1 - i, key -> key);
+        }
+        AtomicInteger reloaded = new AtomicInteger();
+        for (int i = 8; i < 16; i++) {
+            cache.get(-1 - i, key -> reloaded.incrementAndGet());
+        }
+        assertEquals(0, reloaded.get());
+        assertEquals(8, cache.size());
+    }
+
+    private long count(String meter, String tag, String value) {
+        return (long) registry.get(meter).tag(tag, value).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
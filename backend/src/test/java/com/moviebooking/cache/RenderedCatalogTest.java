@@ -0,0 +1,104 @@
+package com.moviebooking.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RenderedCatalogTest {
+
+    private final RenderedCatalog catalog = new RenderedCatalog(new ObjectMapper(), new SimpleMeterRegistry(), 100, 60);
+
+    @Test
+    void render_RunsOncePerCatalogVersion() throws IOException {
+        AtomicInteger loads = new AtomicInteger();
+        List<Map<String, String>> movies = List.of(Map.of("title", "Dune"));
+
+        RenderedResponse first = catalog.get("movies", () -> {
+            loads.incrementAndGet();
+            return movies;
+        });
+        RenderedResponse second = catalog.get("movies", () -> {
+            loads.incrementAndGet();
+            return movies;
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals("[{\"title\":\"Dune\"}]", new String(second.json()));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertArrayEquals(first.json(), in.readAllBytes());
+        }
+        assertNotEquals(first.etag(), first.gzipEtag());
+    }
+
+    @Test
+    void invalidate_ChangesTheEtag() {
+        RenderedResponse before = catalog.get("movies", () -> List.of("Dune"));
+        catalog.invalidate();
+        RenderedResponse after = catalog.get("movies", () -> List.of("Dune"));
+
+        assertArrayEquals(before.json(), after.json());
+        assertNotEquals(before.etag(), after.etag());
+        assertTrue(after.etag().startsWith("\"2-"));
+    }
+
+    @Test
+    void movieChanged_DropsTheResponsesThatCanListIt() {
+        AtomicInteger loads = new AtomicInteger();
+        for (String key : List.of("movies", "movie:1", "movie:2", "search:dune")) {
+            catalog.get(key, () -> List.of(loads.incrementAndGet()));
+        }
+
+        catalog.movieChanged(1L);
+        for (String key : List.of("movies", "movie:1", "movie:2", "search:dune")) {
+            catalog.get(key, () -> List.of(loads.incrementAndGet()));
+        }
+
+        // only the other movie's page is still served from memory
+        assertEquals(7, loads.get());
+    }
+
+    @Test
+    void seatsChanged_DropsTheMoviesOnTheNextTickAndKeepsSearches() {
+        AtomicInteger loads = new AtomicInteger();
+        List<String> keys = List.of("movies", "movie:1", "movie:2", "search:dune");
+        for (String key : keys) {
+            catalog.get(key, () -> List.of(loads.incrementAndGet()));
+        }
+
+        // a burst of bookings on one movie
+        for (int i = 0; i < 50; i++) {
+            catalog.seatsChanged(1L);
+        }
+        for (String key : keys) {
+            catalog.get(key, () -> List.of(loads.incrementAndGet()));
+        }
+        assertEquals(4, loads.get());
+
+        catalog.refreshSeatCounts();
+        catalog.refreshSeatCounts();
+        for (String key : keys) {
+            catalog.get(key, () -> List.of(loads.incrementAndGet()));
+        }
+        // the listing and the movie's page render once more, searches wait for their TTL
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void emptyOptional_RendersNotFound() {
+        assertTrue(catalog.get("movie:9", Optional::empty).isEmpty());
+    }
+}
@@ -0,0 +1,159 @@
+package com.moviebooking.controller;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.admission.AdmissionQueuedException;
+import com.moviebooking.admission.AdmissionService;
+import com.moviebooking.admission.WaitingRoomFullException;
+import com.moviebooking.dto.BookingRequest;
+import com.moviebooking.dto.QueueStatus;
+import com.moviebooking.entity.Booking;
+import com.moviebooking.entity.Movie;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.idempotency.IdempotencyService;
+import com.moviebooking.inventory.SeatUnavailableException;
+import com.moviebooking.inventory.ShardBusyException;
+import com.moviebooking.repository.IdempotencyRecordRepository;
+import com.moviebooking.service.BookingService;
+
+class BookingControllerTest {
+
+    private final BookingService bookingService = mock(BookingService.class);
+    private final AdmissionService admissionService = mock(AdmissionService.class);
+    private final IdempotencyService idempotencyService = mock(IdempotencyService.class);
+    private final BookingController controller = new BookingController();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "bookingService", bookingService);
+        ReflectionTestUtils.setField(controller, "admissionService", admissionService);
+        ReflectionTestUtils.setField(controller, "idempotencyService", idempotencyService);
+        when(idempotencyService.execute(eq("booking"), any(), any(), any(), any()))
+                .thenAnswer(call -> ((Supplier<ResponseEntity<?>>) call.getArgument(4)).get());
+    }
+
+    @Test
+    void queuedBooker_Gets429WithTheTicketToPoll() {
+        QueueStatus ticket = new QueueStatus("t-1", 9L, "WAITING", 4, 0);
+        when(admissionService.enter(9L, null)).thenThrow(new AdmissionQueuedException(ticket));
+
+        ResponseEntity<?> response = controller.createBooking(request(9L), null, null);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        // a ticket about to be admitted still asks the client to wait a second
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertSame(ticket, response.getBody());
+        verify(bookingService, never()).createBooking(any());
+    }
+
+    @Test
+    void unknownShowtime_IsRejectedWithoutQueueing() {
+        when(admissionService.enter(404L, null)).thenThrow(new IllegalArgumentException("Showtime not found"));
+
+        ResponseEntity<?> response = controller.createBooking(request(404L), null, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Map.of("error", "Showtime not found"), response.getBody());
+    }
+
+    @Test
+    void busyShard_Gets503SoTheSameRequestCanBeRetried() {
+        when(bookingService.createBooking(any())).thenThrow(new ShardBusyException());
+
+        ResponseEntity<?> response = controller.createBooking(request(9L), null, null);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void fullWaitingRoom_Gets503InsteadOfATicket() {
+        when(admissionService.enter(10L, null)).thenThrow(new WaitingRoomFullException());
+
+        ResponseEntity<?> response = controller.createBooking(request(10L), null, null);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(Map.of("error", new WaitingRoomFullException().getMessage()), response.getBody());
+        verify(bookingService, never()).createBooking(any());
+    }
+
+    @Test
+    void takenSeat_Gets400() {
+        when(bookingService.createBooking(any())).thenThrow(new SeatUnavailableException("Seat A1 is already booked"));
+
+        ResponseEntity<?> response = controller.createBooking(request(9L), null, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Map.of("error", "Seat A1 is already booked"), response.getBody());
+    }
+
+    @Test
+    void transientFailure_Gets500AndIsNotReplayed() {
+        IdempotencyRecordRepository recordRepository = mock(IdempotencyRecordRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        IdempotencyService realIdempotency = new IdempotencyService();
+        ReflectionTestUtils.setField(realIdempotency, "recordRepository", recordRepository);
+        ReflectionTestUtils.setField(realIdempotency, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(realIdempotency, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(realIdempotency, "ttlHours", 24L);
+        ReflectionTestUtils.setField(realIdempotency, "maxEntries", 100);
+        ReflectionTestUtils.setField(realIdempotency, "waitSeconds", 5L);
+        ReflectionTestUtils.setField(controller, "idempotencyService", realIdempotency);
+
+        Movie movie = new Movie();
+        movie.setTitle("Dune");
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        Booking booking = new Booking(showtime, "[{\"row\":1,\"seat\":1}]", new BigDecimal("250"));
+        booking.setId(31L);
+        when(bookingService.createBooking(any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(booking);
+
+        ResponseEntity<?> failed = controller.createBooking(request(9L), null, "key-1");
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, failed.getStatusCode());
+        verify(recordRepository, never()).complete(anyString(), anyInt(), anyString());
+
+        // the retry under the same key books instead of replaying the failure
+        ResponseEntity<?> retried = controller.createBooking(request(9L), null, "key-1");
+        assertEquals(HttpStatus.OK, retried.getStatusCode());
+        assertEquals(null, retried.getHeaders().getFirst("Idempotent-Replayed"));
+        verify(bookingService, times(2)).createBooking(any());
+        verify(recordRepository).complete(anyString(), eq(200), anyString());
+    }
+
+    private static BookingRequest request(Long showtimeId) {
+        BookingRequest request = new BookingRequest();
+        request.setShowtimeId(showtimeId);
+        request.setSeats("[{\"row\":1,\"seat\":1}]");
+        request.setAmount(new BigDecimal("250"));
+        return request;
+    }
+}
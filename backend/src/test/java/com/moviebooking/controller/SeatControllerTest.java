@@ -0,0 +1,71 @@
+package com.moviebooking.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.moviebooking.inventory.SeatInventory;
+import com.moviebooking.inventory.SeatInventoryService;
+import com.moviebooking.inventory.SeatMapFormat;
+
+class SeatControllerTest {
+
+    private final SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+    private final SeatInventory inventory = SeatInventory.create(20, 10);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        inventory.claim(new int[] { 3, 4 });
+        when(seatInventoryService.getInventory(4L)).thenReturn(inventory);
+
+        SeatController controller = new SeatController();
+        ReflectionTestUtils.setField(controller, "seatInventoryService", seatInventoryService);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void binaryAccept_GetsTheCompactSeatMap() throws Exception {
+        byte[] body = mvc.perform(get("/api/showtimes/4/seats").header(HttpHeaders.ACCEPT, SeatMapFormat.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SeatMapFormat.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        SeatInventory decoded = SeatMapFormat.decode(body);
+        assertEquals(20, decoded.getSeatsTotal());
+        assertFalse(decoded.isAvailable(3));
+        assertTrue(decoded.isAvailable(5));
+    }
+
+    @Test
+    void jsonAnyOrNoAccept_KeepGettingTheJsonSeatMap() throws Exception {
+        // what the existing clients send
+        expectJson(mvc.perform(get("/api/showtimes/4/seats").accept(MediaType.APPLICATION_JSON)));
+        expectJson(mvc.perform(get("/api/showtimes/4/seats").header(HttpHeaders.ACCEPT, "*/*")));
+        expectJson(mvc.perform(get("/api/showtimes/4/seats")));
+        expectJson(mvc.perform(get("/api/showtimes/4/seats")
+                .header(HttpHeaders.ACCEPT, "application/json, text/plain, */*")));
+    }
+
+    private void expectJson(ResultActions result) throws Exception {
+        result.andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(20))
+                .andExpect(jsonPath("$[3].available").value(false))
+                .andExpect(jsonPath("$[5].available").value(true));
+    }
+}
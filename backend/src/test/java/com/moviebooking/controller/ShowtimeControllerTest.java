@@ -0,0 +1,96 @@
+package com.moviebooking.controller;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.moviebooking.entity.Movie;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.inventory.SeatInventory;
+import com.moviebooking.inventory.SeatInventoryService;
+import com.moviebooking.journal.BookingJournal;
+import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.service.ShowtimeService;
+
+class ShowtimeControllerTest {
+
+    private final ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        SeatInventoryService seatInventoryService = new SeatInventoryService();
+        ReflectionTestUtils.setField(seatInventoryService, "showtimeRepository", showtimeRepository);
+        ReflectionTestUtils.setField(seatInventoryService, "journal", mock(BookingJournal.class));
+        ShowtimeService showtimeService = new ShowtimeService();
+        ReflectionTestUtils.setField(showtimeService, "showtimeRepository", showtimeRepository);
+        ReflectionTestUtils.setField(showtimeService, "seatInventoryService", seatInventoryService);
+
+        ShowtimeController controller = new ShowtimeController();
+        ReflectionTestUtils.setField(controller, "showtimeService", showtimeService);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void showtime_ListsBookedSeatIndexesAndSeatTypeRuns() throws Exception {
+        // 3 rows of 10: a recliner row at the back, two seats in the middle row booked
+        SeatInventory inventory = SeatInventory.create(30, 10);
+        for (int index = 20; index < 30; index++) {
+            inventory.setType(index, "recliner");
+        }
+        inventory.setType(0, "wheelchair");
+        inventory.claim(new int[] { 14, 15 });
+        inventory.claim(new int[] { 27 });
+        when(showtimeRepository.findWithMovieById(4L)).thenReturn(Optional.of(showtime(4L, inventory, 27)));
+
+        mvc.perform(get("/api/showtimes/4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(4))
+                .andExpect(jsonPath("$.seatsAvailable").value(27))
+                .andExpect(jsonPath("$.movie.title").value("Dune"))
+                .andExpect(jsonPath("$.seats.version").value(2))
+                .andExpect(jsonPath("$.seats.rows").value(3))
+                .andExpect(jsonPath("$.seats.seatsPerRow").value(10))
+                .andExpect(jsonPath("$.seats.taken", contains(14, 15, 27)))
+                .andExpect(jsonPath("$.seats.types[*].type", contains("wheelchair", "regular", "recliner")))
+                .andExpect(jsonPath("$.seats.types[*].count", contains(1, 19, 10)));
+
+        when(showtimeRepository.findWithMovieById(5L))
+                .thenReturn(Optional.of(showtime(5L, SeatInventory.create(20, 10), 20)));
+        mvc.perform(get("/api/showtimes/5"))
+                .andExpect(jsonPath("$.seats.taken", empty()))
+                .andExpect(jsonPath("$.seats.types[*].count", contains(20)));
+    }
+
+    @Test
+    void unknownShowtime_Is404() throws Exception {
+        when(showtimeRepository.findWithMovieById(99L)).thenReturn(Optional.empty());
+
+        mvc.perform(get("/api/showtimes/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Showtime not found"));
+    }
+
+    private static Showtime showtime(Long id, SeatInventory inventory, int seatsAvailable) {
+        Movie movie = new Movie("Dune", 155, "Sci-Fi", "/dune.jpg", "Spice");
+        movie.setId(1L);
+        Showtime showtime = new Showtime(movie, "Screen 1", "Pune", LocalDateTime.of(2026, 3, 10, 19, 0),
+                inventory.getSeatsTotal(), inventory.toBytes());
+        showtime.setId(id);
+        showtime.setInventoryVersion(inventory.getVersion());
+        showtime.setSeatsAvailable(seatsAvailable);
+        return showtime;
+    }
+}
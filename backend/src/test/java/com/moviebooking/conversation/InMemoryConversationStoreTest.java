@@ -0,0 +1,108 @@
+package com.moviebooking.conversation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InMemoryConversationStoreTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void state_KeepsEverySlotTheAssistantSets() {
+        Map<String, Object> slots = new HashMap<>();
+        slots.put("movie_name", "Spider-Man: No Way Home");
+        slots.put("num_seats", 2);
+        slots.put("date", "2026-10-19");
+        slots.put("time", "19:30");
+        slots.put("showtime_id", 17L);
+        slots.put("seats", "[{\"row\":6,\"seat\":5},{\"row\":6,\"seat\":6}]");
+        slots.put("seat_labels", "F5, F6");
+        slots.put("booking_id", 42L);
+
+        ConversationState state = ConversationState.decode(ConversationState.of(slots).encode());
+        assertEquals(slots, state.slots());
+        assertTrue(state.size() < 100, state.size() + " bytes");
+
+        Map<String, Object> partial = Map.of("num_seats", 1, "time", "25:00", "unknown", "dropped");
+        assertEquals(Map.of("num_seats", 1, "time", "25:00"), ConversationState.of(partial).slots());
+        assertEquals(Map.of(), ConversationState.of(Map.of()).slots());
+    }
+
+    @Test
+    void idleConversations_ExpireAndFullStripesDropTheLeastRecentlyUsed() {
+        InMemoryConversationStore store = new InMemoryConversationStore(registry, 2, 60, 1, clock::get);
+        store.save("a", state(1));
+        store.save("b", state(2));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        // reading "a" makes "b" the least recently used
+        assertEquals(1, store.load("a").slots().get("num_seats"));
+        store.save("c", state(3));
+        assertNull(store.load("b"));
+        assertEquals(1, count("size"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(45));
+        // only "c" is spoken to again, "a" goes idle past the TTL
+        assertNotNull(store.load("c"));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        store.sweep();
+        assertEquals(1, store.size());
+        assertEquals(1, count("expired"));
+        assertEquals(3, store.load("c").slots().get("num_seats"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertNull(store.load("c"));
+        assertEquals(2, count("expired"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void concurrentConversations_StaySeparateAndBounded() throws Exception {
+        InMemoryConversationStore store = new InMemoryConversationStore(registry, 1024, 60, 16, clock::get);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            done.add(callers.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    String id = thread + "-" + i;
+                    store.save(id, state(i % 10 + 1));
+                    ConversationState loaded = store.load(id);
+                    // evicted already only if its stripe filled up in between
+                    if (loaded != null) {
+                        assertEquals(i % 10 + 1, loaded.slots().get("num_seats"));
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : done) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+        assertEquals(1024, store.size());
+        assertEquals(16000 - 1024, count("size"));
+    }
+
+    private static ConversationState state(int seats) {
+        return ConversationState.of(Map.of("num_seats", seats, "movie_name", "Dune"));
+    }
+
+    private long count(String cause) {
+        return (long) registry.get("nlp.conversations.evictions").tag("cause", cause).counter().count();
+    }
+}
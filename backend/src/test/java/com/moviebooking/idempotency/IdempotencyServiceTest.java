@@ -0,0 +1,218 @@
+package com.moviebooking.idempotency;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.entity.IdempotencyRecord;
+import com.moviebooking.repository.IdempotencyRecordRepository;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        ReflectionTestUtils.setField(idempotencyService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "maxEntries", 100);
+        ReflectionTestUtils.setField(idempotencyService, "waitSeconds", 5L);
+    }
+
+    @Test
+    void concurrentDuplicates_RunOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        Future<ResponseEntity<?>> first = callers.submit(() -> idempotencyService.execute("booking", "key-1", Map.of("seats", 2), () -> {
+            runs.incrementAndGet();
+            await(release);
+            return ResponseEntity.ok(Map.of("id", 7));
+        }));
+        Thread.sleep(100);
+        Future<ResponseEntity<?>> duplicate = callers.submit(() -> idempotencyService.execute("booking", "key-1", Map.of("seats", 2), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok(Map.of("id", 8));
+        }));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals(Map.of("id", 7), first.get(5, TimeUnit.SECONDS).getBody());
+        ResponseEntity<?> replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals("{\"id\":7}", replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(1, runs.get());
+        verify(recordRepository).complete(eq("booking:anonymous:key-1"), eq(200), eq("{\"id\":7}"));
+        callers.shutdown();
+    }
+
+    @Test
+    void sameKeyDifferentRequest_IsRejected() {
+        idempotencyService.execute("payment", "key-2", Map.of("bookingId", 1), () -> ResponseEntity.ok(Map.of("status", "SUCCESS")));
+
+        ResponseEntity<?> response = idempotencyService.execute("payment", "key-2", Map.of("bookingId", 2),
+                () -> ResponseEntity.ok(Map.of("status", "SUCCESS")));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+    }
+
+    @Test
+    void queuedResponse_IsNotKept() {
+        AtomicInteger runs = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            idempotencyService.execute("booking", "key-3", Map.of("seats", 1), () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("status", "WAITING"));
+            });
+        }
+
+        assertEquals(2, runs.get());
+        verify(recordRepository, never()).complete(anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void busyAnswers_AreNotKeptButRefusals_Are() {
+        AtomicInteger runs = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            idempotencyService.execute("booking", "key-5", Map.of("seats", 1), () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Waiting room is full"));
+            });
+        }
+        assertEquals(2, runs.get());
+
+        for (int i = 0; i < 2; i++) {
+            idempotencyService.execute("booking", "key-6", Map.of("seats", 1), () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.badRequest().body(Map.of("error", "Seat A1 is already booked"));
+            });
+        }
+        assertEquals(3, runs.get());
+        verify(recordRepository).complete(anyString(), eq(400), anyString());
+    }
+
+    @Test
+    void sameKeyFromDifferentGuests_RunsForEach() {
+        Map<String, Integer> request = Map.of("seats", 1);
+        ResponseEntity<?> asha = idempotencyService.execute("booking", "asha@example.com", "key-7", request,
+                () -> ResponseEntity.ok(Map.of("id", 1)));
+        ResponseEntity<?> ravi = idempotencyService.execute("booking", "ravi@example.com", "key-7", request,
+                () -> ResponseEntity.ok(Map.of("id", 2)));
+        ResponseEntity<?> ashaAgain = idempotencyService.execute("booking", "Asha@Example.com", "key-7", request,
+                () -> ResponseEntity.ok(Map.of("id", 3)));
+
+        assertEquals(Map.of("id", 1), asha.getBody());
+        assertEquals(Map.of("id", 2), ravi.getBody());
+        assertEquals("{\"id\":1}", ashaAgain.getBody());
+    }
+
+    @Test
+    void overflow_KeepsCallsStillRunning() throws Exception {
+        ReflectionTestUtils.setField(idempotencyService, "maxEntries", 2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        Future<ResponseEntity<?>> running = callers.submit(() -> idempotencyService.execute("booking", "slow",
+                Map.of("seats", 1), () -> {
+                    await(release);
+                    return ResponseEntity.ok(Map.of("id", 1));
+                }));
+        Thread.sleep(100);
+        for (int i = 0; i < 5; i++) {
+            int id = i;
+            idempotencyService.execute("booking", "fast-" + i, Map.of("seats", 1), () -> ResponseEntity.ok(Map.of("id", id)));
+        }
+        Map<?, ?> calls = (Map<?, ?>) ReflectionTestUtils.getField(idempotencyService, "calls");
+        assertTrue(calls.containsKey("booking:anonymous:slow"));
+        assertEquals(2, calls.size());
+
+        // a duplicate of the running call still waits for it instead of running again
+        Future<ResponseEntity<?>> duplicate = callers.submit(() -> idempotencyService.execute("booking", "slow",
+                Map.of("seats", 1), () -> ResponseEntity.ok(Map.of("id", 2))));
+        Thread.sleep(100);
+        release.countDown();
+        assertEquals(Map.of("id", 1), running.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("{\"id\":1}", duplicate.get(5, TimeUnit.SECONDS).getBody());
+
+        // once answered it is evicted like any other
+        idempotencyService.execute("booking", "fast-5", Map.of("seats", 1), () -> ResponseEntity.ok(Map.of("id", 5)));
+        idempotencyService.execute("booking", "fast-6", Map.of("seats", 1), () -> ResponseEntity.ok(Map.of("id", 6)));
+        assertEquals(2, calls.size());
+        assertFalse(calls.containsKey("booking:anonymous:slow"));
+        assertEquals(calls.size(), ((Queue<?>) ReflectionTestUtils.getField(idempotencyService, "order")).size());
+        callers.shutdown();
+    }
+
+    @Test
+    void responseStoredByAnotherNode_IsReplayed() {
+        IdempotencyRecord stored = new IdempotencyRecord("booking:anonymous:key-4", null,
+                java.time.LocalDateTime.now().plusHours(1));
+        ReflectionTestUtils.setField(stored, "requestHash",
+                ReflectionTestUtils.invokeMethod(idempotencyService, "hash", Map.of("seats", 1)));
+        stored.setStatus(200);
+        stored.setResponseBody("{\"id\":3}");
+        when(recordRepository.saveAndFlush(any())).thenThrow(new org.springframework.dao.DataIntegrityViolationException("duplicate"));
+        when(recordRepository.findById("booking:anonymous:key-4")).thenReturn(Optional.of(stored));
+
+        ResponseEntity<?> response = idempotencyService.execute("booking", "key-4", Map.of("seats", 1), () -> {
+            throw new AssertionError("must not run");
+        });
+
+        assertEquals("{\"id\":3}", response.getBody());
+        assertTrue(response.getHeaders().containsKey("Idempotent-Replayed"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
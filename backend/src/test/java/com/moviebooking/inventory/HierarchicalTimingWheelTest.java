@@ -0,0 +1,87 @@
+package com.moviebooking.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimingWheelTest {
+
+    // 10 ms ticks, 64 slots a level: level 0 spans 640 ms, level 1 41 s, level 2 44 min, level 3 47 h
+    private HierarchicalTimingWheel<Long> wheel(long startMillis) {
+        return new HierarchicalTimingWheel<>(10, 6, 4, startMillis, deadline -> deadline);
+    }
+
+    @Test
+    void entry_ExpiresOnTheTickItIsDue() {
+        HierarchicalTimingWheel<Long> wheel = wheel(0);
+        assertTrue(wheel.add(50L));
+        assertTrue(wheel.add(55L));
+
+        assertEquals(List.of(), wheel.advance(49));
+        assertEquals(List.of(50L), wheel.advance(50));
+        // deadlines round up to the next tick
+        assertEquals(List.of(), wheel.advance(59));
+        assertEquals(List.of(55L), wheel.advance(60));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void alreadyDueEntry_IsNotScheduled() {
+        HierarchicalTimingWheel<Long> wheel = wheel(1_000);
+        assertFalse(wheel.add(1_000L));
+        assertFalse(wheel.add(200L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void entriesOnCoarseLevels_CascadeDownAndExpireOnTime() {
+        HierarchicalTimingWheel<Long> wheel = wheel(0);
+        long level1 = 64 * 3 * 10 + 50;
+        long level2 = 64 * 64 * 10 + 1_230;
+        long level3 = 64L * 64 * 64 * 10 + 7_770;
+        long beyondTop = 64L * 64 * 64 * 64 * 10 + 90;
+        for (long deadline : new long[] { level1, level2, level3, beyondTop }) {
+            assertTrue(wheel.add(deadline));
+        }
+        assertEquals(4, wheel.size());
+
+        for (long deadline : new long[] { level1, level2, level3, beyondTop }) {
+            assertEquals(List.of(), wheel.advance(deadline - 10), "early at " + deadline);
+            assertEquals(List.of(deadline), wheel.advance(deadline));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void randomDeadlines_ExpireInOrderAcrossAllLevels() {
+        Random random = new Random(42);
+        long start = 123_456;
+        HierarchicalTimingWheel<Long> wheel = wheel(start);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            // from a few ticks up to about two days out
+            long deadline = start + 10 + (long) Math.pow(10, 1 + random.nextDouble() * 7.2);
+            deadlines.add(deadline);
+            assertTrue(wheel.add(deadline));
+        }
+
+        long now = start;
+        int expired = 0;
+        while (expired < deadlines.size()) {
+            now += 1 + random.nextInt(200_000);
+            long upTo = now;
+            for (Long deadline : wheel.advance(now)) {
+                assertTrue(deadline <= upTo, deadline + " expired at " + upTo);
+                assertTrue(deadline > upTo - 200_010, deadline + " expired late at " + upTo);
+                expired++;
+            }
+            assertEquals(deadlines.size() - expired, wheel.size());
+        }
+        assertEquals(deadlines.size(), expired);
+    }
+}
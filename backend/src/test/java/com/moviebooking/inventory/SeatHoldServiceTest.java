@@ -0,0 +1,151 @@
+package com.moviebooking.inventory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.moviebooking.journal.BookingJournal;
+import com.moviebooking.repository.BookingRepository;
+import com.moviebooking.repository.PaymentRepository;
+import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.schedule.ShowtimeIndex;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SeatHoldServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ShowtimeRepository showtimeRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ShowtimeShardExecutor shardExecutor;
+
+    @Mock
+    private BookingJournal journal;
+
+    @Mock
+    private ShowtimeIndex showtimeIndex;
+
+    @InjectMocks
+    private SeatHoldService seatHoldService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(seatHoldService, "ttlSeconds", 1L);
+        when(bookingRepository.findIdsByStatus(anyCollection(), any())).thenReturn(List.of(1L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void confirmedHold_IsNotExpired() throws InterruptedException {
+        seatHoldService.hold(1L, 7L, new int[] { 3, 4 });
+        seatHoldService.confirm(1L);
+
+        Thread.sleep(2_100);
+        seatHoldService.expireHolds();
+
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        assertThrows(RuntimeException.class, () -> seatHoldService.confirm(1L));
+    }
+
+    @Test
+    void paymentRolledBack_PutsTheHoldBack() {
+        seatHoldService.hold(1L, 7L, new int[] { 3, 4 });
+        TransactionSynchronizationManager.initSynchronization();
+        seatHoldService.confirm(1L);
+        assertFalse(seatHoldService.isHeld(1L));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(seatHoldService.isHeld(1L));
+    }
+
+    @Test
+    void paymentRolledBackPastTheDeadline_LeavesTheReleaseToTheSweep() throws InterruptedException {
+        seatHoldService.hold(1L, 7L, new int[] { 3, 4 });
+        TransactionSynchronizationManager.initSynchronization();
+        seatHoldService.confirm(1L);
+        Thread.sleep(1_100);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // nothing runs in the callback, the booking is still held until the wheel thread gets to it
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        assertTrue(seatHoldService.isHeld(1L));
+
+        Thread.sleep(2_100);
+        seatHoldService.expireHolds();
+        assertFalse(seatHoldService.isHeld(1L));
+        verify(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void paymentCommitted_KeepsTheHoldGone() {
+        seatHoldService.hold(1L, 7L, new int[] { 3, 4 });
+        TransactionSynchronizationManager.initSynchronization();
+        seatHoldService.confirm(1L);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertFalse(seatHoldService.isHeld(1L));
+    }
+
+    @Test
+    void unpaidHold_ExpiresAndCancelsTheBooking() throws InterruptedException {
+        seatHoldService.hold(1L, 7L, new int[] { 3, 4 });
+
+        Thread.sleep(2_100);
+        seatHoldService.expireHolds();
+
+        assertFalse(seatHoldService.isHeld(1L));
+        verify(transactionTemplate).executeWithoutResult(any());
+        assertThrows(RuntimeException.class, () -> seatHoldService.confirm(1L));
+    }
+}
@@ -0,0 +1,55 @@
+package com.moviebooking.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Claim and release throughput of one {@link SeatInventory} shared by many
+ * threads, each claiming a random group of up to four seats and giving it
+ * back. A lost race counts as an operation too. Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main SeatInventoryClaimBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class SeatInventoryClaimBenchmark {
+
+    private SeatInventory inventory;
+
+    @Setup
+    public void setUp() {
+        inventory = SeatInventory.create(120, 10);
+    }
+
+    @Benchmark
+    public boolean claimAndRelease() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] seats = random.ints(0, 120).distinct().limit(1 + random.nextInt(4)).toArray();
+        try {
+            inventory.claim(seats);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        inventory.release(seats);
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+package com.moviebooking.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class SeatInventoryContentionTest {
+
+    private static final int THREADS = 400;
+
+    @Test
+    void concurrentClaims_NeverOversell() throws Exception {
+        SeatInventory inventory = SeatInventory.create(120, 10);
+        Queue<int[]> successful = new ConcurrentLinkedQueue<>();
+        AtomicLong attempts = new AtomicLong();
+
+        runThreads(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (inventory.getAvailableCount() > 0) {
+                int[] seats = randomSeats(random, 120, 1 + random.nextInt(4));
+                attempts.incrementAndGet();
+                try {
+                    inventory.claim(seats);
+                    successful.add(seats);
+                } catch (RuntimeException e) {
+                    // lost the race for at least one seat, nothing was taken
+                }
+            }
+        });
+
+        boolean[] sold = new boolean[120];
+        int soldCount = 0;
+        for (int[] seats : successful) {
+            for (int seat : seats) {
+                assertFalse(sold[seat], "seat " + seat + " sold twice");
+                sold[seat] = true;
+                soldCount++;
+            }
+        }
+        assertEquals(120, soldCount);
+        assertEquals(0, inventory.getAvailableCount());
+        for (int i = 0; i < 120; i++) {
+            assertFalse(inventory.isAvailable(i));
+        }
+        // every booking took at least one attempt, the losers took none of its seats
+        assertTrue(attempts.get() >= successful.size());
+    }
+
+    @Test
+    void claimReleaseCycles_KeepCountConsistent() throws Exception {
+        SeatInventory inventory = SeatInventory.create(120, 10);
+        int cyclesPerThread = 2_000;
+        AtomicLong operations = new AtomicLong();
+
+        runThreads(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < cyclesPerThread; i++) {
+                int[] seats = randomSeats(random, 120, 1 + random.nextInt(4));
+                try {
+                    inventory.claim(seats);
+                    inventory.release(seats);
+                    operations.addAndGet(2);
+                } catch (RuntimeException e) {
+                    operations.incrementAndGet();
+                }
+            }
+        });
+
+        assertTrue(operations.get() >= (long) THREADS * cyclesPerThread);
+        assertEquals(120, inventory.getAvailableCount());
+        for (int i = 0; i < 120; i++) {
+            assertTrue(inventory.isAvailable(i));
+        }
+        // the run index followed every claim and release, so whole rows are free again
+        assertArrayEquals(new int[] { 50, 51, 52, 53, 54, 55, 56, 57, 58, 59 }, inventory.findBestAvailable(10));
+    }
+
+    @Test
+    void releasesRacingClaimsOfTheSameSeat_KeepTheRunIndexInStep() throws Exception {
+        SeatInventory inventory = SeatInventory.create(120, 10);
+
+        // releases come from other threads than the claims, as an expiry sweep's would
+        runThreads(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 2_000; i++) {
+                int[] seats = randomSeats(random, 120, 1 + random.nextInt(3));
+                if (random.nextBoolean()) {
+                    try {
+                        inventory.claim(seats);
+                    } catch (RuntimeException e) {
+                        // taken meanwhile
+                    }
+                } else {
+                    inventory.release(seats);
+                }
+            }
+        });
+
+        int[] best = inventory.findBestAvailable(1);
+        if (best != null) {
+            assertTrue(inventory.isAvailable(best[0]));
+        }
+        inventory.release(IntStream.range(0, 120).toArray());
+        for (int row = 0; row < 12; row++) {
+            inventory.claim(new int[] { row * 10 + 9 });
+        }
+        // every row is one free block of nine again, the middle rows are picked first
+        assertArrayEquals(new int[] { 50, 51, 52, 53, 54, 55, 56, 57, 58 }, inventory.findBestAvailable(9));
+        inventory.claim(new int[] { 50 });
+        assertArrayEquals(new int[] { 60, 61, 62, 63, 64, 65, 66, 67, 68 }, inventory.findBestAvailable(9));
+    }
+
+    private static void runThreads(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private static int[] randomSeats(ThreadLocalRandom random, int seatsTotal, int count) {
+        return random.ints(0, seatsTotal).distinct().limit(count).toArray();
+    }
+}
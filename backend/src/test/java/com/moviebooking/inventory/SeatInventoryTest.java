@@ -0,0 +1,47 @@
+package com.moviebooking.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class SeatInventoryTest {
+
+    @Test
+    void findBestAvailable_PrefersCentreOfMiddleRow() {
+        SeatInventory inventory = SeatInventory.create(50, 10);
+
+        // rows A..E, row C is the middle one
+        assertArrayEquals(new int[] { 22, 23, 24, 25, 26, 27 }, inventory.findBestAvailable(6));
+    }
+
+    @Test
+    void findBestAvailable_FollowsClaimsAndReleases() {
+        SeatInventory inventory = SeatInventory.create(30, 10);
+        inventory.claim(new int[] { 13, 16 });
+
+        // row B only has blocks of 3 left, so a party of 4 moves to row A
+        assertArrayEquals(new int[] { 3, 4, 5, 6 }, inventory.findBestAvailable(4));
+
+        inventory.release(new int[] { 13, 16 });
+        assertArrayEquals(new int[] { 13, 14, 15, 16 }, inventory.findBestAvailable(4));
+    }
+
+    @Test
+    void findBestAvailable_ReturnsNullWhenNoRowFits() {
+        SeatInventory inventory = SeatInventory.create(20, 10);
+        inventory.claim(new int[] { 4, 5, 14, 15 });
+
+        assertNull(inventory.findBestAvailable(5));
+    }
+
+    @Test
+    void findBestAvailable_RejectsPartiesWiderThanARow() {
+        SeatInventory inventory = SeatInventory.create(20, 10);
+
+        RuntimeException tooMany = assertThrows(RuntimeException.class, () -> inventory.findBestAvailable(11));
+        assertEquals("At most 10 adjacent seats fit in a row", tooMany.getMessage());
+        assertThrows(RuntimeException.class, () -> inventory.findBestAvailable(0));
+    }
+}
@@ -0,0 +1,105 @@
+package com.moviebooking.inventory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Per-seat JSON against the {@link SeatMapFormat} bitmap, encode and
+ * decode, for the seed screen size and an IMAX-sized one. Payload sizes are
+ * printed at setup. Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main SeatMapFormatBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatMapFormatBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Param({ "120", "1200" })
+    private int seats;
+
+    private SeatInventory inventory;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        inventory = SeatInventory.create(seats, seats >= 1000 ? 40 : 10);
+        // a third of the house sold, plus a premium block at the back
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        inventory.claim(random.ints(0, seats).distinct().limit(seats / 3).toArray());
+        for (int i = seats - seats / 5; i < seats; i++) {
+            inventory.setType(i, "premium");
+        }
+        json = inventory.toJson().getBytes(StandardCharsets.UTF_8);
+        binary = SeatMapFormat.encode(inventory);
+        System.out.printf("%n%d seats: json %,d bytes, x-seatmap %,d bytes%n", seats, json.length, binary.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return inventory.toJson().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return SeatMapFormat.encode(inventory);
+    }
+
+    // what a client does with the JSON: one availability flag per seat
+    @Benchmark
+    public boolean[] decodeJson() throws Exception {
+        JsonNode nodes = MAPPER.readTree(json);
+        boolean[] free = new boolean[nodes.size()];
+        for (int i = 0; i < free.length; i++) {
+            free[i] = nodes.get(i).path("available").asBoolean();
+        }
+        return free;
+    }
+
+    // the same flags from the bitmap, skipping the header and seat-type runs
+    @Benchmark
+    public boolean[] decodeBinary() throws Exception {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(binary));
+        in.skipBytes(1 + 8 + 2);
+        int seatsTotal = in.readInt();
+        int typeCount = in.readUnsignedByte();
+        for (int i = 0; i < typeCount; i++) {
+            in.readUTF();
+        }
+        in.skipBytes(in.readUnsignedShort() * 3);
+        boolean[] free = new boolean[seatsTotal];
+        for (int i = 0; i < seatsTotal; i += 8) {
+            int bits = in.readUnsignedByte();
+            for (int j = i; j < Math.min(i + 8, seatsTotal); j++) {
+                free[j] = (bits >>> (j - i) & 1) != 0;
+            }
+        }
+        return free;
+    }
+}
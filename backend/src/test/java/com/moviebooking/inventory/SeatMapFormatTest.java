@@ -0,0 +1,28 @@
+package com.moviebooking.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class SeatMapFormatTest {
+
+    @Test
+    void encodeDecode_RoundTrips() {
+        SeatInventory inventory = SeatInventory.create(125, 10);
+        inventory.claim(new int[] { 0, 7, 63, 64, 124 });
+        inventory.setType(120, "recliner");
+
+        SeatInventory decoded = SeatMapFormat.decode(SeatMapFormat.encode(inventory));
+
+        assertEquals(inventory.toJson(), decoded.toJson());
+        assertEquals(inventory.getVersion(), decoded.getVersion());
+        assertEquals(120, decoded.getAvailableCount());
+    }
+
+    @Test
+    void encode_SeedScreenFitsInFiftyBytes() {
+        byte[] encoded = SeatMapFormat.encode(SeatInventory.create(120, 10));
+
+        assertTrue(encoded.length < 50, "x-seatmap is " + encoded.length + " bytes");
+    }
+}
@@ -0,0 +1,149 @@
+package com.moviebooking.inventory;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.moviebooking.entity.Movie;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.journal.BookingJournal;
+import com.moviebooking.repository.MovieRepository;
+import com.moviebooking.repository.ShowtimeRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Writes batched on a shard against the real transaction manager: a write
+ * that fails must not leave anything behind in the batch that commits.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShowtimeShardBatchTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    private ShowtimeShardExecutor executor;
+    private Long showtimeId;
+
+    @BeforeEach
+    void setUp() {
+        Movie movie = movieRepository.save(new Movie("Dune", 155, "Sci-Fi", "/dune.jpg", "Spice"));
+        showtimeId = showtimeRepository.save(new Showtime(movie, "Screen 1", "Pune",
+                LocalDateTime.now().plusDays(1), 100, new byte[0])).getId();
+        executor = new ShowtimeShardExecutor(new TransactionTemplate(transactionManager),
+                mock(SeatInventoryService.class), mock(BookingJournal.class), new SimpleMeterRegistry(), 1, 64, 5000);
+        executor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        showtimeRepository.deleteAll();
+        movieRepository.deleteAll();
+    }
+
+    @Test
+    void failedWrite_IsRolledBackWhileTheRestOfItsBatchCommits() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        callers.submit(() -> executor.execute(showtimeId, () -> {
+            await(blocker);
+            return null;
+        }));
+        Thread.sleep(100);
+
+        boolean[] committed = new boolean[1];
+        boolean[] rolledBack = new boolean[1];
+        Future<Integer> first = callers.submit(() -> executor.execute(showtimeId,
+                () -> showtimeRepository.decrementSeatsAvailable(showtimeId, 2)));
+        Future<Integer> failing = callers.submit(() -> executor.execute(showtimeId, () -> {
+            showtimeRepository.decrementSeatsAvailable(showtimeId, 5);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed[0] = true;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    rolledBack[0] = status == STATUS_ROLLED_BACK;
+                }
+            });
+            // undone by the task itself, as BookingService does
+            showtimeRepository.incrementSeatsAvailable(showtimeId, 5);
+            throw new RuntimeException("Seat A1 is already booked");
+        }));
+        Future<Integer> last = callers.submit(() -> executor.execute(showtimeId,
+                () -> showtimeRepository.decrementSeatsAvailable(showtimeId, 3)));
+        Thread.sleep(100);
+        blocker.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, last.get(5, TimeUnit.SECONDS));
+        Exception e = assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertEquals("Seat A1 is already booked", e.getCause().getMessage());
+        assertEquals(95, showtimeRepository.findById(showtimeId).orElseThrow().getSeatsAvailable());
+        // the batch committed, but the failed write's callbacks heard it was rolled back
+        assertFalse(committed[0]);
+        assertTrue(rolledBack[0]);
+        callers.shutdown();
+    }
+
+    @Test
+    void writeThatCannotStartInTime_NeverRuns() throws Exception {
+        executor = new ShowtimeShardExecutor(new TransactionTemplate(transactionManager),
+                mock(SeatInventoryService.class), mock(BookingJournal.class), new SimpleMeterRegistry(), 1, 64, 200);
+        executor.start();
+        CountDownLatch blocker = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(1);
+        callers.submit(() -> executor.execute(showtimeId, () -> {
+            await(blocker);
+            return null;
+        }));
+        Thread.sleep(100);
+
+        assertThrows(ShardBusyException.class, () -> executor.execute(showtimeId,
+                () -> showtimeRepository.decrementSeatsAvailable(showtimeId, 4)));
+        blocker.countDown();
+
+        // a write after it on the same shard has run, so the abandoned one had its turn
+        executor.execute(showtimeId, () -> null);
+        assertEquals(100, showtimeRepository.findById(showtimeId).orElseThrow().getSeatsAvailable());
+        callers.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.moviebooking.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.moviebooking.journal.BookingJournal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ShowtimeShardExecutorTest {
+
+    private PlatformTransactionManager transactionManager;
+    private SeatInventoryService seatInventoryService;
+    private ShowtimeShardExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        seatInventoryService = mock(SeatInventoryService.class);
+        executor = new ShowtimeShardExecutor(new TransactionTemplate(transactionManager), seatInventoryService,
+                mock(BookingJournal.class), new SimpleMeterRegistry(), 4, 64, 5000);
+        executor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void writesForOneShowtime_RunOneAtATime() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        int[] counter = new int[1];
+
+        runConcurrently(200, () -> executor.execute(7L, () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            counter[0]++; // unsynchronized on purpose, the shard is the only writer
+            running.decrementAndGet();
+            return null;
+        }));
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(200, counter[0]);
+        verify(seatInventoryService, atLeastOnce()).persist(7L);
+    }
+
+    @Test
+    void failingWrite_DoesNotFailItsBatch() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        // park the shard so the next writes pile up into one batch
+        Thread parked = new Thread(() -> executor.execute(3L, () -> {
+            await(blocker);
+            return null;
+        }));
+        parked.start();
+        Thread.sleep(100);
+
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        Future<String> first = callers.submit(() -> executor.execute(3L, () -> "first"));
+        Future<String> failing = callers.submit(() -> executor.execute(3L, () -> {
+            throw new RuntimeException("Seat A1 is already booked");
+        }));
+        Future<String> last = callers.submit(() -> executor.execute(3L, () -> "last"));
+        Thread.sleep(100);
+        blocker.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("last", last.get(5, TimeUnit.SECONDS));
+        Exception e = assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertEquals("Seat A1 is already booked", e.getCause().getMessage());
+        callers.shutdown();
+        parked.join();
+    }
+
+    @Test
+    void submittedWrite_RunsOnTheShardInOrder() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        Thread parked = new Thread(() -> executor.execute(3L, () -> {
+            await(blocker);
+            return null;
+        }));
+        parked.start();
+        Thread.sleep(100);
+
+        List<String> writes = new ArrayList<>();
+        // returns at once although the shard is busy
+        executor.submit(3L, () -> writes.add(Thread.currentThread().getName()));
+        assertTrue(writes.isEmpty());
+        blocker.countDown();
+
+        List<String> seen = executor.execute(3L, () -> new ArrayList<>(writes));
+        assertEquals(1, seen.size());
+        assertTrue(seen.get(0).startsWith("booking-shard-"), seen.get(0));
+        parked.join();
+    }
+
+    @Test
+    void shutdown_FailsQueuedWritesAtOnce() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        Thread parked = new Thread(() -> executor.execute(3L, () -> {
+            await(blocker);
+            return null;
+        }));
+        parked.start();
+        Thread.sleep(100);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        Future<Object> queued = caller.submit(() -> executor.execute(3L, () -> "ran"));
+        Thread.sleep(100);
+
+        long started = System.nanoTime();
+        executor.shutdown();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(ShardBusyException.class, e.getCause());
+        // well before the 5 s timeout
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+        assertThrows(ShardBusyException.class, () -> executor.execute(3L, () -> "ran"));
+        blocker.countDown();
+        parked.join();
+        caller.shutdown();
+    }
+
+    @Test
+    void showtimes_SpreadOverShards() {
+        boolean[] used = new boolean[4];
+        for (long id = 1; id <= 64; id++) {
+            used[executor.shardOf(id)] = true;
+        }
+        for (boolean shard : used) {
+            assertTrue(shard);
+        }
+    }
+
+    private static void runConcurrently(int callers, Runnable call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(pool.submit(call));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
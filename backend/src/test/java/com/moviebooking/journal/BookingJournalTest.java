@@ -0,0 +1,178 @@
+package com.moviebooking.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.moviebooking.entity.Booking;
+import com.moviebooking.inventory.SeatInventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BookingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopen_ContinuesAfterTheLastEntry() throws IOException {
+        BookingJournal journal = open(64, 16);
+        SeatInventory inventory = SeatInventory.create(120);
+        journal.attach(1L, inventory);
+        inventory.claim(new int[] { 4, 5 });
+        inventory.claim(new int[] { 10 });
+        inventory.release(new int[] { 5 });
+        journal.commit(1L, inventory.getVersion());
+        journal.close();
+
+        BookingJournal reopened = open(64, 16);
+        reopened.recordStatus(9L, 1L, Booking.BookingStatus.PAID);
+        reopened.sync();
+        List<JournalEntry> entries = entries(reopened);
+        // attaching writes no copy of the inventory, only its changes
+        assertEquals(List.of(JournalEntry.Type.CLAIM, JournalEntry.Type.CLAIM, JournalEntry.Type.RELEASE,
+                JournalEntry.Type.COMMIT, JournalEntry.Type.STATUS), entries.stream().map(JournalEntry::type).toList());
+        assertArrayEquals(new int[] { 4, 5 }, entries.get(0).seats());
+        assertEquals(3, entries.get(3).version());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(i + 1, entries.get(i).sequence());
+        }
+    }
+
+    @Test
+    void trim_KeepsOnlyTheNewestSegments() throws IOException {
+        BookingJournal journal = open(1, 2);
+        SeatInventory inventory = SeatInventory.create(120);
+        journal.attach(7L, inventory);
+        // enough entries to fill a few 1 MB segments
+        for (int i = 0; i < 30000; i++) {
+            inventory.claim(new int[] { i % 120 });
+            inventory.release(new int[] { i % 120 });
+        }
+        journal.commit(7L, inventory.getVersion());
+        journal.sync();
+        assertTrue(segments() > 2);
+
+        journal.trim();
+        assertEquals(2, segments());
+
+        // what is left still reads through to the newest entry
+        List<JournalEntry> entries = entries(journal);
+        assertTrue(entries.get(0).sequence() > 1);
+        JournalEntry last = entries.get(entries.size() - 1);
+        assertEquals(JournalEntry.Type.COMMIT, last.type());
+        assertEquals(inventory.getVersion(), last.version());
+        journal.close();
+    }
+
+    @Test
+    void tornRecord_EndsTheJournal() throws IOException {
+        BookingJournal journal = open(64, 16);
+        SeatInventory inventory = SeatInventory.create(20);
+        journal.attach(3L, inventory);
+        inventory.claim(new int[] { 1 });
+        journal.commit(3L, 1);
+        inventory.claim(new int[] { 2 });
+        journal.commit(3L, 2);
+        journal.close();
+
+        // cut the last commit in half, as a crash in the middle of a write would
+        Path segment = lastSegment();
+        ByteBuffer buffer = JournalSegment.read(segment);
+        List<Integer> starts = new ArrayList<>();
+        while (true) {
+            int start = buffer.position();
+            if (JournalEntry.decode(buffer) == null) break;
+            starts.add(start);
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8), starts.get(starts.size() - 1) + 12);
+        }
+
+        // appending continues in a fresh segment after the last good entry
+        BookingJournal reopened = open(64, 16);
+        reopened.recordStatus(9L, 3L, Booking.BookingStatus.PAID);
+        reopened.sync();
+        List<JournalEntry> entries = entries(reopened);
+        assertEquals(4, entries.size());
+        JournalEntry before = entries.get(2);
+        assertEquals(JournalEntry.Type.CLAIM, before.type());
+        assertEquals(2, before.version());
+        JournalEntry last = entries.get(3);
+        assertEquals(JournalEntry.Type.STATUS, last.type());
+        assertEquals(9L, last.bookingId());
+        assertEquals("PAID", last.status());
+        assertEquals(before.sequence() + 1, last.sequence());
+    }
+
+    @Test
+    void statusInsideATransaction_IsAppendedOnlyOnCommit() throws IOException {
+        BookingJournal journal = open(64, 16);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            journal.recordStatus(1L, 3L, Booking.BookingStatus.PENDING);
+            journal.recordStatus(2L, 3L, Booking.BookingStatus.PENDING);
+            assertEquals(0, statuses(journal).size());
+            // the first transaction commits, the second rolls back
+            List<TransactionSynchronization> callbacks = TransactionSynchronizationManager.getSynchronizations();
+            callbacks.get(0).afterCommit();
+            callbacks.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        List<JournalEntry> statuses = statuses(journal);
+        assertEquals(1, statuses.size());
+        assertEquals(1L, statuses.get(0).bookingId());
+        journal.close();
+    }
+
+    private BookingJournal open(int segmentMegabytes, int retainSegments) throws IOException {
+        BookingJournal journal = new BookingJournal(new SimpleMeterRegistry(), directory.toString(), segmentMegabytes,
+                retainSegments);
+        journal.open();
+        return journal;
+    }
+
+    private static List<JournalEntry> entries(BookingJournal journal) {
+        List<JournalEntry> entries = new ArrayList<>();
+        journal.replay(0, entries::add);
+        return entries;
+    }
+
+    private static List<JournalEntry> statuses(BookingJournal journal) {
+        journal.sync();
+        List<JournalEntry> entries = new ArrayList<>();
+        journal.replay(0, entry -> {
+            if (entry.type() == JournalEntry.Type.STATUS) entries.add(entry);
+        });
+        return entries;
+    }
+
+    private long segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(JournalSegment.SUFFIX)).count();
+        }
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                    .sorted().reduce((first, second) -> second).orElseThrow();
+        }
+    }
+}
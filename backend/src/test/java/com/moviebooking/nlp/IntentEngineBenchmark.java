@@ -0,0 +1,123 @@
+package com.moviebooking.nlp;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The single pass engine against the keyword scans and per call regexes
+ * the assistant used before, kept here as {@code legacy}. Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main IntentEngineBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntentEngineBenchmark {
+
+    private static final Map<String, String> HINDI_MONTHS = Map.ofEntries(
+            Map.entry("जनवरी", "01"), Map.entry("फरवरी", "02"), Map.entry("मार्च", "03"),
+            Map.entry("अप्रैल", "04"), Map.entry("मई", "05"), Map.entry("जून", "06"),
+            Map.entry("जुलाई", "07"), Map.entry("अगस्त", "08"), Map.entry("सितंबर", "09"),
+            Map.entry("अक्टूबर", "10"), Map.entry("नवंबर", "11"), Map.entry("दिसंबर", "12"));
+
+    private static final Map<String, Integer> HINDI_NUMBERS = Map.of(
+            "एक", 1, "दो", 2, "तीन", 3, "चार", 4, "पांच", 5,
+            "छह", 6, "सात", 7, "आठ", 8, "नौ", 9, "दस", 10);
+
+    @Param({ "mujhe kal shaam 7 baje interstellar ke 2 ticket book karne hain",
+             "शुक्रवार को ड्यून के तीन टिकट 15 मार्च शाम 7:30 बजे",
+             "hello" })
+    private String utterance;
+
+    private IntentEngine engine;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() throws IOException {
+        engine = IntentEngineTest.engine();
+        today = LocalDate.now();
+    }
+
+    @Benchmark
+    public ParsedUtterance engine() {
+        return engine.parse(utterance, today);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        String text = utterance.toLowerCase();
+        blackhole.consume(detectIntent(text));
+        blackhole.consume(extractNumberOfSeats(text));
+        blackhole.consume(extractDate(text));
+        blackhole.consume(extractTime(text));
+    }
+
+    private static String detectIntent(String text) {
+        text = text.toLowerCase();
+        if (text.contains("ticket") || text.contains("बुक") || text.contains("टिकट")) return "book_ticket";
+        if (text.contains("showtime") || text.contains("शो") || text.contains("समय")) return "ask_showtimes";
+        if (text.contains("hello") || text.contains("नमस्ते")) return "greet";
+        if (text.contains("payment") || text.contains("कंफर्म") || text.contains("confirm")) return "payment_confirm";
+        return "unknown";
+    }
+
+    private static int extractNumberOfSeats(String text) {
+        for (String key : HINDI_NUMBERS.keySet()) {
+            if (text.contains(key)) return HINDI_NUMBERS.get(key);
+        }
+        Matcher m = Pattern.compile("(\\d+)\\s*(ticket|seat|seats?)").matcher(text);
+        return m.find() ? Integer.parseInt(m.group(1)) : 1;
+    }
+
+    private static LocalDate extractDate(String text) {
+        text = text.toLowerCase();
+        if (text.contains("aaj") || text.contains("today")) return LocalDate.now();
+        if (text.contains("kal") || text.contains("tomorrow")) return LocalDate.now().plusDays(1);
+        Matcher m = Pattern.compile("(\\d{1,2})\\s+(जनवरी|फरवरी|मार्च|अप्रैल|मई|जून|जुलाई|अगस्त|सितंबर|अक्टूबर|नवंबर|दिसंबर)")
+                .matcher(text);
+        if (m.find()) {
+            String date = LocalDate.now().getYear() + "-" + HINDI_MONTHS.get(m.group(2)) + "-"
+                    + String.format("%02d", Integer.parseInt(m.group(1)));
+            try { return LocalDate.parse(date); }
+            catch (DateTimeParseException e) { return null; }
+        }
+        return null;
+    }
+
+    private static String extractTime(String text) {
+        Matcher m = Pattern.compile("(\\d{1,2})[:.](\\d{2})").matcher(text);
+        if (m.find()) return String.format("%02d:%02d", Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+        Matcher mh = Pattern.compile("(\\d{1,2})\\s*(बजे|am|pm)?").matcher(text);
+        if (mh.find()) {
+            int hour = Integer.parseInt(mh.group(1));
+            String period = mh.group(2);
+            if ("pm".equalsIgnoreCase(period) && hour < 12) hour += 12;
+            if ("am".equalsIgnoreCase(period) && hour == 12) hour = 0;
+            return String.format("%02d:00", hour);
+        }
+        return "19:00";
+    }
+}
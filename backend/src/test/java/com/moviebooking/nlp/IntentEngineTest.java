@@ -0,0 +1,78 @@
+package com.moviebooking.nlp;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class IntentEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    static IntentEngine engine() throws IOException {
+        try (InputStream in = IntentEngineTest.class.getResourceAsStream("/nlp/intent-rules.yml")) {
+            return new IntentEngine(IntentRules.load(in));
+        }
+    }
+
+    // Every line of the corpus has to parse exactly, a rules or engine change may not break one
+    @Test
+    void goldenCorpus_ParsesExactly() throws IOException {
+        IntentEngine engine = engine();
+        List<String> failures = new ArrayList<>();
+        int cases = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/nlp/golden-corpus.tsv"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String[] columns = line.split("\t");
+                ParsedUtterance expected = new ParsedUtterance(columns[1],
+                        "-".equals(columns[2]) ? null : Integer.valueOf(columns[2]),
+                        "-".equals(columns[3]) ? null : LocalDate.parse(columns[3]),
+                        "-".equals(columns[4]) ? null : LocalTime.parse(columns[4]));
+                ParsedUtterance parsed = engine.parse(columns[0], TODAY);
+                cases++;
+                if (!expected.equals(parsed)) {
+                    failures.add(columns[0] + "\n    expected " + expected + "\n    parsed   " + parsed);
+                }
+            }
+        }
+        assertTrue(cases >= 50, "corpus has " + cases + " cases");
+        assertTrue(failures.isEmpty(), failures.size() + " of " + cases + " utterances parsed wrong:\n"
+                + String.join("\n", failures));
+    }
+
+    @Test
+    void lexer_SplitsScriptsAndReadsClockTimes() {
+        List<Lexer.Token> tokens = Lexer.tokenize("Duneके २ टिकट, 7:30 या 19.305");
+        assertEquals(List.of("dune", "के", "2", "टिकट", "7:30", "या", "19", "305"), tokens.stream()
+                .map(token -> switch (token.kind()) {
+                    case WORD -> token.text();
+                    case NUMBER -> String.valueOf(token.value());
+                    case TIME -> token.value() + ":" + String.format("%02d", token.minute());
+                }).toList());
+    }
+
+    @Test
+    void brokenRules_AreRejectedAtLoad() {
+        assertThrows(IllegalStateException.class, () -> load("numbers:\n  two: many\n"));
+        assertThrows(IllegalStateException.class, () -> load("seat-units: ticket\n"));
+        assertThrows(IOException.class, () -> load(""));
+    }
+
+    private static IntentRules load(String yaml) throws IOException {
+        return IntentRules.load(new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,100 @@
+package com.moviebooking.nlp;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.moviebooking.search.MovieMatcher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UtteranceCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MovieMatcher matcher = mock(MovieMatcher.class);
+    private UtteranceCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(matcher.match(anyString())).thenReturn(Optional.empty());
+        cache = new UtteranceCache(matcher, IntentEngineTest.engine(), registry, 100, 60, 160);
+    }
+
+    @Test
+    void normalizedText_ParsesLikeTheOriginal() throws IOException {
+        IntentEngine engine = IntentEngineTest.engine();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/nlp/golden-corpus.tsv"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String utterance = line.split("\t")[0];
+                assertEquals(engine.parse(utterance, TODAY), engine.parse(UtteranceCache.normalize(utterance), TODAY),
+                        utterance);
+            }
+        }
+        assertEquals("dune ke 2 ticket kal 7:30 baje", UtteranceCache.normalize("  Dune ke 2 ticket,  kal 7:30 baje!! "));
+        assertEquals("7 30 baje", UtteranceCache.normalize("7: 30 baje"));
+    }
+
+    @Test
+    void repeatedUtterances_HitUntilTheDayOrTitlesChange() {
+        ParsedUtterance first = cache.parse("Dune ke 2 ticket, kal 7:30 baje", TODAY).utterance();
+        cache.parse("dune ke 2 ticket kal 7:30 baje!", TODAY);
+        cache.parse("DUNE  ke 2 ticket -- kal 7:30 baje", TODAY);
+        assertEquals(1, count("miss"));
+        assertEquals(2, count("hit"));
+        assertEquals(TODAY.plusDays(1), first.date());
+
+        // "kal" resolves against the day it is said
+        ParsedUtterance nextDay = cache.parse("dune ke 2 ticket kal 7:30 baje", TODAY.plusDays(1)).utterance();
+        assertEquals(TODAY.plusDays(2), nextDay.date());
+
+        when(matcher.version()).thenReturn(1L);
+        cache.parse("dune ke 2 ticket kal 7:30 baje", TODAY);
+        assertEquals(3, count("miss"));
+
+        // too long to keep, parsed every time
+        String rambling = "dune ".repeat(40) + "ke 2 ticket";
+        cache.parse(rambling, TODAY);
+        cache.parse(rambling, TODAY);
+        assertEquals(3, count("miss"));
+        assertEquals(2, count("hit"));
+    }
+
+    @Test
+    void changedShowtime_DropsOnlyItsMoviesSchedule() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.showtimes(1L, id -> { loads.incrementAndGet(); return List.of(); });
+        cache.showtimes(2L, id -> { loads.incrementAndGet(); return List.of(); });
+        cache.showtimes(1L, id -> { loads.incrementAndGet(); return List.of(); });
+        assertEquals(2, loads.get());
+
+        cache.showtimesChanged(1L);
+        cache.showtimes(1L, id -> { loads.incrementAndGet(); return List.of(); });
+        cache.showtimes(2L, id -> { loads.incrementAndGet(); return List.of(); });
+        assertEquals(3, loads.get());
+        assertNotEquals(0, registry.get("catalog.cache.evictions").tag("cache", "nlp-showtimes")
+                .tag("cause", "invalidated").counter().count());
+    }
+
+    private long count(String result) {
+        return (long) registry.get("catalog.cache.gets").tag("cache", "nlp-utterances").tag("result", result)
+                .counter().count();
+    }
+}
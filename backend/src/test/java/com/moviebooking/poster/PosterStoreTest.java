@@ -0,0 +1,132 @@
+package com.moviebooking.poster;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.moviebooking.cache.RenderedCatalog;
+import com.moviebooking.controller.PosterController;
+
+class PosterStoreTest {
+
+    @TempDir
+    Path posters;
+
+    @TempDir
+    Path cache;
+
+    private final RenderedCatalog renderedCatalog = mock(RenderedCatalog.class);
+    private PosterStore store;
+    private MockMvc mvc;
+    private byte[] image;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        image = new byte[10_000];
+        Arrays.fill(image, (byte) 7);
+        image[0] = 1;
+        image[image.length - 1] = 9;
+        Files.write(posters.resolve("oppenheimer.png"), image);
+        store = new PosterStore(renderedCatalog, posters.toString(), cache.toString());
+        store.load();
+
+        PosterController controller = new PosterController();
+        ReflectionTestUtils.setField(controller, "posterStore", store);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void posters_AreServedUnderContentHashedNames() throws Exception {
+        String hashed = store.publicName("oppenheimer.png");
+        assertTrue(hashed.matches("oppenheimer\\.[0-9a-f]{16}\\.png"), hashed);
+        assertEquals(hashed, store.publicName("/posters/oppenheimer.png"));
+        // bundled with the application
+        assertTrue(store.publicName("dune.png").matches("dune\\.[0-9a-f]{16}\\.png"));
+        assertEquals("missing.png", store.publicName("missing.png"));
+        assertEquals("https://cdn.example.com/a.png", store.publicName("https://cdn.example.com/a.png"));
+
+        byte[] body = mvc.perform(get("/posters/" + hashed))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(image, body);
+
+        // the plain name still works, but has to be revalidated
+        mvc.perform(get("/posters/oppenheimer.png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"));
+        mvc.perform(get("/posters/missing.png")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void currentCopy_GetsNotModified() throws Exception {
+        String hashed = store.publicName("oppenheimer.png");
+        String etag = store.find(hashed).orElseThrow().etag();
+
+        mvc.perform(get("/posters/" + hashed).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void rangeRequests_ServeTheAskedBytes() throws Exception {
+        String hashed = store.publicName("oppenheimer.png");
+
+        byte[] tail = mvc.perform(get("/posters/" + hashed).header(HttpHeaders.RANGE, "bytes=-2"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 9998-9999/10000"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(new byte[] { 7, 9 }, tail);
+
+        byte[] head = mvc.perform(get("/posters/" + hashed).header(HttpHeaders.RANGE, "bytes=0-2"))
+                .andExpect(status().isPartialContent())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(new byte[] { 1, 7, 7 }, head);
+
+        mvc.perform(get("/posters/" + hashed).header(HttpHeaders.RANGE, "bytes=20000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10000"));
+
+        // the client's copy is of another version, it gets the whole poster
+        mvc.perform(get("/posters/" + hashed).header(HttpHeaders.RANGE, "bytes=0-2")
+                        .header(HttpHeaders.IF_RANGE, "\"0000000000000000\""))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10000));
+    }
+
+    @Test
+    void changedPoster_GetsANewHashOnRescan() throws Exception {
+        String before = store.publicName("oppenheimer.png");
+        Path file = posters.resolve("oppenheimer.png");
+        Files.write(file, new byte[] { 1, 2, 3 });
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        store.rescan();
+
+        String after = store.publicName("oppenheimer.png");
+        assertNotEquals(before, after);
+        mvc.perform(get("/posters/" + after)).andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 3));
+        // once at load, once for the change
+        verify(renderedCatalog, times(2)).invalidate();
+    }
+}
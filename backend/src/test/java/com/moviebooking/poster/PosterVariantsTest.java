@@ -0,0 +1,152 @@
+package com.moviebooking.poster;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.Mockito.mock;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.moviebooking.cache.RenderedCatalog;
+import com.moviebooking.controller.PosterController;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PosterVariantsTest {
+
+    private static final String BROWSER = "image/avif,image/webp,image/apng,image/*,*/*;q=0.8";
+
+    @TempDir
+    Path posters;
+
+    @TempDir
+    Path cache;
+
+    private PosterStore store;
+    private PosterVariants variants;
+    private MockMvc mvc;
+    private PosterStore.Poster poster;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        BufferedImage image = new BufferedImage(1000, 1500, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, 1000, 1500);
+        graphics.setColor(Color.BLUE);
+        graphics.fillOval(100, 200, 800, 800);
+        graphics.dispose();
+        // grain, so the PNG is as hard to compress as a photographed poster
+        Random random = new Random(42);
+        for (int y = 0; y < 1500; y++) {
+            for (int x = 0; x < 1000; x++) {
+                int shade = random.nextInt(24);
+                image.setRGB(x, y, image.getRGB(x, y) - (shade << 16 | shade << 8 | shade));
+            }
+        }
+        ImageIO.write(image, "png", posters.resolve("oppenheimer.png").toFile());
+
+        store = new PosterStore(mock(RenderedCatalog.class), posters.toString(), cache.toString());
+        store.load();
+        variants = new PosterVariants(store, new SimpleMeterRegistry(), cache.toString(),
+                new int[] { 480, 320 }, 0.8f, 1, 10);
+        poster = store.find("oppenheimer.png").orElseThrow();
+
+        PosterController controller = new PosterController();
+        ReflectionTestUtils.setField(controller, "posterStore", store);
+        ReflectionTestUtils.setField(controller, "posterVariants", variants);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        variants.shutdown();
+    }
+
+    @Test
+    void render_WritesEveryWidthInBothFormats() throws IOException {
+        variants.render(poster);
+        assertTrue(variants.isComplete(poster));
+
+        PosterVariants.Variant small = variants.find(poster, 300, PosterVariants.Format.JPEG).orElseThrow();
+        BufferedImage decoded = ImageIO.read(small.path().toFile());
+        assertEquals(320, decoded.getWidth());
+        assertEquals(480, decoded.getHeight());
+        assertEquals("\"" + poster.hash() + "-w320-jpg\"", small.etag());
+
+        PosterVariants.Variant png = variants.find(poster, 400, PosterVariants.Format.PNG).orElseThrow();
+        assertEquals(480, ImageIO.read(png.path().toFile()).getWidth());
+
+        // wider than every variant: the full size JPEG, or the original itself
+        assertEquals(1000, ImageIO.read(variants.find(poster, 2000, PosterVariants.Format.JPEG)
+                .orElseThrow().path().toFile()).getWidth());
+        assertFalse(variants.find(poster, null, PosterVariants.Format.PNG).isPresent());
+    }
+
+    @Test
+    void endpoint_PicksVariantFromWidthAndAccept() throws Exception {
+        variants.render(poster);
+        String hashed = store.publicName("oppenheimer.png");
+
+        byte[] jpeg = mvc.perform(get("/posters/" + hashed).param("w", "320").header(HttpHeaders.ACCEPT, BROWSER))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + poster.hash() + "-w320-jpg\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(320, ImageIO.read(new ByteArrayInputStream(jpeg)).getWidth());
+        assertTrue(jpeg.length * 5 < poster.length(), jpeg.length + " of " + poster.length());
+
+        mvc.perform(get("/posters/" + hashed).param("w", "320").header(HttpHeaders.ACCEPT, "image/png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + poster.hash() + "-w320-png\""));
+
+        mvc.perform(get("/posters/" + hashed).param("w", "320").header(HttpHeaders.ACCEPT, BROWSER)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + poster.hash() + "-w320-jpg\""))
+                .andExpect(status().isNotModified());
+
+        // no width and no Accept: the original, byte for byte
+        mvc.perform(get("/posters/" + hashed))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, poster.length()))
+                .andExpect(header().string(HttpHeaders.ETAG, poster.etag()));
+    }
+
+    @Test
+    void missingVariants_ServeOriginalAndRenderInBackground() throws Exception {
+        String hashed = store.publicName("oppenheimer.png");
+        mvc.perform(get("/posters/" + hashed).param("w", "320").header(HttpHeaders.ACCEPT, BROWSER))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string(HttpHeaders.ETAG, poster.etag()));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!variants.isComplete(poster) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(variants.isComplete(poster));
+        assertTrue(Files.exists(cache.resolve("variants").resolve(poster.hash() + "-w480.png")));
+    }
+}
@@ -0,0 +1,111 @@
+package com.moviebooking.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.moviebooking.dto.BookingView;
+import com.moviebooking.dto.MovieView;
+import com.moviebooking.dto.ViewMapper;
+import com.moviebooking.entity.Booking;
+import com.moviebooking.entity.Movie;
+import com.moviebooking.entity.Payment;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.entity.User;
+
+/**
+ * Each catalog and booking read has to stay one statement no matter how
+ * many movies, showtimes or bookings it returns.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FetchPlanStatementTest {
+
+    private static final String GUEST = "guest@example.com";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Statistics statistics;
+    private User user;
+    private Long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(new User("Asha", "asha@example.com", "hash"));
+        for (int m = 0; m < 4; m++) {
+            Movie movie = entityManager.persist(new Movie("Movie " + m, 120, "Drama", "/poster.jpg", "Synopsis"));
+            for (int s = 0; s < 3; s++) {
+                Showtime showtime = entityManager.persist(new Showtime(movie, "Screen " + s, "Pune",
+                        LocalDateTime.now().plusDays(s), 100, new byte[0]));
+                Booking booking = new Booking(showtime, "[\"A1\"]", new BigDecimal("250.00"));
+                booking.setUser(user);
+                booking.setGuestEmail(GUEST);
+                entityManager.persist(booking);
+                bookingId = booking.getId();
+                if (s > 0) {
+                    entityManager.persist(new Payment(booking, Payment.PaymentMethod.UPI));
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void catalog_OneStatementPerRead() {
+        List<MovieView> movies = ViewMapper.movies(movieRepository.findAllWithShowtimes());
+        assertEquals(4, movies.size());
+        assertEquals(12, movies.stream().mapToInt(movie -> movie.getShowtimes().size()).sum());
+        assertStatements(1);
+
+        MovieView movie = movieRepository.findWithShowtimesById(movies.get(0).getId()).map(ViewMapper::movie).orElseThrow();
+        assertEquals(3, movie.getShowtimes().size());
+        assertStatements(1);
+
+        List<Long> ids = movies.stream().map(MovieView::getId).toList();
+        assertEquals(4, ViewMapper.movies(movieRepository.findDistinctByIdIn(ids)).size());
+        assertStatements(1);
+    }
+
+    @Test
+    void bookings_OneStatementPerRead() {
+        List<BookingView> guest = ViewMapper.bookings(bookingRepository.findDetailedByGuestEmail(GUEST));
+        assertEquals(12, guest.size());
+        assertEquals(8, guest.stream().filter(booking -> booking.getPayment() != null).count());
+        assertStatements(1);
+
+        List<BookingView> mine = ViewMapper.bookings(bookingRepository.findDetailedByUser(user));
+        assertEquals(12, mine.size());
+        assertNotNull(mine.get(0).getShowtime().getMovie().getTitle());
+        assertStatements(1);
+
+        BookingView booking = bookingRepository.findDetailedById(bookingId).map(ViewMapper::booking).orElseThrow();
+        assertEquals("UPI", booking.getPayment().getMethod());
+        assertStatements(1);
+    }
+
+    private void assertStatements(long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        statistics.clear();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,107 @@
+package com.moviebooking.schedule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.moviebooking.cache.RenderedCatalog;
+import com.moviebooking.dto.ShowtimeSummary;
+import com.moviebooking.entity.Movie;
+import com.moviebooking.entity.Showtime;
+
+class ShowtimeIndexTest {
+
+    private static final LocalDate TOMORROW = LocalDate.of(2026, 10, 19);
+
+    private final RenderedCatalog renderedCatalog = mock(RenderedCatalog.class);
+    private ShowtimeIndex index;
+    private Movie dune;
+    private Movie inception;
+
+    @BeforeEach
+    void setUp() {
+        index = new ShowtimeIndex();
+        ReflectionTestUtils.setField(index, "renderedCatalog", renderedCatalog);
+        dune = movie(1L, "Dune");
+        inception = movie(2L, "Inception");
+        index.movieSaved(dune);
+        index.movieSaved(inception);
+
+        index.showtimeSaved(showtime(10L, dune, "Pune", TOMORROW.atTime(22, 0)));
+        index.showtimeSaved(showtime(11L, dune, "Pune", TOMORROW.atTime(16, 0)));
+        index.showtimeSaved(showtime(12L, inception, "Pune", TOMORROW.atTime(19, 0)));
+        index.showtimeSaved(showtime(13L, inception, "Pune", TOMORROW.plusDays(1).atTime(18, 30)));
+        index.showtimeSaved(showtime(14L, dune, "Mumbai", TOMORROW.atTime(18, 0)));
+        index.showtimeSaved(showtime(15L, dune, "Pune", TOMORROW.plusDays(3).atTime(12, 0)));
+    }
+
+    @Test
+    void whatsOn_ReturnsTheCityDayAndWindowInStartOrder() {
+        assertEquals(List.of(12L, 10L), ids(index.whatsOn("pune", TOMORROW, LocalTime.of(17, 0), LocalTime.MAX, null)));
+        assertEquals(List.of(11L, 12L, 10L), ids(index.whatsOn("Pune", TOMORROW, LocalTime.MIN, LocalTime.MAX, null)));
+        assertEquals(List.of(11L, 10L), ids(index.whatsOn("Pune", TOMORROW, LocalTime.MIN, LocalTime.MAX, 1L)));
+        // both ends of the window are inclusive
+        assertEquals(List.of(12L), ids(index.whatsOn("Pune", TOMORROW, LocalTime.of(19, 0), LocalTime.of(19, 0), null)));
+        assertEquals(List.of(), ids(index.whatsOn("Delhi", TOMORROW, LocalTime.MIN, LocalTime.MAX, null)));
+
+        ShowtimeSummary summary = index.whatsOn("Pune", TOMORROW, LocalTime.of(19, 0), LocalTime.of(19, 0), null).get(0);
+        assertEquals("Inception", summary.getMovie().getTitle());
+        assertEquals("Pune", summary.getCity());
+    }
+
+    @Test
+    void next_WalksDaysForwardAcrossCities() {
+        LocalDateTime afternoon = TOMORROW.atTime(17, 0);
+        assertEquals(List.of(14L, 10L, 15L), ids(index.next(1L, null, afternoon, 5)));
+        assertEquals(List.of(10L, 15L), ids(index.next(1L, "PUNE", afternoon, 5)));
+        assertEquals(List.of(14L), ids(index.next(1L, null, afternoon, 1)));
+        assertEquals(List.of(), ids(index.next(3L, null, afternoon, 5)));
+    }
+
+    @Test
+    void savesAndSeatChanges_UpdateTheBuckets() {
+        // moved to the next day, it leaves tomorrow's bucket
+        index.showtimeSaved(showtime(12L, inception, "Pune", TOMORROW.plusDays(1).atTime(21, 0)));
+        assertEquals(List.of(11L, 10L), ids(index.whatsOn("Pune", TOMORROW, LocalTime.MIN, LocalTime.MAX, null)));
+        assertEquals(List.of(13L, 12L), ids(index.whatsOn("Pune", TOMORROW.plusDays(1), LocalTime.MIN, LocalTime.MAX, 2L)));
+
+        clearInvocations(renderedCatalog);
+        index.seatsChanged(10L, -3);
+        index.seatsChanged(10L, 1);
+        assertEquals(98, index.whatsOn("Pune", TOMORROW, LocalTime.of(22, 0), LocalTime.MAX, 1L).get(0).getSeatsAvailable());
+        // the catalog responses listing the old count go on the catalog's next tick
+        verify(renderedCatalog, times(2)).seatsChanged(1L);
+        verify(renderedCatalog, never()).movieChanged(any());
+
+        index.showtimeRemoved(10L);
+        assertEquals(List.of(11L), ids(index.whatsOn("Pune", TOMORROW, LocalTime.MIN, LocalTime.MAX, 1L)));
+    }
+
+    private static List<Long> ids(List<ShowtimeSummary> showtimes) {
+        return showtimes.stream().map(ShowtimeSummary::getId).toList();
+    }
+
+    private static Movie movie(Long id, String title) {
+        Movie movie = new Movie(title, 150, "Sci-Fi", "poster.png", "");
+        movie.setId(id);
+        return movie;
+    }
+
+    private static Showtime showtime(Long id, Movie movie, String city, LocalDateTime start) {
+        Showtime showtime = new Showtime(movie, "PVR", city, start, 100, new byte[0]);
+        showtime.setId(id);
+        return showtime;
+    }
+}
@@ -0,0 +1,134 @@
+package com.moviebooking.search;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.moviebooking.entity.Movie;
+
+/**
+ * Finding the movie in a voice utterance as the catalog grows: the old
+ * {@code findAll()} on H2 followed by {@code contains} over every title,
+ * which the assistant did up to three times per utterance, against one
+ * pass of the title automaton. Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main MovieMatcherBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class MovieMatcherBenchmark {
+
+    private static final String[] TITLES = { "Avatar: The Way of Water", "Inception", "Dune",
+            "Spider-Man: No Way Home", "Interstellar" };
+    private static final String[] SYLLABLES = { "ka", "ri", "mo", "ten", "sha", "vel", "dor", "lu", "pra", "nis",
+            "gar", "o", "zen", "tha", "mi", "ron", "bel", "ast", "qui", "fe" };
+
+    @Param({ "5", "500", "5000", "50000" })
+    private int movies;
+
+    @Param({ "mujhe kal shaam 7 baje interstellar ke do ticket book karne hain", "ड्यून के शो का समय बताओ" })
+    private String utterance;
+
+    private Connection connection;
+    private PreparedStatement findAll;
+    private MovieMatcher matcher;
+    private String text;
+
+    @Setup
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        List<Movie> catalog = new ArrayList<>(movies);
+        connection = DriverManager.getConnection("jdbc:h2:mem:matcher_bench", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE movies (id BIGINT PRIMARY KEY, title VARCHAR(255))");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO movies VALUES (?, ?)")) {
+            for (int i = 0; i < movies; i++) {
+                Movie movie = new Movie(i < TITLES.length ? TITLES[i] : title(random), 120, "Drama", "poster.png", "");
+                movie.setId((long) i + 1);
+                catalog.add(movie);
+                insert.setLong(1, movie.getId());
+                insert.setString(2, movie.getTitle());
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        findAll = connection.prepareStatement("SELECT id, title FROM movies");
+
+        matcher = new MovieMatcher();
+        matcher.rebuild(catalog);
+        matcher.shutdown();
+        text = utterance.toLowerCase();
+        System.out.printf("%n%,d movies: scan found %s, automaton found %s%n", movies, scan(), automaton());
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE movies");
+        }
+        connection.close();
+    }
+
+    // One of the up to three scans the old parse ran; aliases were a separate map checked first
+    @Benchmark
+    public String scan() throws SQLException {
+        List<String> titles = new ArrayList<>();
+        try (ResultSet rows = findAll.executeQuery()) {
+            while (rows.next()) {
+                titles.add(rows.getString(2));
+            }
+        }
+        for (String title : titles) {
+            if (text.contains(title.toLowerCase())) {
+                return title;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String automaton() {
+        return matcher.match(text).map(MovieMatcher.Mention::title).orElse(null);
+    }
+
+    private static String title(Random random) {
+        StringBuilder title = new StringBuilder();
+        for (int w = 0, words = 1 + random.nextInt(3); w < words; w++) {
+            title.append(w == 0 ? "" : " ");
+            for (int s = 0, n = 2 + random.nextInt(2); s < n; s++) {
+                title.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+        }
+        return title.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.moviebooking.search;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.moviebooking.entity.Movie;
+import com.moviebooking.repository.MovieRepository;
+
+@ExtendWith(MockitoExtension.class)
+class MovieMatcherTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @InjectMocks
+    private MovieMatcher matcher;
+
+    private final List<Movie> catalog = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        catalog.add(movie(1L, "Avatar: The Way of Water"));
+        catalog.add(movie(2L, "Inception"));
+        catalog.add(movie(3L, "Interstellar"));
+        catalog.add(movie(4L, "Spider-Man: No Way Home"));
+        catalog.add(movie(5L, "Dune"));
+        catalog.add(movie(6L, "Dune: Part Two"));
+        when(movieRepository.findAll()).thenAnswer(invocation -> List.copyOf(catalog));
+        matcher.rebuild();
+    }
+
+    @Test
+    void match_FindsTheLongestWholeWordMention() {
+        assertEquals("Interstellar", title("mujhe interstellar ke 2 ticket chahiye"));
+        assertEquals("Spider-Man: No Way Home", title("spider-man no way home ka showtime"));
+        assertEquals("Spider-Man: No Way Home", title("स्पाइडरमैन के दो टिकट"));
+        assertEquals("Dune", title("कल ड्यून के टिकट बुक करो"));
+        assertEquals("Avatar: The Way of Water", title("अवतार"));
+        assertEquals(null, title("dunes of arrakis"));
+        assertEquals(null, title("hello"));
+        assertEquals(catalog.stream().map(Movie::getTitle).toList(), matcher.titles());
+
+        // the longest mention wins, then the earliest
+        assertEquals("Dune: Part Two", title("dune part two tickets"));
+        assertEquals(2, matcher.mentions("dune part two tickets").size());
+        assertEquals("Inception", title("inception or dune"));
+
+        catalog.add(movie(7L, "Oppenheimer"));
+        matcher.rebuild();
+        assertEquals("Oppenheimer", title("oppenheimer kab hai"));
+    }
+
+    @Test
+    void mentions_AgreeWithScanningForEveryName() {
+        // few short words, so names overlap and share suffixes and the failure links get exercised
+        String[] words = { "a", "b", "ab", "ba", "abc", "c" };
+        Random random = new Random(7);
+        List<Movie> movies = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            movies.add(movie(id, text(random, words, 1 + random.nextInt(3))));
+        }
+        matcher.rebuild(movies);
+
+        for (int n = 0; n < 500; n++) {
+            String text = text(random, words, 1 + random.nextInt(12));
+            Set<String> found = new HashSet<>();
+            matcher.mentions(text).forEach(mention -> found.add(mention.start() + ":" + mention.title()));
+
+            Set<String> expected = new HashSet<>();
+            Set<String> seen = new HashSet<>();
+            for (Movie movie : movies) {
+                String name = movie.getTitle();
+                // a name shared by two movies belongs to the first
+                if (!seen.add(name)) continue;
+                String padded = " " + text + " ";
+                for (int i = padded.indexOf(" " + name + " "); i >= 0; i = padded.indexOf(" " + name + " ", i + 1)) {
+                    expected.add(i + ":" + name);
+                }
+            }
+            assertEquals(expected, found, text);
+        }
+        assertTrue(matcher.match("zzz").isEmpty());
+    }
+
+    private String title(String text) {
+        return matcher.match(text).map(MovieMatcher.Mention::title).orElse(null);
+    }
+
+    private static String text(Random random, String[] words, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(words[random.nextInt(words.length)]);
+        }
+        return text.toString();
+    }
+
+    private static Movie movie(Long id, String title) {
+        Movie movie = new Movie(title, 120, "Drama", "poster.png", "");
+        movie.setId(id);
+        return movie;
+    }
+}
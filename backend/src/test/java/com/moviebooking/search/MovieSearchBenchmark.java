@@ -0,0 +1,138 @@
+package com.moviebooking.search;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.moviebooking.entity.Movie;
+
+/**
+ * The old {@code LOWER(title) LIKE '%x%'} query on H2 against the trigram
+ * index, over a generated catalog of 100k movies. The LIKE query finds
+ * nothing for the misspelled queries; the counts are printed at setup. Run
+ * with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main MovieSearchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class MovieSearchBenchmark {
+
+    private static final String[] KNOWN = { "avatar", "dune", "inception", "interstellar", "spider", "man",
+            "return", "rise", "night", "king", "shadow", "empire", "legend", "storm", "river", "city", "ghost",
+            "dragon", "star", "war", "lost", "ocean", "fire", "ice", "mirror", "garden", "echo", "silent",
+            "iron", "golden", "last", "first", "dark", "light", "secret", "winter", "summer", "desert" };
+    private static final String[] SYLLABLES = { "ka", "ri", "mo", "ten", "sha", "vel", "dor", "lu", "pra", "nis",
+            "gar", "o", "zen", "tha", "mi", "ron", "bel", "ast", "qui", "fe" };
+    private static final String[] GENRES = { "Action", "Drama", "Sci-Fi", "Thriller", "Comedy", "Romance" };
+
+    @Param({ "100000" })
+    private int movies;
+
+    @Param({ "interstellar", "golden drag", "intersteller", "shadw empire" })
+    private String query;
+
+    private Connection connection;
+    private PreparedStatement like;
+    private MovieSearchIndex index;
+    private String[] words;
+
+    @Setup
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        // the known words plus a few thousand made up ones, so no gram is in every title
+        words = new String[KNOWN.length + 4000];
+        System.arraycopy(KNOWN, 0, words, 0, KNOWN.length);
+        for (int i = KNOWN.length; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int s = 0, n = 2 + random.nextInt(2); s < n; s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.toString();
+        }
+        List<Movie> catalog = new ArrayList<>(movies);
+        connection = DriverManager.getConnection("jdbc:h2:mem:search_bench", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE movies (id BIGINT PRIMARY KEY, title VARCHAR(255), genre VARCHAR(64), synopsis VARCHAR(1000))");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO movies VALUES (?, ?, ?, ?)")) {
+            for (long id = 1; id <= movies; id++) {
+                Movie movie = new Movie(words(random, 2 + random.nextInt(3)), 120,
+                        GENRES[random.nextInt(GENRES.length)], "poster.png", words(random, 12));
+                movie.setId(id);
+                catalog.add(movie);
+                insert.setLong(1, id);
+                insert.setString(2, movie.getTitle());
+                insert.setString(3, movie.getGenre());
+                insert.setString(4, movie.getSynopsis());
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        like = connection.prepareStatement("SELECT id FROM movies WHERE LOWER(title) LIKE ?");
+
+        index = new MovieSearchIndex();
+        index.rebuild(catalog);
+        System.out.printf("%n'%s': like %,d rows, trigram %,d ranked%n", query, like().size(), trigram().size());
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> like() throws SQLException {
+        like.setString(1, "%" + query.toLowerCase() + "%");
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rows = like.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public List<Long> trigram() {
+        return index.search(query, 50);
+    }
+
+    private String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String word = words[random.nextInt(words.length)];
+            text.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word).append(' ');
+        }
+        return text.toString().trim();
+    }
+}
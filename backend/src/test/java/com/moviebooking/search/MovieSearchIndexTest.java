@@ -0,0 +1,87 @@
+package com.moviebooking.search;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.moviebooking.entity.Movie;
+
+class MovieSearchIndexTest {
+
+    private MovieSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MovieSearchIndex();
+        index.rebuild(List.of(
+                movie(1L, "Avatar: The Way of Water", "Sci-Fi", "The Sully family explores Pandora's oceans"),
+                movie(2L, "Inception", "Thriller", "A thief who steals secrets through dream-sharing"),
+                movie(3L, "Dune", "Sci-Fi", "Paul Atreides travels to the desert planet Arrakis"),
+                movie(4L, "Spider-Man: No Way Home", "Action", "Peter asks Doctor Strange for help"),
+                movie(5L, "Interstellar", "Sci-Fi", "Explorers travel through a wormhole")));
+    }
+
+    @Test
+    void search_RanksTitleMatchesFirstAndToleratesTypos() {
+        assertEquals(List.of(1L), index.search("avtar", 10));
+        assertEquals(List.of(4L), index.search("spiderman", 10));
+        assertEquals(5L, index.search("interstelar", 10).get(0));
+
+        // the title match beats movies that only mention it in the synopsis
+        assertEquals(3L, index.search("dune", 10).get(0));
+
+        List<Long> sciFi = index.search("sci fi", 10);
+        assertEquals(3, sciFi.size());
+        assertTrue(sciFi.containsAll(List.of(1L, 3L, 5L)));
+        assertEquals(2, index.search("sci fi", 2).size());
+
+        assertEquals(List.of(2L), index.search("dream", 10));
+        assertEquals(List.of(), index.search("zzzz", 10));
+        assertEquals(List.of(), index.search("  ", 10));
+    }
+
+    @Test
+    void search_FindsPartsOfWords() {
+        // as the old LIKE search did
+        assertEquals(List.of(1L), index.search("vat", 10));
+        assertEquals(List.of(5L), index.search("terstel", 10));
+        assertEquals(List.of(2L), index.search("ception", 10));
+        assertEquals(List.of(3L), index.search("rakis", 10));
+        // the grams are there but not in this order
+        assertEquals(List.of(), index.search("tarava", 10));
+    }
+
+    @Test
+    void index_ReplacesAndRemovesMovies() {
+        index.index(movie(3L, "Dune: Part Two", "Sci-Fi", "Paul unites with the Fremen"));
+        assertEquals(List.of(3L), index.search("part two", 10));
+        assertEquals(List.of(), index.search("arrakis", 10));
+        assertEquals(5, index.size());
+
+        index.index(movie(6L, "Oppenheimer", "Drama", "The story of the atomic bomb"));
+        assertEquals(List.of(6L), index.search("openheimer", 10));
+
+        index.remove(6L);
+        assertEquals(List.of(), index.search("oppenheimer", 10));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void replacedMovies_AreCompactedAway() {
+        for (int i = 0; i < 5000; i++) {
+            index.index(movie(1L, "Avatar " + i, "Sci-Fi", "Pandora"));
+        }
+        assertEquals(List.of(1L), index.search("avatar 4999", 10));
+        assertEquals(List.of(1L), index.search("pandora", 10));
+        assertEquals(5, index.size());
+    }
+
+    private static Movie movie(Long id, String title, String genre, String synopsis) {
+        Movie movie = new Movie(title, 120, genre, "poster.png", synopsis);
+        movie.setId(id);
+        return movie;
+    }
+}
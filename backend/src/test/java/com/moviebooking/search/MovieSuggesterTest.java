@@ -0,0 +1,90 @@
+package com.moviebooking.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.moviebooking.dto.MovieSuggestion;
+import com.moviebooking.entity.Movie;
+import com.moviebooking.repository.MovieRepository;
+import com.moviebooking.repository.ShowtimeRepository;
+
+@ExtendWith(MockitoExtension.class)
+class MovieSuggesterTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private ShowtimeRepository showtimeRepository;
+
+    @InjectMocks
+    private MovieSuggester suggester;
+
+    private final List<Movie> catalog = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(suggester, "maxResults", 3);
+        catalog.add(movie(1L, "Avatar: The Way of Water"));
+        catalog.add(movie(2L, "Inception"));
+        catalog.add(movie(3L, "Interstellar"));
+        catalog.add(movie(4L, "Spider-Man: No Way Home"));
+        catalog.add(movie(5L, "Dune"));
+        when(movieRepository.findAll()).thenAnswer(invocation -> List.copyOf(catalog));
+        when(showtimeRepository.findSeatsSoldByMovie()).thenReturn(List.of(
+                new Object[] { 3L, 90L }, new Object[] { 2L, 40L }, new Object[] { 4L, 10L }));
+        suggester.rebuild();
+    }
+
+    @Test
+    void suggest_CompletesTitleWordsAndAliasesBySeatsSold() {
+        assertEquals(List.of("Interstellar", "Inception"), titles("in"));
+        assertEquals(List.of("Spider-Man: No Way Home", "Avatar: The Way of Water"), titles("WAY"));
+        assertEquals(List.of("Spider-Man: No Way Home"), titles("no way h"));
+        assertEquals(List.of("Avatar: The Way of Water"), titles("अव"));
+        assertEquals(List.of("Spider-Man: No Way Home"), titles("स्पाइडर"));
+        assertEquals(List.of("Dune"), titles("ड्यू"));
+        assertEquals(List.of(), titles("x"));
+        assertEquals(List.of(), titles(" "));
+        assertEquals(1, suggester.suggest("in", 1).size());
+    }
+
+    @Test
+    void rebuild_SwapsInNewTitles() {
+        catalog.add(movie(6L, "Inside Out 2"));
+        catalog.add(movie(7L, "Indiana Jones"));
+        assertTrue(titles("inside").isEmpty());
+
+        suggester.rebuild();
+        assertEquals(List.of("Inside Out 2"), titles("inside"));
+        // unsold titles alphabetically, and no more than the configured three
+        assertEquals(List.of("Interstellar", "Inception", "Indiana Jones"), titles("in"));
+    }
+
+    @Test
+    void keys_StartAtEveryWord() {
+        assertEquals(List.of("spider man no way home", "man no way home", "no way home", "way home", "home"),
+                MovieSuggester.keys("Spider-Man: No Way Home"));
+    }
+
+    private List<String> titles(String query) {
+        return suggester.suggest(query, 10).stream().map(MovieSuggestion::getTitle).toList();
+    }
+
+    private static Movie movie(Long id, String title) {
+        Movie movie = new Movie(title, 120, "Drama", "poster.png", "");
+        movie.setId(id);
+        return movie;
+    }
+}
@@ -2,6 +2,7 @@ package com.moviebooking.service;
 
 import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -26,9 +28,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import com.moviebooking.dto.BookingRequest;
 import com.moviebooking.entity.Booking;
 import com.moviebooking.entity.Showtime;
+import com.moviebooking.inventory.SeatHoldService;
+import com.moviebooking.inventory.SeatInventoryService;
+import com.moviebooking.inventory.ShowtimeShardExecutor;
+import com.moviebooking.journal.BookingJournal;
 import com.moviebooking.repository.BookingRepository;
 import com.moviebooking.repository.ShowtimeRepository;
 import com.moviebooking.repository.UserRepository;
+import com.moviebooking.schedule.ShowtimeIndex;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)  // Lenient mode
@@ -42,7 +49,21 @@ class BookingServiceTest {
 
     @Mock
     private UserRepository userRepository;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private SeatHoldService seatHoldService;
+
+    @Mock
+    private ShowtimeShardExecutor shardExecutor;
+
+    @Mock
+    private BookingJournal journal;
     
+    @Mock
+    private ShowtimeIndex showtimeIndex;
 
     @Mock
     private Authentication authentication;
@@ -71,17 +92,21 @@ class BookingServiceTest {
         SecurityContextHolder.setContext(securityContext);
         // Make stub lenient to avoid unnecessary stubbing exception
         Mockito.lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
+        // Run shard tasks inline on the test thread
+        Mockito.lenient().when(shardExecutor.execute(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
     }
 
     @Test
     void createBooking_Success() {
-        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(showtimeRepository.findWithMovieById(1L)).thenReturn(Optional.of(showtime));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
             Booking booking = invocation.getArgument(0);
             booking.setId(1L);
             return booking;
         });
-        when(showtimeRepository.save(any(Showtime.class))).thenReturn(showtime);
+        when(seatInventoryService.claim(any(Showtime.class), any())).thenReturn(new int[] { 0 });
+        when(showtimeRepository.decrementSeatsAvailable(any(), anyInt())).thenReturn(1);
 
         Booking result = bookingService.createBooking(bookingRequest);
 
@@ -91,35 +116,68 @@ class BookingServiceTest {
         assertEquals(bookingRequest.getSeats(), result.getSeats());
         assertEquals(bookingRequest.getAmount(), result.getAmount());
 
-        verify(showtimeRepository).findById(1L);
+        verify(showtimeRepository).findWithMovieById(1L);
         verify(bookingRepository).save(any(Booking.class));
-        verify(showtimeRepository).save(any(Showtime.class));
+        verify(shardExecutor).execute(Mockito.eq(1L), any());
+        verify(showtimeRepository).decrementSeatsAvailable(any(), anyInt());
+        verify(showtimeRepository, never()).save(any(Showtime.class));
+        verify(seatHoldService).hold(Mockito.eq(1L), any(), any());
+    }
+
+    @Test
+    void createBooking_SeatCountUpdateRejected() {
+        when(showtimeRepository.findWithMovieById(1L)).thenReturn(Optional.of(showtime));
+        when(seatInventoryService.claim(any(Showtime.class), any())).thenReturn(new int[] { 0, 1 });
+        when(showtimeRepository.decrementSeatsAvailable(any(), anyInt())).thenReturn(0);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            bookingService.createBooking(bookingRequest);
+        });
+
+        assertEquals("No seats available", exception.getMessage());
+        verify(showtimeRepository).decrementSeatsAvailable(any(), Mockito.eq(2));
+        verify(seatInventoryService).release(any(), Mockito.eq(new int[] { 0, 1 }));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_SaveFailed_UndoesCountAndClaim() {
+        when(showtimeRepository.findWithMovieById(1L)).thenReturn(Optional.of(showtime));
+        when(seatInventoryService.claim(any(Showtime.class), any())).thenReturn(new int[] { 0, 1 });
+        when(showtimeRepository.decrementSeatsAvailable(any(), anyInt())).thenReturn(1);
+        when(bookingRepository.save(any(Booking.class))).thenThrow(new RuntimeException("Booking could not be saved"));
+
+        assertThrows(RuntimeException.class, () -> bookingService.createBooking(bookingRequest));
+
+        verify(showtimeRepository).incrementSeatsAvailable(any(), Mockito.eq(2));
+        verify(seatInventoryService).release(any(), Mockito.eq(new int[] { 0, 1 }));
+        verify(seatHoldService, never()).hold(any(), any(), any());
     }
 
     @Test
     void createBooking_ShowtimeNotFound() {
-        when(showtimeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(showtimeRepository.findWithMovieById(1L)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             bookingService.createBooking(bookingRequest);
         });
 
         assertEquals("Showtime not found", exception.getMessage());
-        verify(showtimeRepository).findById(1L);
+        verify(showtimeRepository).findWithMovieById(1L);
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void createBooking_NoSeatsAvailable() {
         showtime.setSeatsAvailable(0);
-        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(showtimeRepository.findWithMovieById(1L)).thenReturn(Optional.of(showtime));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             bookingService.createBooking(bookingRequest);
         });
 
         assertEquals("No seats available", exception.getMessage());
-        verify(showtimeRepository).findById(1L);
+        verify(showtimeRepository).findWithMovieById(1L);
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 }
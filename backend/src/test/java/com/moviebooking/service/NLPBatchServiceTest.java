@@ -0,0 +1,206 @@
+package com.moviebooking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.dto.NLPRequest;
+import com.moviebooking.dto.NLPResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NLPBatchServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private NLPService nlpService;
+
+    @InjectMocks
+    private NLPBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(batchService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(batchService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(batchService, "threads", 4);
+        ReflectionTestUtils.setField(batchService, "window", 8);
+        batchService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+    }
+
+    @Test
+    void responses_ComeBackInInputOrder_WithErrorsInline() throws Exception {
+        when(nlpService.parseIntent(any(), eq(false))).thenAnswer(call -> {
+            NLPRequest request = call.getArgument(0);
+            Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+            return response(request.getText());
+        });
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            input.append(i == 40 ? "not json" : i == 60 ? "{\"text\":\" \"}" : line("utterance " + i, null));
+            input.append(i == 20 ? "\n\n" : "\n");
+        }
+
+        List<JsonNode> output = run(input.toString());
+
+        assertEquals(100, output.size());
+        for (int i = 0; i < 100; i++) {
+            if (i == 40 || i == 60) {
+                // the blank line after 20 still counts
+                assertEquals(i + 2, output.get(i).get("line").asInt());
+                assertTrue(output.get(i).has("error"));
+            } else {
+                assertEquals("utterance " + i, output.get(i).get("response").asText());
+            }
+        }
+        verify(nlpService, times(98)).parseIntent(any(), eq(false));
+    }
+
+    @Test
+    void turnsOfOneConversation_RunOneAfterAnother() throws Exception {
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        List<String> seen = new CopyOnWriteArrayList<>();
+        when(nlpService.parseIntent(any(), eq(false))).thenAnswer(call -> {
+            NLPRequest request = call.getArgument(0);
+            AtomicInteger inFlight = running.computeIfAbsent(request.getConversationId(), id -> new AtomicInteger());
+            assertEquals(1, inFlight.incrementAndGet());
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+            seen.add(request.getText());
+            inFlight.decrementAndGet();
+            return response(request.getText());
+        });
+        StringBuilder input = new StringBuilder();
+        for (int turn = 0; turn < 20; turn++) {
+            for (String conversation : List.of("a", "b", "c")) {
+                input.append(line(conversation + turn, conversation)).append('\n');
+            }
+        }
+
+        List<JsonNode> output = run(input.toString());
+
+        assertEquals(60, output.size());
+        for (String conversation : List.of("a", "b", "c")) {
+            List<String> turns = seen.stream().filter(text -> text.startsWith(conversation)).toList();
+            List<String> expected = new ArrayList<>();
+            for (int turn = 0; turn < 20; turn++) {
+                expected.add(conversation + turn);
+            }
+            assertEquals(expected, turns);
+        }
+    }
+
+    @Test
+    void slowParses_StopReadingAtTheWindow() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        when(nlpService.parseIntent(any(), eq(false))).thenAnswer(call -> {
+            started.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return response("ok");
+        });
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            input.append(line("utterance " + i, null)).append('\n');
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Thread replay = new Thread(() -> {
+            try {
+                batchService.parse(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), out);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        replay.start();
+
+        Thread.sleep(200);
+        assertEquals(4, started.get());
+        release.countDown();
+        replay.join(5000);
+        assertEquals(50, out.toString(StandardCharsets.UTF_8).lines().count());
+    }
+
+    @Test
+    void turns_RunAsTheCallerWithoutHoldingSeats() throws Exception {
+        List<String> callers = new CopyOnWriteArrayList<>();
+        when(nlpService.parseIntent(any(), eq(false))).thenAnswer(call -> {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            callers.add(auth != null ? auth.getName() : "anonymous");
+            return response("ok");
+        });
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            input.append(line("dune ke 2 ticket " + i, i % 2 == 0 ? "a" : null)).append('\n');
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("asha@example.com", null, List.of()));
+        try {
+            run(input.toString());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        assertEquals(Collections.nCopies(20, "asha@example.com"), callers);
+
+        // the pool's threads do not keep the last caller's context
+        callers.clear();
+        run(input.toString());
+        assertEquals(Collections.nCopies(20, "anonymous"), callers);
+        verify(nlpService, never()).parseIntent(any(), eq(true));
+    }
+
+    private List<JsonNode> run(String input) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        batchService.parse(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private String line(String text, String conversationId) throws Exception {
+        NLPRequest request = new NLPRequest();
+        request.setText(text);
+        request.setConversationId(conversationId);
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private static NLPResponse response(String message) {
+        NLPResponse response = new NLPResponse();
+        response.setResponse(message);
+        return response;
+    }
+}
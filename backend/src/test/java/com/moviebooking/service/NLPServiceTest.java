@@ -0,0 +1,239 @@
+package com.moviebooking.service;
+
+import com.moviebooking.admission.AdmissionService;
+import com.moviebooking.conversation.ConversationState;
+import com.moviebooking.conversation.ConversationStore;
+import com.moviebooking.dto.BookingRequest;
+import com.moviebooking.dto.NLPRequest;
+import com.moviebooking.dto.NLPResponse;
+import com.moviebooking.dto.PaymentRequest;
+import com.moviebooking.dto.SeatView;
+import com.moviebooking.dto.ShowtimeSummary;
+import com.moviebooking.entity.Booking;
+import com.moviebooking.inventory.SeatInventoryService;
+import com.moviebooking.inventory.SeatUnavailableException;
+import com.moviebooking.inventory.ShardBusyException;
+import com.moviebooking.nlp.ParsedUtterance;
+import com.moviebooking.nlp.UtteranceCache;
+import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.search.MovieMatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NLPServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(2);
+
+    @Mock
+    private ConversationStore conversationStore;
+
+    @Mock
+    private MovieMatcher movieMatcher;
+
+    @Mock
+    private UtteranceCache utteranceCache;
+
+    @Mock
+    private ShowtimeRepository showtimeRepository;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private ShowtimeService showtimeService;
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private AdmissionService admissionService;
+
+    @InjectMocks
+    private NLPService nlpService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(nlpService, "windowMinutes", 180L);
+        ReflectionTestUtils.setField(nlpService, "seatPrice", new BigDecimal("250"));
+        when(utteranceCache.parse(anyString(), any())).thenReturn(new UtteranceCache.Parse(
+                new ParsedUtterance("book_ticket", 2, DAY, LocalTime.of(19, 0)),
+                new MovieMatcher.Mention(5L, "Dune", 0, 4)));
+    }
+
+    @Test
+    void booking_HoldsSeatsInTheNearestShowtimeWithRoom() {
+        when(showtimeService.getShowtimesBetween(eq(5L), eq(DAY.atTime(16, 0)), eq(DAY.atTime(22, 0)), anyInt()))
+                .thenReturn(List.of(showtime(1L, 16, 0, 100), showtime(2L, 19, 30, 1), showtime(3L, 21, 0, 50)));
+        when(seatInventoryService.bestAvailable(3L, 2)).thenReturn(new int[] { 40, 41 });
+        when(seatInventoryService.toSeatsJson(3L, new int[] { 40, 41 })).thenReturn("[{\"row\":5,\"seat\":1}]");
+        when(seatInventoryService.describe(eq(3L), any())).thenReturn(List.of(seat("E1"), seat("E2")));
+        Booking booking = new Booking();
+        booking.setId(77L);
+        when(bookingService.createBooking(any(BookingRequest.class))).thenReturn(booking);
+        AdmissionService.Admission admission = mock(AdmissionService.Admission.class);
+        when(admissionService.tryEnter(3L)).thenReturn(admission);
+
+        NLPResponse response = nlpService.parseIntent(new NLPRequest("dune ke 2 ticket 7 baje"));
+
+        assertFalse(response.isNeedsClarification());
+        assertEquals(3L, response.getSlots().get("showtime_id"));
+        assertEquals(77L, response.getSlots().get("booking_id"));
+        assertEquals("21:00", response.getSlots().get("time"));
+        assertEquals("E1, E2", response.getSlots().get("seat_labels"));
+        ArgumentCaptor<BookingRequest> request = ArgumentCaptor.forClass(BookingRequest.class);
+        verify(bookingService).createBooking(request.capture());
+        assertEquals(3L, request.getValue().getShowtimeId());
+        assertEquals(new BigDecimal("500"), request.getValue().getAmount());
+        // the waiting room slot is given back once the booking attempt is over
+        verify(admission).close();
+        verify(showtimeRepository, never()).findByMovieId(any());
+        verify(showtimeRepository, never()).save(any());
+    }
+
+    @Test
+    void noShowtimeNearTheAskedTime_AsksAgainWithoutBooking() {
+        when(showtimeService.getShowtimesBetween(eq(5L), any(), any(), anyInt())).thenReturn(List.of());
+
+        NLPResponse response = nlpService.parseIntent(new NLPRequest("dune ke 2 ticket 7 baje"));
+
+        assertTrue(response.isNeedsClarification());
+        assertFalse(response.getSlots().containsKey("booking_id"));
+        verify(bookingService, never()).createBooking(any());
+    }
+
+    @Test
+    void seatsTakenMeanwhile_AsksAgain() {
+        when(showtimeService.getShowtimesBetween(eq(5L), any(), any(), anyInt()))
+                .thenReturn(List.of(showtime(1L, 19, 0, 100)));
+        when(seatInventoryService.bestAvailable(1L, 2)).thenReturn(new int[] { 1, 2 });
+        when(admissionService.tryEnter(1L)).thenReturn(mock(AdmissionService.Admission.class));
+        when(bookingService.createBooking(any(BookingRequest.class)))
+                .thenThrow(new SeatUnavailableException("Seat A1 is already booked"))
+                .thenThrow(new ShardBusyException());
+
+        NLPResponse response = nlpService.parseIntent(new NLPRequest("dune ke 2 ticket 7 baje"));
+
+        assertTrue(response.isNeedsClarification());
+        assertFalse(response.getSlots().containsKey("showtime_id"));
+        assertTrue(response.getResponse().contains("book ho gayi"));
+
+        // a busy shard booked nothing, the caller is told to try again rather than that the seats are gone
+        NLPResponse busy = nlpService.parseIntent(new NLPRequest("dune ke 2 ticket 7 baje"));
+        assertTrue(busy.isNeedsClarification());
+        assertTrue(busy.getResponse().contains("dobara koshish"));
+        assertFalse(busy.getResponse().contains("book ho gayi"));
+    }
+
+    @Test
+    void queueForTheShowtime_VoiceBooksNothingAndAsksAgain() {
+        when(showtimeService.getShowtimesBetween(eq(5L), any(), any(), anyInt()))
+                .thenReturn(List.of(showtime(1L, 19, 0, 100)));
+        when(seatInventoryService.bestAvailable(1L, 2)).thenReturn(new int[] { 1, 2 });
+        when(admissionService.tryEnter(1L)).thenReturn(null);
+
+        NLPResponse response = nlpService.parseIntent(new NLPRequest("dune ke 2 ticket 7 baje"));
+
+        assertTrue(response.isNeedsClarification());
+        assertTrue(response.getResponse().contains("dobara koshish"));
+        assertFalse(response.getSlots().containsKey("booking_id"));
+        verify(bookingService, never()).createBooking(any());
+    }
+
+    @Test
+    void replayedTranscript_ParsesTheBookingWithoutHoldingSeats() {
+        when(showtimeService.getShowtimesBetween(eq(5L), any(), any(), anyInt()))
+                .thenReturn(List.of(showtime(1L, 19, 0, 100)));
+        when(seatInventoryService.bestAvailable(1L, 2)).thenReturn(new int[] { 1, 2 });
+
+        NLPResponse response = nlpService.parseIntent(new NLPRequest("dune ke 2 ticket 7 baje"), false);
+
+        assertTrue(response.isNeedsClarification());
+        assertEquals("Dune", response.getSlots().get("movie_name"));
+        assertEquals("19:00", response.getSlots().get("time"));
+        assertFalse(response.getSlots().containsKey("booking_id"));
+        verifyNoInteractions(admissionService, bookingService);
+    }
+
+    @Test
+    void paymentConfirm_PaysTheHeldBookingOnce() {
+        when(utteranceCache.parse(anyString(), any())).thenReturn(new UtteranceCache.Parse(
+                new ParsedUtterance("payment_confirm", null, null, null), null));
+        ConversationState held = ConversationState.of(new HashMap<>(Map.of(
+                "movie_name", "Dune", "num_seats", 2, "booking_id", 77L)));
+        when(conversationStore.load("c1")).thenReturn(held, ConversationState.of(new HashMap<>(Map.of(
+                "movie_name", "Dune", "num_seats", 2))));
+        when(paymentService.initiatePayment(any(PaymentRequest.class)))
+                .thenReturn(Map.of("status", "SUCCESS", "transaction_id", "TXN_1"));
+
+        NLPResponse paid = nlpService.parseIntent(request("payment confirm", "c1"));
+
+        assertFalse(paid.isNeedsClarification());
+        assertFalse(paid.getSlots().containsKey("booking_id"));
+        ArgumentCaptor<PaymentRequest> payment = ArgumentCaptor.forClass(PaymentRequest.class);
+        verify(paymentService).initiatePayment(payment.capture());
+        assertEquals(77L, payment.getValue().getBookingId());
+        assertFalse(payment.getValue().isSimulateOTP());
+
+        // nothing held any more, nothing is claimed as booked
+        NLPResponse again = nlpService.parseIntent(request("payment confirm", "c1"));
+        assertTrue(again.isNeedsClarification());
+        verifyNoMoreInteractions(paymentService);
+    }
+
+    @Test
+    void paymentConfirm_ForAnExpiredHold_DoesNotClaimTheSeats() {
+        when(utteranceCache.parse(anyString(), any())).thenReturn(new UtteranceCache.Parse(
+                new ParsedUtterance("payment_confirm", null, null, null), null));
+        when(conversationStore.load("c1")).thenReturn(ConversationState.of(new HashMap<>(Map.of(
+                "movie_name", "Dune", "num_seats", 2, "booking_id", 77L))));
+        when(paymentService.initiatePayment(any(PaymentRequest.class)))
+                .thenThrow(new RuntimeException("Booking is not in pending status"));
+
+        NLPResponse response = nlpService.parseIntent(request("payment confirm", "c1"));
+
+        assertTrue(response.isNeedsClarification());
+        assertFalse(response.getResponse().contains("book ho gayi"));
+    }
+
+    private static NLPRequest request(String text, String conversationId) {
+        NLPRequest request = new NLPRequest(text);
+        request.setConversationId(conversationId);
+        return request;
+    }
+
+    private static ShowtimeSummary showtime(Long id, int hour, int minute, int seatsAvailable) {
+        return new ShowtimeSummary(id, LocalDateTime.of(DAY, LocalTime.of(hour, minute, 33)), "PVR", "Pune",
+                seatsAvailable, 120);
+    }
+
+    private static SeatView seat(String label) {
+        SeatView seat = new SeatView();
+        seat.setLabel(label);
+        return seat;
+    }
+}
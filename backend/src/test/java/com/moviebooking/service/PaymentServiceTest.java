@@ -3,6 +3,9 @@ package com.moviebooking.service;
 import com.moviebooking.dto.PaymentRequest;
 import com.moviebooking.entity.Booking;
 import com.moviebooking.entity.Payment;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.inventory.SeatHoldService;
+import com.moviebooking.journal.BookingJournal;
 import com.moviebooking.repository.BookingRepository;
 import com.moviebooking.repository.PaymentRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +32,12 @@ class PaymentServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private SeatHoldService seatHoldService;
+
+    @Mock
+    private BookingJournal journal;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -40,6 +49,9 @@ class PaymentServiceTest {
         booking = new Booking();
         booking.setId(1L);
         booking.setStatus(Booking.BookingStatus.PENDING);
+        Showtime showtime = new Showtime();
+        showtime.setId(1L);
+        booking.setShowtime(showtime);
 
         paymentRequest = new PaymentRequest();
         paymentRequest.setBookingId(1L);
@@ -100,6 +112,24 @@ class PaymentServiceTest {
         verify(bookingRepository).findById(1L);
         verify(paymentRepository).save(any(Payment.class));
         verify(bookingRepository).save(any(Booking.class));
+        verify(seatHoldService).confirm(1L);
+    }
+
+    @Test
+    void initiatePayment_HoldExpired() {
+        // Arrange
+        paymentRequest.setSimulateOTP(false);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        doThrow(new IllegalArgumentException("Booking hold has expired")).when(seatHoldService).confirm(1L);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            paymentService.initiatePayment(paymentRequest);
+        });
+
+        assertEquals("Booking hold has expired", exception.getMessage());
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
@@ -0,0 +1,157 @@
+package com.moviebooking.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.moviebooking.inventory.SeatInventory;
+import com.moviebooking.inventory.SeatInventoryService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SeatStreamTest {
+
+    @Test
+    void feed_CoalescesChangesBetweenFlushes() {
+        SeatInventory inventory = SeatInventory.create(20, 10);
+        SeatFeed feed = new SeatFeed(1L, inventory);
+        inventory.addChangeListener(feed);
+
+        inventory.claim(new int[] { 3, 4 });
+        inventory.release(new int[] { 4 });
+        inventory.claim(new int[] { 12 });
+
+        SeatDelta delta = feed.drain();
+        assertEquals(1, delta.version());
+        assertArrayEquals(new int[] { 3, 12 }, delta.claimed());
+        assertArrayEquals(new int[] { 4 }, delta.released());
+        assertNull(feed.drain());
+
+        inventory.release(new int[] { 3 });
+        assertEquals(2, feed.drain().version());
+    }
+
+    @Test
+    void claimsInATransaction_GoOutOnlyOnceCommitted() {
+        SeatInventory inventory = SeatInventory.create(20, 10);
+        SeatFeed feed = new SeatFeed(1L, inventory);
+        inventory.addChangeListener(feed);
+
+        List<TransactionSynchronization> committed = inTransaction(() -> inventory.claim(new int[] { 5 }));
+        inventory.claim(new int[] { 7 });
+        // the later claim was not in a transaction, the earlier one has not committed yet
+        assertArrayEquals(new int[] { 7 }, feed.drain().claimed());
+
+        committed.forEach(TransactionSynchronization::afterCommit);
+        SeatDelta late = feed.drain();
+        assertArrayEquals(new int[] { 5 }, late.claimed());
+        assertEquals(2, late.version());
+
+        // rolled back: the claim never goes out, the seat going back does
+        inTransaction(() -> inventory.claim(new int[] { 8 }));
+        inventory.release(new int[] { 8 });
+        SeatDelta rolledBack = feed.drain();
+        assertArrayEquals(new int[0], rolledBack.claimed());
+        assertArrayEquals(new int[] { 8 }, rolledBack.released());
+    }
+
+    @Test
+    void lastSubscriberLeaving_DropsTheFeed() {
+        SeatInventory inventory = SeatInventory.create(20, 10);
+        SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+        when(seatInventoryService.getInventory(1L)).thenReturn(inventory);
+        SeatStreamService service = new SeatStreamService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "seatInventoryService", seatInventoryService);
+        ReflectionTestUtils.setField(service, "bufferSize", 16);
+        ReflectionTestUtils.setField(service, "writerThreads", 1);
+        service.start();
+
+        service.subscribe(1L);
+        service.subscribe(1L);
+        SeatFeed feed = feeds(service).get(1L);
+        List<SeatSubscriber> subscribers = new ArrayList<>(feed.subscribers);
+        assertEquals(1, service.getFeedCount());
+
+        service.unsubscribe(1L, subscribers.get(0));
+        assertEquals(1, service.getSubscriberCount(1L));
+        service.unsubscribe(1L, subscribers.get(1));
+        assertEquals(0, service.getFeedCount());
+
+        // no longer told about changes
+        inventory.claim(new int[] { 1 });
+        assertNull(feed.drain());
+        service.subscribe(1L);
+        assertNotSame(feed, feeds(service).get(1L));
+        service.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, SeatFeed> feeds(SeatStreamService service) {
+        return (Map<Long, SeatFeed>) ReflectionTestUtils.getField(service, "feeds");
+    }
+
+    private static List<TransactionSynchronization> inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void slowSubscriber_GetsSnapshotInsteadOfBacklog() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        Set<DataWithMediaType> snapshot = SseEmitter.event().name("snapshot").data("{}").build();
+        SeatSubscriber subscriber = new SeatSubscriber(emitter, 2, () -> snapshot);
+        List<Runnable> pending = new ArrayList<>();
+
+        // initial snapshot
+        subscriber.schedule(pending::add);
+        runAll(pending);
+        assertEquals(List.of(snapshot), emitter.sent);
+
+        // the writer does not get to run while four deltas arrive
+        List<Set<DataWithMediaType>> deltas = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            deltas.add(SseEmitter.event().name("delta").data("{}").build());
+            subscriber.offer(deltas.get(i), pending::add);
+        }
+        runAll(pending);
+
+        assertEquals(2, emitter.sent.size());
+        assertSame(snapshot, emitter.sent.get(1));
+    }
+
+    private static void runAll(List<Runnable> pending) {
+        while (!pending.isEmpty()) {
+            pending.remove(0).run();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<Set<DataWithMediaType>> sent = new ArrayList<>();
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) {
+            sent.add(items);
+        }
+    }
+}
@@ -11,6 +11,7 @@ const VoiceAgent = () => {
   const [conversation, setConversation] = useState([])
   const [speechRecognition, setSpeechRecognition] = useState(null)
   const [currentSlots, setCurrentSlots] = useState({})
+  const [conversationId, setConversationId] = useState(null)
   const [isVoiceEnabled, setIsVoiceEnabled] = useState(true)
   const [isProcessing, setIsProcessing] = useState(false)
   const conversationEndRef = useRef(null)
@@ -79,8 +80,9 @@ const VoiceAgent = () => {
   const processVoiceInput = async (text) => {
     setIsProcessing(true)
     try {
-      const response = await nlpAPI.parse(text)
+      const response = await nlpAPI.parse(text, conversationId)
       const { intent, slots, response: agentResponse, needsClarification } = response.data
+      setConversationId(response.data.conversationId)
 
       setConversation(prev => [...prev, { type: 'user', message: text, timestamp: new Date() }])
       setConversation(prev => [...prev, { type: 'agent', message: agentResponse, needsClarification, timestamp: new Date() }])
@@ -110,6 +112,19 @@ const VoiceAgent = () => {
   }
 
   const handleBookingConfirmation = async (slots) => {
+    // 🔹 Seats are already held for this booking, straight to payment
+    if (slots.booking_id) {
+      localStorage.setItem('bookingData', JSON.stringify({
+        id: slots.booking_id,
+        showtimeId: slots.showtime_id,
+        movie: { title: slots.movie_name },
+        showtime: { startTime: `${slots.date}T${slots.time}` },
+        seats: JSON.parse(slots.seats),
+        amount: JSON.parse(slots.seats).length * 250
+      }))
+      navigate('/checkout')
+      return
+    }
     try {
       let movieId = slots.movie_id
       if (!movieId) {
@@ -122,7 +137,7 @@ const VoiceAgent = () => {
     } catch (error) { toast.error('Booking process error') }
   }
 
-  const clearConversation = () => { setConversation([]); setCurrentSlots({}); setTranscript('') }
+  const clearConversation = () => { setConversation([]); setCurrentSlots({}); setConversationId(null); setTranscript('') }
 
   const toggleVoice = () => { setIsVoiceEnabled(!isVoiceEnabled); if(isVoiceEnabled && 'speechSynthesis' in window) window.speechSynthesis.cancel() }
 
@@ -1,8 +1,8 @@
-import React, { useState, useEffect } from 'react'
+import React, { useState, useEffect, useRef } from 'react'
 import { useNavigate } from 'react-router-dom'
 import { ArrowLeft } from 'lucide-react'
 import { useAuth } from '../contexts/AuthContext'
-import { bookingsAPI, paymentsAPI } from '../services/api'
+import { bookingsAPI, paymentsAPI, queueAPI } from '../services/api'
 import toast from 'react-hot-toast'
 
 const Checkout = () => {
@@ -20,6 +20,9 @@ const Checkout = () => {
   const [showOTP, setShowOTP] = useState(false)
   const [otpToken, setOtpToken] = useState('')
   const [otp, setOtp] = useState('')
+  // One key per attempt, kept across retries so a lost response never books twice
+  const bookingKey = useRef(crypto.randomUUID())
+  const paymentKey = useRef(crypto.randomUUID())
 
   useEffect(() => {
     const storedBookingData = localStorage.getItem('bookingData')
@@ -37,7 +40,8 @@ const Checkout = () => {
         },
         seats: data?.seats || [],
         amount: data?.amount || 0,
-        showtimeId: data?.showtimeId
+        showtimeId: data?.showtimeId,
+        id: data?.id
       })
     } else {
       toast.error('No booking data found')
@@ -45,6 +49,27 @@ const Checkout = () => {
     }
   }, [navigate])
 
+  // Busy showtimes answer 429 with a queue ticket, wait for admission and retry
+  const createBookingThroughQueue = async (bookingRequest) => {
+    let token
+    for (;;) {
+      try {
+        const response = await bookingsAPI.create(bookingRequest, token, bookingKey.current)
+        toast.dismiss('queue')
+        return response
+      } catch (error) {
+        if (error.response?.status !== 429) throw error
+        let ticket = error.response.data
+        token = ticket.token
+        while (ticket.status === 'WAITING') {
+          toast.loading(`You are #${ticket.position} in the queue (~${ticket.etaSeconds}s)`, { id: 'queue' })
+          await new Promise(resolve => setTimeout(resolve, 2000))
+          ticket = (await queueAPI.status(bookingRequest.showtimeId, token)).data
+        }
+      }
+    }
+  }
+
   const handlePayment = async (e) => {
     e.preventDefault()
     setIsProcessing(true)
@@ -56,7 +81,7 @@ const Checkout = () => {
         amount: bookingData.amount
       }
 
-      if (!user) {
+      if (!user && !bookingData.id) {
         if (!guestData.name || !guestData.email) {
           toast.error('Please fill in your details')
           setIsProcessing(false)
@@ -66,8 +91,11 @@ const Checkout = () => {
         bookingRequest.guestEmail = guestData.email
       }
 
-      const bookingResponse = await bookingsAPI.create(bookingRequest)
-      const booking = bookingResponse.data
+      // a booking made by the voice assistant already holds its seats
+      const booking = bookingData.id ? { id: bookingData.id } : (await createBookingThroughQueue(bookingRequest).catch(error => {
+        if (error.response) bookingKey.current = crypto.randomUUID()
+        throw error
+      })).data
 
       const updatedBookingData = { ...bookingData, id: booking.id }
       setBookingData(updatedBookingData)
@@ -82,7 +110,7 @@ const Checkout = () => {
         simulateOTP: true
       }
 
-      const paymentResponse = await paymentsAPI.initiateMock(paymentRequest)
+      const paymentResponse = await paymentsAPI.initiateMock(paymentRequest, paymentKey.current)
 
       if (paymentResponse.data.status === 'OTP_REQUIRED') {
         setOtpToken(paymentResponse.data.otp_token)
@@ -93,6 +121,8 @@ const Checkout = () => {
       }
     } catch (error) {
       console.error('Payment error:', error)
+      // a definite answer is replayed for the same key, edited details need a fresh one
+      if (error.response) paymentKey.current = crypto.randomUUID()
       toast.error(error.response?.data?.error || 'Payment failed')
     } finally {
       setIsProcessing(false)
@@ -54,7 +54,8 @@ const Home = () => {
             <div className="relative">
               {/* Corrected image URL */}
               <img
-                src={`http://localhost:8080/posters/${movie.posterUrl}`}
+                src={`http://localhost:8080/posters/${movie.posterUrl}?w=480`}
+                srcSet={`http://localhost:8080/posters/${movie.posterUrl}?w=480 1x, http://localhost:8080/posters/${movie.posterUrl}?w=768 2x`}
                 alt={movie.title}
                 className="w-full h-64 object-cover rounded-t-2xl"
               />
@@ -70,7 +70,7 @@ const MovieDetail = () => {
         {/* Movie Info */}
         <div className="lg:col-span-1 transform transition-transform duration-300 hover:scale-105">
           <img
-            src={`http://localhost:8080/posters/${movie.posterUrl}`}
+            src={`http://localhost:8080/posters/${movie.posterUrl}?w=768`}
             alt={movie.title}
             className="w-full rounded-3xl shadow-2xl mb-6"
           />
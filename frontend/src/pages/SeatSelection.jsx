@@ -1,7 +1,7 @@
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useRef } from "react";
 import { useParams, useNavigate } from "react-router-dom";
 import { ArrowLeft } from "lucide-react";
-import { moviesAPI } from "../services/api";
+import { showtimesAPI, seatsAPI } from "../services/api";
 import toast from "react-hot-toast";
 
 const SeatSelection = () => {
@@ -11,44 +11,88 @@ const SeatSelection = () => {
   const [selectedSeats, setSelectedSeats] = useState([]);
   const [seatMap, setSeatMap] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [partySize, setPartySize] = useState(2);
+  const selectedRef = useRef([]);
 
   useEffect(() => {
     fetchShowtimeDetails();
   }, [showtimeId]);
 
-  const fetchShowtimeDetails = async () => {
-    try {
-      const moviesResponse = await moviesAPI.getAll();
-      const movies = moviesResponse.data;
+  useEffect(() => {
+    selectedRef.current = selectedSeats;
+  }, [selectedSeats]);
+
+  // Live availability: a snapshot of booked seats, then claimed/released deltas
+  useEffect(() => {
+    if (!showtime) return;
+    const source = new EventSource(seatsAPI.streamUrl(showtimeId));
+    let version = 0;
+    let seatsPerRow = 0;
+    const indexOf = (seat) => (seat.row - 1) * seatsPerRow + (seat.seat - 1);
+
+    source.addEventListener("snapshot", (event) => {
+      const snapshot = JSON.parse(event.data);
+      version = snapshot.version;
+      seatsPerRow = snapshot.seatsPerRow;
+      const taken = new Set(snapshot.taken);
+      setSeatMap((prev) =>
+        prev.map((seat) => ({ ...seat, available: !taken.has(indexOf(seat)) }))
+      );
+    });
 
-      let foundShowtime = null;
-      for (const movie of movies) {
-        if (movie.showtimes) {
-          foundShowtime = movie.showtimes.find(
-            (st) => st.id === parseInt(showtimeId)
-          );
-          if (foundShowtime) {
-            foundShowtime.movie = movie;
-            break;
-          }
-        }
+    source.addEventListener("delta", (event) => {
+      const delta = JSON.parse(event.data);
+      if (!seatsPerRow || delta.version <= version) return;
+      version = delta.version;
+      const claimed = new Set(delta.claimed);
+      const released = new Set(delta.released);
+      setSeatMap((prev) =>
+        prev.map((seat) => {
+          const index = indexOf(seat);
+          if (claimed.has(index)) return { ...seat, available: false };
+          if (released.has(index)) return { ...seat, available: true };
+          return seat;
+        })
+      );
+      if (selectedRef.current.some((seat) => claimed.has(indexOf(seat)))) {
+        toast.error("Some of your seats were just booked by someone else");
+        setSelectedSeats((prev) => prev.filter((seat) => !claimed.has(indexOf(seat))));
       }
+    });
 
-      if (foundShowtime) {
-        setShowtime(foundShowtime);
-        setSeatMap(JSON.parse(foundShowtime.seatMap || "[]"));
-      } else {
+    return () => source.close();
+  }, [showtime, showtimeId]);
+
+  const fetchShowtimeDetails = async () => {
+    try {
+      const response = await showtimesAPI.getById(showtimeId);
+      setShowtime(response.data);
+      setSeatMap(toSeatMap(response.data.seats));
+    } catch (error) {
+      console.error("Error fetching showtime:", error);
+      if (error.response?.status === 404) {
         toast.error("Showtime not found");
         navigate("/");
+      } else {
+        toast.error("Failed to load showtime details");
       }
-    } catch (error) {
-      console.error("Error fetching showtime:", error);
-      toast.error("Failed to load showtime details");
     } finally {
       setLoading(false);
     }
   };
 
+  // Expands the compact payload (type runs + booked seat indexes) into one entry per seat
+  const toSeatMap = (seats) => {
+    const taken = new Set(seats.taken);
+    const types = seats.types.flatMap((run) => Array(run.count).fill(run.type));
+    return Array.from({ length: seats.seatsTotal }, (_, index) => ({
+      row: Math.floor(index / seats.seatsPerRow) + 1,
+      seat: (index % seats.seatsPerRow) + 1,
+      available: !taken.has(index),
+      type: types[index],
+    }));
+  };
+
   const handleSeatClick = (seat) => {
     if (seat?.available) {
       setSelectedSeats((prev) => {
@@ -62,6 +106,17 @@ const SeatSelection = () => {
     }
   };
 
+  const handleBestSeats = async () => {
+    try {
+      const response = await seatsAPI.best(showtimeId, partySize);
+      setSelectedSeats(
+        response.data.map((seat) => ({ ...seat, available: true }))
+      );
+    } catch (error) {
+      toast.error(error.response?.data?.error || "No adjacent seats available");
+    }
+  };
+
   const handleContinue = () => {
     if (selectedSeats.length === 0) {
       toast.error("Please select at least one seat");
@@ -201,6 +256,25 @@ const SeatSelection = () => {
             <h2 className="text-xl font-semibold text-gray-900 mb-6 drop-shadow-[1px_1px_2px_rgba(0,0,0,0.2)]">
               Select Seats
             </h2>
+            <div className="flex items-center space-x-2 mb-6">
+              <select
+                value={partySize}
+                onChange={(e) => setPartySize(parseInt(e.target.value))}
+                className="border rounded px-2 py-1 text-sm"
+              >
+                {Array.from({ length: 10 }, (_, i) => (
+                  <option key={i + 1} value={i + 1}>
+                    {i + 1}
+                  </option>
+                ))}
+              </select>
+              <button
+                onClick={handleBestSeats}
+                className="text-sm text-primary-600 hover:text-primary-700 font-medium"
+              >
+                Pick best seats
+              </button>
+            </div>
             {renderSeatMap()}
           </div>
         </div>
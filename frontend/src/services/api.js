@@ -8,6 +8,7 @@ export const moviesAPI = {
   getAll: () => axios.get(`${API_BASE_URL}/movies`),
   getById: (id) => axios.get(`${API_BASE_URL}/movies/${id}`),
   search: (title) => axios.get(`${API_BASE_URL}/movies/search?title=${title}`),
+  suggest: (q, limit = 10) => axios.get(`${API_BASE_URL}/movies/suggest`, { params: { q, limit } }),
 };
 
 // -------------------- Posters API --------------------
@@ -26,24 +27,54 @@ export const postersAPI = {
 
 // -------------------- Bookings API --------------------
 export const bookingsAPI = {
-  create: (bookingData) => axios.post(`${API_BASE_URL}/bookings`, bookingData),
+  create: (bookingData, queueToken, idempotencyKey) =>
+    axios.post(`${API_BASE_URL}/bookings`, bookingData, {
+      headers: {
+        ...(queueToken && { "X-Queue-Token": queueToken }),
+        ...(idempotencyKey && { "Idempotency-Key": idempotencyKey }),
+      },
+    }),
   getById: (id) => axios.get(`${API_BASE_URL}/bookings/${id}`),
   getMyBookings: () => axios.get(`${API_BASE_URL}/bookings/my-bookings`),
   getGuestBookings: (email) =>
     axios.get(`${API_BASE_URL}/bookings/guest/${email}`),
 };
 
+// -------------------- Waiting Room API --------------------
+export const queueAPI = {
+  join: (showtimeId) =>
+    axios.post(`${API_BASE_URL}/showtimes/${showtimeId}/queue`),
+  status: (showtimeId, token) =>
+    axios.get(`${API_BASE_URL}/showtimes/${showtimeId}/queue/${token}`),
+};
+
+// -------------------- Showtimes API --------------------
+export const showtimesAPI = {
+  getById: (id) => axios.get(`${API_BASE_URL}/showtimes/${id}`),
+};
+
+// -------------------- Seats API --------------------
+export const seatsAPI = {
+  best: (showtimeId, count) =>
+    axios.get(`${API_BASE_URL}/showtimes/${showtimeId}/seats/best?count=${count}`),
+  streamUrl: (showtimeId) => `${API_BASE_URL}/showtimes/${showtimeId}/seats/stream`,
+};
+
 // -------------------- Payments API --------------------
 export const paymentsAPI = {
-  initiateMock: (paymentData) =>
-    axios.post(`${API_BASE_URL}/payments/mock`, paymentData),
+  initiateMock: (paymentData, idempotencyKey) =>
+    axios.post(
+      `${API_BASE_URL}/payments/mock`,
+      paymentData,
+      idempotencyKey ? { headers: { "Idempotency-Key": idempotencyKey } } : undefined
+    ),
   confirmOTP: (otpData) =>
     axios.post(`${API_BASE_URL}/payments/mock/confirm`, otpData),
 };
 
 // -------------------- NLP API --------------------
 export const nlpAPI = {
-  parse: (text) => axios.post(`${API_BASE_URL}/nlp/parse`, { text }),
+  parse: (text, conversationId) => axios.post(`${API_BASE_URL}/nlp/parse`, { text, conversationId }),
 };
 
 // -------------------- Auth API --------------------